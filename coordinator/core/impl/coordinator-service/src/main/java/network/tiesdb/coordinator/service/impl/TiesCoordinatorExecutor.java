@@ -0,0 +1,177 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.coordinator.service.impl.TiesCoordinatorServiceConfigImpl.ExecutorConfig;
+import network.tiesdb.coordinator.service.impl.TiesCoordinatorServiceConfigImpl.RejectionPolicy;
+
+/**
+ * TiesDB Coordinator bounded executor with queue and thread gauges.
+ */
+public class TiesCoordinatorExecutor extends ThreadPoolExecutor implements TiesCoordinatorExecutorMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesCoordinatorExecutor.class);
+
+    private static final String JMX_DOMAIN = "network.tiesdb.coordinator";
+
+    private static class CountingRejectionHandler implements RejectedExecutionHandler {
+
+        private final AtomicLong rejectedCount = new AtomicLong();
+        private final RejectedExecutionHandler handler;
+        private final String name;
+
+        private CountingRejectionHandler(String name, RejectionPolicy policy) {
+            this.name = name;
+            switch (null == policy ? RejectionPolicy.ABORT : policy) {
+            case CALLER_RUNS:
+                this.handler = new CallerRunsPolicy();
+                break;
+            case DISCARD:
+                this.handler = (r, executor) -> LOG.warn("Task discarded by overloaded {} executor", name);
+                break;
+            case ABORT:
+            default:
+                this.handler = new AbortPolicy();
+            }
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            LOG.trace("Task rejected by {} executor", name);
+            rejectedCount.incrementAndGet();
+            handler.rejectedExecution(r, executor);
+        }
+
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCounter = new AtomicInteger();
+        private final String name;
+
+        private NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "TiesCoordinator-" + name + "-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+
+    }
+
+    private final String name;
+    private final CountingRejectionHandler rejectionHandler;
+    private volatile ObjectName objectName;
+
+    public TiesCoordinatorExecutor(String name, ExecutorConfig config) {
+        this(name, config.getThreadsCount(), config.getQueueSize(), new CountingRejectionHandler(name, config.getRejectionPolicy()));
+    }
+
+    private TiesCoordinatorExecutor(String name, int threadsCount, int queueSize, CountingRejectionHandler rejectionHandler) {
+        super(threadsCount, threadsCount, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), new NamedThreadFactory(name),
+                rejectionHandler);
+        allowCoreThreadTimeOut(true);
+        this.name = name;
+        this.rejectionHandler = rejectionHandler;
+    }
+
+    public void register() {
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=Executor,name=" + name);
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            if (!mbs.isRegistered(objectName)) {
+                mbs.registerMBean(this, objectName);
+                this.objectName = objectName;
+            }
+        } catch (JMException e) {
+            LOG.warn("Failed to register {} executor gauges", name, e);
+        }
+    }
+
+    public void unregister() {
+        ObjectName objectName = this.objectName;
+        if (null != objectName) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.warn("Failed to unregister {} executor gauges", name, e);
+            }
+            this.objectName = null;
+        }
+    }
+
+    public void shutdown(long timeout, TimeUnit unit) {
+        unregister();
+        shutdown();
+        try {
+            if (!awaitTermination(timeout, unit)) {
+                LOG.warn("Executor {} was not terminated in time, {} tasks are dropped", name, shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            LOG.error("Failed to shut down {} executor", name, e);
+            shutdownNow();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    @Override
+    public int getQueueRemainingCapacity() {
+        return getQueue().remainingCapacity();
+    }
+
+    @Override
+    public long getRejectedTaskCount() {
+        return rejectionHandler.rejectedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "TiesCoordinatorExecutor [name=" + name + ", queueDepth=" + getQueueDepth() + ", activeCount=" + getActiveCount()
+                + ", poolSize=" + getPoolSize() + ", rejectedTaskCount=" + getRejectedTaskCount() + "]";
+    }
+
+}
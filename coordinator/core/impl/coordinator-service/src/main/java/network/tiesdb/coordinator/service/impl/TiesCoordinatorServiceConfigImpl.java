@@ -18,13 +18,16 @@
  */
 package network.tiesdb.coordinator.service.impl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import network.tiesdb.context.api.TiesRouterConfig;
 import network.tiesdb.context.api.TiesSchemaConfig;
 import network.tiesdb.context.api.TiesServiceConfig;
 import network.tiesdb.context.api.TiesTransportConfig;
 import network.tiesdb.context.api.annotation.TiesConfigElement;
+import network.tiesdb.coordinator.service.impl.scope.TiesCoordinatedRequestPool.RequestType;
 import network.tiesdb.service.api.TiesServiceFactory;
 
 /**
@@ -38,6 +41,242 @@ public class TiesCoordinatorServiceConfigImpl implements TiesServiceConfig {
     static final String BINDING = "network.tiesdb.service.TiesDBCoordinator";
     static final String SHORT_BINDING = "TiesDBCoordinator";
 
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    public static enum RejectionPolicy {
+        ABORT, CALLER_RUNS, DISCARD
+    }
+
+    public static class ExecutorConfig {
+
+        private Integer threadsCount;
+        private Integer queueSize;
+        private RejectionPolicy rejectionPolicy;
+
+        public ExecutorConfig() {
+            this(PROCESSORS, 1024, RejectionPolicy.CALLER_RUNS);
+        }
+
+        public ExecutorConfig(Integer threadsCount, Integer queueSize, RejectionPolicy rejectionPolicy) {
+            this.threadsCount = threadsCount;
+            this.queueSize = queueSize;
+            this.rejectionPolicy = rejectionPolicy;
+        }
+
+        public Integer getThreadsCount() {
+            return threadsCount;
+        }
+
+        public void setThreadsCount(Integer threadsCount) {
+            this.threadsCount = threadsCount;
+        }
+
+        public Integer getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(Integer queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public RejectionPolicy getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+
+        public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+
+    }
+
+    public static class ExecutorsConfig {
+
+        private ExecutorConfig fanOut = new ExecutorConfig(PROCESSORS * 2, 4096, RejectionPolicy.CALLER_RUNS);
+        private ExecutorConfig merge = new ExecutorConfig(PROCESSORS, 4096, RejectionPolicy.ABORT);
+        private ExecutorConfig healing = new ExecutorConfig(Math.max(1, PROCESSORS / 2), 1024, RejectionPolicy.DISCARD);
+        private ExecutorConfig schema = new ExecutorConfig(4, 1024, RejectionPolicy.CALLER_RUNS);
+
+        public ExecutorConfig getFanOut() {
+            return fanOut;
+        }
+
+        public void setFanOut(ExecutorConfig fanOut) {
+            this.fanOut = fanOut;
+        }
+
+        public ExecutorConfig getMerge() {
+            return merge;
+        }
+
+        public void setMerge(ExecutorConfig merge) {
+            this.merge = merge;
+        }
+
+        public ExecutorConfig getHealing() {
+            return healing;
+        }
+
+        public void setHealing(ExecutorConfig healing) {
+            this.healing = healing;
+        }
+
+        public ExecutorConfig getSchema() {
+            return schema;
+        }
+
+        public void setSchema(ExecutorConfig schema) {
+            this.schema = schema;
+        }
+
+    }
+
+    public static class RequestTimeoutConfig {
+
+        private Long modification;
+        private Long recollection;
+        private Long healing;
+
+        public RequestTimeoutConfig() {
+            // NOP Empty timeouts are inherited from enclosing configuration
+        }
+
+        public RequestTimeoutConfig(Long modification, Long recollection, Long healing) {
+            this.modification = modification;
+            this.recollection = recollection;
+            this.healing = healing;
+        }
+
+        public Long getModification() {
+            return modification;
+        }
+
+        public void setModification(Long modification) {
+            this.modification = modification;
+        }
+
+        public Long getRecollection() {
+            return recollection;
+        }
+
+        public void setRecollection(Long recollection) {
+            this.recollection = recollection;
+        }
+
+        public Long getHealing() {
+            return healing;
+        }
+
+        public void setHealing(Long healing) {
+            this.healing = healing;
+        }
+
+        public Long getTimeout(RequestType type) {
+            switch (type) {
+            case MODIFICATION:
+                return modification;
+            case RECOLLECTION:
+                return recollection;
+            case HEALING:
+                return healing;
+            default:
+                throw new IllegalArgumentException("Unknown request type " + type);
+            }
+        }
+
+        void validate(String name, boolean required) {
+            for (RequestType type : RequestType.values()) {
+                Long timeout = getTimeout(type);
+                if (null == timeout ? required : timeout <= 0) {
+                    throw new IllegalArgumentException("Illegal " + type + " request timeout " + timeout + " for " + name);
+                }
+            }
+        }
+
+    }
+
+    public static class TablespaceRequestTimeoutConfig extends RequestTimeoutConfig {
+
+        private Map<String, RequestTimeoutConfig> tables = new HashMap<>();
+
+        public Map<String, RequestTimeoutConfig> getTables() {
+            return tables;
+        }
+
+        public void setTables(Map<String, RequestTimeoutConfig> tables) {
+            this.tables = tables;
+        }
+
+    }
+
+    public static class RequestTimeoutsConfig extends RequestTimeoutConfig {
+
+        private Map<String, TablespaceRequestTimeoutConfig> tablespaces = new HashMap<>();
+
+        public RequestTimeoutsConfig() {
+            super(60000L, 60000L, 120000L);
+        }
+
+        public Map<String, TablespaceRequestTimeoutConfig> getTablespaces() {
+            return tablespaces;
+        }
+
+        public void setTablespaces(Map<String, TablespaceRequestTimeoutConfig> tablespaces) {
+            this.tablespaces = tablespaces;
+        }
+
+        /**
+         * Checks that all the default timeouts are set and every configured
+         * timeout is positive.
+         */
+        public void validate() {
+            validate("default", true);
+            if (null == tablespaces) {
+                return;
+            }
+            for (Map.Entry<String, TablespaceRequestTimeoutConfig> tablespace : tablespaces.entrySet()) {
+                if (null == tablespace.getValue()) {
+                    continue;
+                }
+                tablespace.getValue().validate(tablespace.getKey(), false);
+                Map<String, RequestTimeoutConfig> tables = tablespace.getValue().getTables();
+                if (null == tables) {
+                    continue;
+                }
+                for (Map.Entry<String, RequestTimeoutConfig> table : tables.entrySet()) {
+                    if (null != table.getValue()) {
+                        table.getValue().validate(tablespace.getKey() + "." + table.getKey(), false);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Resolves request timeout in milliseconds. Table timeout overrides
+         * tablespace timeout which overrides the default one.
+         */
+        public long getTimeout(RequestType type, String tablespaceName, String tableName) {
+            Long timeout = null;
+            TablespaceRequestTimeoutConfig tablespace = null == tablespaces ? null : tablespaces.get(tablespaceName);
+            if (null != tablespace) {
+                RequestTimeoutConfig table = null == tablespace.getTables() ? null : tablespace.getTables().get(tableName);
+                if (null != table) {
+                    timeout = table.getTimeout(type);
+                }
+                if (null == timeout) {
+                    timeout = tablespace.getTimeout(type);
+                }
+            }
+            if (null == timeout) {
+                timeout = getTimeout(type);
+            }
+            if (null == timeout || timeout <= 0) {
+                throw new IllegalStateException("No valid " + type + " request timeout for " + tablespaceName + "." + tableName);
+            }
+            return timeout;
+        }
+
+    }
+
     private boolean serviceStopCritical = true;
 
     private List<TiesTransportConfig> transports;
@@ -46,6 +285,10 @@ public class TiesCoordinatorServiceConfigImpl implements TiesServiceConfig {
 
     private TiesRouterConfig routerConfig;
 
+    private ExecutorsConfig executorsConfig = new ExecutorsConfig();
+
+    private RequestTimeoutsConfig requestTimeoutsConfig = new RequestTimeoutsConfig();
+
     public TiesCoordinatorServiceConfigImpl() {
         // NOP Is not empty config values
     }
@@ -95,4 +338,20 @@ public class TiesCoordinatorServiceConfigImpl implements TiesServiceConfig {
         this.routerConfig = router;
     }
 
+    public ExecutorsConfig getExecutorsConfig() {
+        return executorsConfig;
+    }
+
+    public void setExecutors(ExecutorsConfig executors) {
+        this.executorsConfig = executors;
+    }
+
+    public RequestTimeoutsConfig getRequestTimeoutsConfig() {
+        return requestTimeoutsConfig;
+    }
+
+    public void setRequestTimeouts(RequestTimeoutsConfig requestTimeouts) {
+        this.requestTimeoutsConfig = requestTimeouts;
+    }
+
 }
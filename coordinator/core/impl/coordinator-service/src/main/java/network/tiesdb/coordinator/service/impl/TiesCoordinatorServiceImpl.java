@@ -23,6 +23,8 @@ import static java.util.Objects.requireNonNull;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -32,7 +34,10 @@ import network.tiesdb.api.TiesVersion;
 import network.tiesdb.context.api.TiesRouterConfig;
 import network.tiesdb.context.api.TiesSchemaConfig;
 import network.tiesdb.context.api.TiesTransportConfig;
+import network.tiesdb.coordinator.service.impl.TiesCoordinatorServiceConfigImpl.ExecutorsConfig;
+import network.tiesdb.coordinator.service.impl.TiesCoordinatorServiceConfigImpl.RequestTimeoutsConfig;
 import network.tiesdb.coordinator.service.impl.scope.TiesCoordinatedRequestPool;
+import network.tiesdb.coordinator.service.impl.scope.TiesCoordinatedRequestPool.RequestType;
 import network.tiesdb.coordinator.service.impl.scope.TiesCoordinatorServiceScopeImpl;
 import network.tiesdb.coordinator.service.schema.TiesServiceSchema;
 import network.tiesdb.coordinator.service.schema.TiesServiceSchemaDaemonImpl;
@@ -53,6 +58,15 @@ public class TiesCoordinatorServiceImpl implements TiesService {
 
     private static final TiesCoordinatorServiceVersionImpl IMPLEMENTATION_VERSION = TiesCoordinatorServiceVersionImpl.v_0_0_1_prealpha;
 
+    private static final int EXECUTOR_SHUTDOWN_TIMEOUT = 60;
+    private static final TimeUnit EXECUTOR_SHUTDOWN_TIMEOUT_UNIT = TimeUnit.SECONDS;
+
+    private static final int REQUEST_POOL_EXPECTED_SIZE = 65536;
+
+    private static final long REQUEST_TIMER_TICK = 100;
+    private static final TimeUnit REQUEST_TIMER_TICK_UNIT = TimeUnit.MILLISECONDS;
+    private static final int REQUEST_TIMER_TICKS_PER_WHEEL = 1024;
+
     private final AtomicReference<List<TiesTransportServer>> transportsRef = new AtomicReference<>();
     private final AtomicReference<TiesServiceSchemaDaemonImpl> schemaServiceDaemonRef = new AtomicReference<>();
     private final AtomicReference<TiesServiceSchema> schemaServiceRef = new AtomicReference<>();
@@ -60,13 +74,42 @@ public class TiesCoordinatorServiceImpl implements TiesService {
 
     private final TiesCoordinatorServiceConfigImpl config;
     private final TiesCoordinatedRequestPool<TiesServiceScopeResultAction.Result> requestPool;
+    private final TiesCoordinatorTimer requestTimer;
+    private final RequestTimeoutsConfig requestTimeoutsConfig;
+
+    private final TiesCoordinatorExecutor fanOutExecutor;
+    private final TiesCoordinatorExecutor mergeExecutor;
+    private final TiesCoordinatorExecutor healingExecutor;
+    private final TiesCoordinatorExecutor schemaExecutor;
 
     public TiesCoordinatorServiceImpl(TiesCoordinatorServiceConfigImpl config) throws TiesConfigurationException {
         if (null == config) {
             throw new NullPointerException("The config should not be null");
         }
         this.config = config;
-        this.requestPool = new TiesCoordinatedRequestPool<>(8);
+        this.requestTimer = new TiesCoordinatorTimer("Requests", REQUEST_TIMER_TICK, REQUEST_TIMER_TICK_UNIT,
+                REQUEST_TIMER_TICKS_PER_WHEEL);
+        this.requestPool = new TiesCoordinatedRequestPool<>(requestTimer, REQUEST_POOL_EXPECTED_SIZE);
+        this.requestTimeoutsConfig = null != config.getRequestTimeoutsConfig() ? config.getRequestTimeoutsConfig()
+                : new RequestTimeoutsConfig();
+        try {
+            requestTimeoutsConfig.validate();
+        } catch (RuntimeException e) {
+            throw new TiesConfigurationException("Illegal TiesDB Coordinator request timeouts configuration", e);
+        }
+
+        ExecutorsConfig executorsConfig = config.getExecutorsConfig();
+        if (null == executorsConfig) {
+            executorsConfig = new ExecutorsConfig();
+        }
+        try {
+            this.fanOutExecutor = new TiesCoordinatorExecutor("FanOut", requireNonNull(executorsConfig.getFanOut(), "fanOut"));
+            this.mergeExecutor = new TiesCoordinatorExecutor("Merge", requireNonNull(executorsConfig.getMerge(), "merge"));
+            this.healingExecutor = new TiesCoordinatorExecutor("Healing", requireNonNull(executorsConfig.getHealing(), "healing"));
+            this.schemaExecutor = new TiesCoordinatorExecutor("Schema", requireNonNull(executorsConfig.getSchema(), "schema"));
+        } catch (RuntimeException e) {
+            throw new TiesConfigurationException("Illegal TiesDB Coordinator executors configuration", e);
+        }
     }
 
     @Override
@@ -105,7 +148,14 @@ public class TiesCoordinatorServiceImpl implements TiesService {
 
     public void start() throws TiesException {
         LOG.trace("Starting TiesDB Coordinator...");
+        fanOutExecutor.register();
+        mergeExecutor.register();
+        healingExecutor.register();
+        schemaExecutor.register();
+        requestTimer.start();
+        requestPool.registerGauges();
         startSchemaService();
+        startRouterService();
         startTiesTransports();
         LOG.trace("TiesDB Coordinator started");
     }
@@ -114,6 +164,9 @@ public class TiesCoordinatorServiceImpl implements TiesService {
         LOG.trace("Stopping TiesDB Coordinator...");
         stopSchemaService();
         stopTiesTransports();
+        stopRouterService();
+        stopRequestPool();
+        stopExecutors();
         LOG.trace("TiesDB Coordinator stopped");
     }
 
@@ -139,6 +192,34 @@ public class TiesCoordinatorServiceImpl implements TiesService {
         }
     }
 
+    private void startRouterService() throws TiesConfigurationException {
+        LOG.trace("Starting TiesDB Router Service...");
+        TiesRouter router = routerServiceRef.get();
+        if (null == router) {
+            throw new TiesConfigurationException("No TiesDB Router Service to start");
+        } else {
+            try {
+                router.start();
+            } catch (Throwable e) {
+                LOG.error("Failed to start TiesDB Router Service", e);
+            }
+        }
+    }
+
+    private void stopRouterService() {
+        LOG.trace("Stopping TiesDB Router Service...");
+        TiesRouter router = routerServiceRef.get();
+        if (null == router) {
+            LOG.trace("No TiesDB Router Service to stop");
+        } else {
+            try {
+                router.stop();
+            } catch (Throwable e) {
+                LOG.error("Failed to stop TiesDB Router Service", e);
+            }
+        }
+    }
+
     private void initSchemaService() throws TiesConfigurationException {
         LOG.trace("Creating TiesDB Schema Connection...");
         TiesSchemaConfig schemaConfig = config.getSchemaConfig();
@@ -153,7 +234,7 @@ public class TiesCoordinatorServiceImpl implements TiesService {
                 LOG.warn("TiesDB Schema Service have already been inialized");
                 return v;
             }
-            return new TiesServiceSchema(schemaFactory.createSchema(this));
+            return new TiesServiceSchema(schemaFactory.createSchema(this), schemaExecutor);
         });
         schemaServiceDaemonRef.compareAndSet(null, new TiesServiceSchemaDaemonImpl(schemaService));
     }
@@ -242,8 +323,39 @@ public class TiesCoordinatorServiceImpl implements TiesService {
         }
     }
 
+    private void stopRequestPool() {
+        LOG.trace("Stopping TiesDB Coordinator Request Pool...");
+        requestPool.unregisterGauges();
+        requestPool.cancelAll();
+        requestTimer.stop();
+    }
+
+    private void stopExecutors() {
+        LOG.trace("Stopping TiesDB Coordinator Executors...");
+        fanOutExecutor.shutdown(EXECUTOR_SHUTDOWN_TIMEOUT, EXECUTOR_SHUTDOWN_TIMEOUT_UNIT);
+        mergeExecutor.shutdown(EXECUTOR_SHUTDOWN_TIMEOUT, EXECUTOR_SHUTDOWN_TIMEOUT_UNIT);
+        healingExecutor.shutdown(EXECUTOR_SHUTDOWN_TIMEOUT, EXECUTOR_SHUTDOWN_TIMEOUT_UNIT);
+        schemaExecutor.shutdown(EXECUTOR_SHUTDOWN_TIMEOUT, EXECUTOR_SHUTDOWN_TIMEOUT_UNIT);
+    }
+
     public TiesCoordinatedRequestPool<TiesServiceScopeResultAction.Result> getRequestPool() {
         return requestPool;
     }
 
+    public long getRequestTimeout(RequestType type, String tablespaceName, String tableName) {
+        return requestTimeoutsConfig.getTimeout(type, tablespaceName, tableName);
+    }
+
+    public ExecutorService getFanOutExecutor() {
+        return fanOutExecutor;
+    }
+
+    public ExecutorService getMergeExecutor() {
+        return mergeExecutor;
+    }
+
+    public ExecutorService getHealingExecutor() {
+        return healingExecutor;
+    }
+
 }
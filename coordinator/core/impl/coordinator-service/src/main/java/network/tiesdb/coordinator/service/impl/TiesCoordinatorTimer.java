@@ -0,0 +1,321 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TiesDB Coordinator hashed wheel timer.
+ * 
+ * <P>
+ * Approximate deadline scheduler for a large number of short lived timeouts.
+ * All timeouts are processed by a single daemon thread which advances the
+ * wheel once per tick, so scheduling and cancellation are O(1) and timeout
+ * tasks should be short and non-blocking.
+ */
+public class TiesCoordinatorTimer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesCoordinatorTimer.class);
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+
+    public static interface Timeout {
+
+        boolean cancel();
+
+        boolean isExpired();
+
+        boolean isCancelled();
+
+    }
+
+    private final class WheelTimeout implements Timeout {
+
+        private static final int ST_PENDING = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(ST_PENDING);
+        private final Runnable task;
+        private final long deadline;
+
+        private long remainingRounds;
+        private WheelTimeout next;
+        private WheelTimeout prev;
+        private Bucket bucket;
+
+        private WheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_PENDING, ST_CANCELLED)) {
+                return false;
+            }
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_PENDING, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOG.warn("Timeout task failed", e);
+            }
+        }
+
+    }
+
+    private static final class Bucket {
+
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (null == head) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private WheelTimeout remove(WheelTimeout timeout) {
+            WheelTimeout next = timeout.next;
+            if (null != timeout.prev) {
+                timeout.prev.next = next;
+            }
+            if (null != timeout.next) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                if (timeout == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+
+        private int expire(long deadline) {
+            int expired = 0;
+            WheelTimeout timeout = head;
+            while (null != timeout) {
+                if (timeout.remainingRounds <= 0) {
+                    WheelTimeout next = remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                        expired++;
+                    } else {
+                        LOG.error("Timeout deadline {} was placed in a wrong bucket for {}", timeout.deadline, deadline);
+                    }
+                    timeout = next;
+                } else if (timeout.isCancelled()) {
+                    timeout = remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                    timeout = timeout.next;
+                }
+            }
+            return expired;
+        }
+
+    }
+
+    private final String name;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<WheelTimeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    private volatile long startTime;
+    private Thread worker;
+
+    public TiesCoordinatorTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration should be positive, got " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Ticks per wheel should be in range (0, 2^30], got " + ticksPerWheel);
+        }
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.name = name;
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+    }
+
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (null == task) {
+            throw new NullPointerException("The task should not be null");
+        }
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+        WheelTimeout timeout = new WheelTimeout(task, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    public void start() {
+        switch (state.get()) {
+        case STATE_INIT:
+            synchronized (this) {
+                if (state.get() == STATE_INIT) {
+                    startTime = System.nanoTime();
+                    worker = new Thread(this::run, "TiesCoordinatorTimer-" + name);
+                    worker.setDaemon(true);
+                    state.set(STATE_STARTED);
+                    worker.start();
+                }
+            }
+            break;
+        case STATE_STARTED:
+            break;
+        case STATE_STOPPED:
+        default:
+            throw new IllegalStateException("Timer " + name + " was stopped");
+        }
+    }
+
+    public void stop() {
+        if (state.getAndSet(STATE_STOPPED) == STATE_STARTED) {
+            Thread worker = this.worker;
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.NANOSECONDS.toMillis(tickDuration) * 10 + 1000);
+            } catch (InterruptedException e) {
+                LOG.error("Failed to stop timer {}", name, e);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    private void run() {
+        LOG.trace("Timer {} started", name);
+        long tick = 0;
+        while (state.get() == STATE_STARTED) {
+            long deadline = waitForNextTick(tick);
+            if (deadline < 0) {
+                break;
+            }
+            processCancelledTimeouts();
+            transferTimeouts(tick);
+            expiredCount.addAndGet(wheel[(int) (tick & mask)].expire(deadline));
+            tick++;
+        }
+        LOG.trace("Timer {} stopped", name);
+    }
+
+    private long waitForNextTick(long tick) {
+        long deadline = tickDuration * (tick + 1);
+        for (;;) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTime = deadline - currentTime;
+            if (sleepTime <= 0) {
+                return currentTime;
+            }
+            LockSupport.parkNanos(this, sleepTime);
+            if (Thread.interrupted() || state.get() != STATE_STARTED) {
+                return -1;
+            }
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        WheelTimeout timeout;
+        while (null != (timeout = cancelledTimeouts.poll())) {
+            Bucket bucket = timeout.bucket;
+            if (null != bucket) {
+                bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferTimeouts(long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            WheelTimeout timeout = pendingTimeouts.poll();
+            if (null == timeout) {
+                break;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TiesCoordinatorTimer [name=" + name + ", tickDuration=" + tickDuration + "ns, wheelSize=" + wheel.length + "]";
+    }
+
+}
@@ -20,13 +20,13 @@ package network.tiesdb.coordinator.service.impl.scope;
 
 import network.tiesdb.service.scope.api.TiesServiceScopeAction.Distributed.ActionConsistency.Visitor;
 
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
 
 import network.tiesdb.service.scope.api.TiesServiceScopeAction.Distributed.ActionConsistency;
 import network.tiesdb.service.scope.api.TiesServiceScopeAction.Distributed.ActionConsistency.CountConsistency;
@@ -72,6 +72,85 @@ public class ConsistencyArbiter {
 
     }
 
+    /**
+     * Streaming vote counter for coordinated requests.
+     * 
+     * Results are voted in as they arrive. The decision completes as soon as the
+     * most preferred partition that is still reachable meets the consistency
+     * threshold, or when no partition is able to meet it anymore.
+     *
+     * @param <N> voter (node) type
+     * @param <P> partition type
+     */
+    public class Tally<N, P> {
+
+        private final int total;
+        private final List<P> priority;
+        private final Map<P, Set<N>> votes = new HashMap<>();
+        private final CompletableFuture<Set<P>> decision = new CompletableFuture<>();
+
+        private int voted = 0;
+
+        private Tally(int total, List<P> priority) {
+            this.total = total;
+            this.priority = priority;
+        }
+
+        public synchronized void vote(N voter, P partition) {
+            if (voted >= total) {
+                throw new IllegalStateException("Tally overflow: " + total + " votes expected");
+            }
+            voted++;
+            votes.computeIfAbsent(partition, p -> new HashSet<>()).add(voter);
+            if (!decision.isDone()) {
+                decide(total - voted);
+            }
+        }
+
+        /**
+         * Forces the decision treating all missing votes as lost.
+         */
+        public synchronized void close() {
+            if (!decision.isDone()) {
+                decide(0);
+            }
+        }
+
+        public CompletableFuture<Set<P>> getDecision() {
+            return decision;
+        }
+
+        public synchronized Set<N> getVoters(P partition) {
+            Set<N> voters = votes.get(partition);
+            return null == voters ? Collections.emptySet() : new HashSet<>(voters);
+        }
+
+        private void decide(int remaining) {
+            for (P partition : priority) {
+                int count = count(partition);
+                if (strategy.check(count)) {
+                    Set<P> reached = new HashSet<>();
+                    for (Map.Entry<P, Set<N>> e : votes.entrySet()) {
+                        if (strategy.check(e.getValue().size())) {
+                            reached.add(e.getKey());
+                        }
+                    }
+                    decision.complete(reached);
+                    return;
+                } else if (strategy.check(count + remaining)) {
+                    return;
+                }
+            }
+            decision.complete(Collections.emptySet());
+        }
+
+        private int count(P partition) {
+            Set<N> voters = votes.get(partition);
+            return null == voters ? 0 : voters.size();
+        }
+
+    }
+
     private final ArbiterStrategy strategy;
 
     public ConsistencyArbiter(ActionConsistency consistency, int replicationFactor) {
@@ -97,28 +176,15 @@ public class ConsistencyArbiter {
         });
     }
 
-    public <P> Stream<P> results(Map<P, ? extends Collection<?>> partitionMap) {
-        return partitionMap.entrySet().parallelStream().filter(e -> strategy.check(e.getValue().size())).map(e -> e.getKey());
-    }
-
-    // TODO Remove this black magic!!!
-    public static <N, X, P, M> Map<P, Set<N>> segregate(Map<N, X> resultMap, Function<M, P> partitioner,
-            Function<X, ? extends Stream<M>> flattener) {
-        return segregate( //
-                resultMap.entrySet().parallelStream() //
-                        .flatMap(e -> flattener.apply(e.getValue()).map(v -> new HashMap.SimpleImmutableEntry<>(e.getKey(), v))), //
-                partitioner);
-    }
-
-    public static <N, T, P> Map<P, Set<N>> segregate(Map<N, T> resultMap, Function<T, P> partitioner) {
-        return segregate(resultMap.entrySet().parallelStream(), partitioner);
+    /**
+     * @return true if the count of votes meets the consistency threshold
+     */
+    public boolean isReached(int count) {
+        return strategy.check(count);
     }
 
-    public static <N, T, P> Map<P, Set<N>> segregate(Stream<Map.Entry<N, T>> results, Function<T, P> partitioner) {
-        return results.collect(//
-                Collectors.groupingByConcurrent(e -> partitioner.apply(e.getValue()), //
-                        Collectors.mapping(e -> e.getKey(), //
-                                Collectors.toSet())));
+    public <N, P> Tally<N, P> tally(int total, List<P> priority) {
+        return new Tally<>(total, priority);
     }
 
 }
@@ -0,0 +1,243 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.impl.scope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Striped open addressing hash table keyed by primitive positive long values.
+ * 
+ * <P>
+ * Keys are spread over independently locked stripes, each one a linear probing
+ * table with backward shift deletion, so there is neither key boxing nor entry
+ * allocation on put and remove.
+ * 
+ * @param <V>
+ *            value type
+ */
+final class LongKeyedTable<V> {
+
+    private static final long EMPTY_KEY = 0;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    private static final class Stripe {
+
+        private final int shift;
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        private Stripe(int shift, int capacity) {
+            this.shift = shift;
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        private int slot(long key) {
+            return hash(key) >>> shift;
+        }
+
+        private int indexOf(long key) {
+            int mask = keys.length - 1;
+            int index = slot(key) & mask;
+            long k;
+            while (EMPTY_KEY != (k = keys[index])) {
+                if (k == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private Object get(long key) {
+            int index = indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        private Object putIfAbsent(long key, Object value) {
+            int mask = keys.length - 1;
+            int index = slot(key) & mask;
+            long k;
+            while (EMPTY_KEY != (k = keys[index])) {
+                if (k == key) {
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            if (++size > (keys.length >>> 1)) {
+                rehash(keys.length << 1);
+            }
+            return null;
+        }
+
+        private Object remove(long key, Object expected) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return null;
+            }
+            Object value = values[index];
+            if (null != expected && expected != value) {
+                return null;
+            }
+            shiftBack(index);
+            size--;
+            return value;
+        }
+
+        private void shiftBack(int gap) {
+            int mask = keys.length - 1;
+            int index = gap;
+            for (;;) {
+                index = (index + 1) & mask;
+                long k = keys[index];
+                if (EMPTY_KEY == k) {
+                    break;
+                }
+                int home = slot(k) & mask;
+                if (((index - home) & mask) >= ((index - gap) & mask)) {
+                    keys[gap] = k;
+                    values[gap] = values[index];
+                    gap = index;
+                }
+            }
+            keys[gap] = EMPTY_KEY;
+            values[gap] = null;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                long k = oldKeys[i];
+                if (EMPTY_KEY != k) {
+                    int index = slot(k) & mask;
+                    while (EMPTY_KEY != keys[index]) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = k;
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    LongKeyedTable(int concurrencyLevel, int expectedSize) {
+        int stripesCount = 1;
+        int shift = 0;
+        while (stripesCount < concurrencyLevel) {
+            stripesCount <<= 1;
+            shift++;
+        }
+        int stripeCapacity = MIN_STRIPE_CAPACITY;
+        while (stripeCapacity < (expectedSize / stripesCount) << 1) {
+            stripeCapacity <<= 1;
+        }
+        this.stripes = new Stripe[stripesCount];
+        for (int i = 0; i < stripesCount; i++) {
+            stripes[i] = new Stripe(shift, stripeCapacity);
+        }
+        this.stripeMask = stripesCount - 1;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static void checkKey(long key) {
+        if (key <= EMPTY_KEY) {
+            throw new IllegalArgumentException("Key should be positive, got " + key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key <= EMPTY_KEY) {
+            return null;
+        }
+        Stripe stripe = stripes[hash(key) & stripeMask];
+        synchronized (stripe) {
+            return (V) stripe.get(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V putIfAbsent(long key, V value) {
+        checkKey(key);
+        if (null == value) {
+            throw new NullPointerException("The value should not be null");
+        }
+        Stripe stripe = stripes[hash(key) & stripeMask];
+        synchronized (stripe) {
+            return (V) stripe.putIfAbsent(key, value);
+        }
+    }
+
+    boolean remove(long key, V value) {
+        if (key <= EMPTY_KEY) {
+            return false;
+        }
+        Stripe stripe = stripes[hash(key) & stripeMask];
+        synchronized (stripe) {
+            return null != stripe.remove(key, value);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<? super V> action) {
+        List<V> snapshot = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Object value : stripe.values) {
+                    if (null != value) {
+                        snapshot.add((V) value);
+                    }
+                }
+            }
+        }
+        snapshot.forEach(action);
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.impl.scope;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Result.Entry;
+
+/**
+ * Replica votes of recollected entries keyed by entry header hash.
+ * 
+ * <P>
+ * Each node result is voted as a single round, so a node is counted once per
+ * entry without keeping the set of voted nodes. The first received instance of
+ * an entry is kept until the entry reaches consistency.
+ * 
+ * <P>
+ * Not thread safe.
+ */
+final class RecollectionMerge {
+
+    static final class HashKey {
+
+        private final byte[] hash;
+        private final int hashCode;
+
+        HashKey(byte[] hash) {
+            this.hash = hash;
+            this.hashCode = Arrays.hashCode(hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HashKey)) {
+                return false;
+            }
+            HashKey other = (HashKey) obj;
+            return hashCode == other.hashCode && Arrays.equals(hash, other.hash);
+        }
+
+    }
+
+    private static final class Candidate {
+
+        private Entry entry;
+        private int votes;
+        private int round;
+
+        private Candidate(Entry entry) {
+            this.entry = entry;
+        }
+
+    }
+
+    private final ConsistencyArbiter arbiter;
+    private final Map<HashKey, Candidate> candidates = new HashMap<>();
+
+    private int round = 0;
+
+    RecollectionMerge(ConsistencyArbiter arbiter) {
+        this.arbiter = arbiter;
+    }
+
+    /**
+     * Starts voting of the next node result.
+     */
+    void nextRound() {
+        round++;
+    }
+
+    /**
+     * Votes the entry for the current round.
+     * 
+     * @return first received instance of the entry if it has just reached
+     *         consistency, null otherwise
+     */
+    Entry vote(Entry entry) {
+        Candidate candidate = candidates.computeIfAbsent(new HashKey(entry.getEntryHeader().getHash()), k -> new Candidate(entry));
+        if (null == candidate.entry || candidate.round == round) {
+            return null;
+        }
+        candidate.round = round;
+        if (!arbiter.isReached(++candidate.votes)) {
+            return null;
+        }
+        Entry reached = candidate.entry;
+        candidate.entry = null;
+        return reached;
+    }
+
+    void clear() {
+        candidates.clear();
+    }
+
+}
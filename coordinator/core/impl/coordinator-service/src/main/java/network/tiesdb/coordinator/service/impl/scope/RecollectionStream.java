@@ -0,0 +1,267 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.impl.scope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.router.api.TiesRouter.Node;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Result.Entry;
+
+/**
+ * Streaming result of coordinated recollection.
+ * 
+ * Node results are voted in as they arrive. An entry is passed to the consumer
+ * as soon as its hash meets the consistency threshold. Reached entries are
+ * queued without blocking, so voting never waits for the consumer and merge
+ * threads are not held by slow queries. Entries not consumed yet stay in the
+ * queue, so the memory of the query is not bounded.
+ */
+class RecollectionStream implements TiesServiceScopeRecollectionAction.Streaming {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecollectionStream.class);
+
+    private static final Object END = new Object();
+
+    private final int total;
+    private final long timeout;
+    private final BlockingQueue<Object> buffer;
+    private final RecollectionMerge merge;
+    private final Set<Node> failedNodes = new HashSet<>();
+    private final List<Throwable> errors = Collections.synchronizedList(new LinkedList<>());
+    private final List<Runnable> completionActions = new LinkedList<>();
+
+    private int accepted = 0;
+    private int completed = 0;
+    private final AtomicInteger emitted = new AtomicInteger();
+    private volatile boolean abandoned = false;
+    private boolean consumed = false;
+    private List<Entry> entries;
+
+    /**
+     * @param timeout
+     *            time in milliseconds to wait for the next entry
+     */
+    public RecollectionStream(ConsistencyArbiter arbiter, int total, long timeout) {
+        this.merge = new RecollectionMerge(arbiter);
+        this.total = total;
+        this.timeout = timeout;
+        this.buffer = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Votes the entries of a node result, passing the ones reached consistency
+     * to the consumer.
+     */
+    public void accept(Node node, List<Entry> nodeEntries, List<Throwable> nodeErrors) {
+        List<Entry> reached = new ArrayList<>();
+        synchronized (this) {
+            checkNotOverflown();
+            if (null != nodeErrors) {
+                errors.addAll(nodeErrors);
+            }
+            if (null != nodeEntries) {
+                merge.nextRound();
+                for (Entry entry : nodeEntries) {
+                    Entry r = merge.vote(entry);
+                    if (null != r) {
+                        reached.add(r);
+                    }
+                }
+            }
+        }
+        try {
+            for (Entry entry : reached) {
+                emit(entry);
+            }
+        } finally {
+            complete();
+        }
+    }
+
+    public void fail(Node node, Throwable error) {
+        synchronized (this) {
+            checkNotOverflown();
+            LOG.debug("Recollection failed for node {}", node, error);
+            failedNodes.add(node);
+        }
+        complete();
+    }
+
+    /**
+     * Registers an action to run after all node results were voted.
+     */
+    public void whenCompleted(Runnable action) {
+        synchronized (this) {
+            if (completed < total) {
+                completionActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    @Override
+    public synchronized Stream<Entry> getEntryStream() {
+        if (null != entries) {
+            return entries.stream();
+        }
+        if (consumed) {
+            throw new IllegalStateException("Recollection stream was already consumed");
+        }
+        consumed = true;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new Iterator<Entry>() {
+
+            private Object next;
+
+            @Override
+            public boolean hasNext() {
+                if (null == next) {
+                    next = take();
+                }
+                return END != next;
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Entry entry = (Entry) next;
+                next = null;
+                return entry;
+            }
+
+        }, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Collects the entries which are not consumed yet.
+     */
+    @Override
+    public List<Entry> getEntries() {
+        Stream<Entry> stream;
+        synchronized (this) {
+            if (null != entries) {
+                return entries;
+            }
+            stream = getEntryStream();
+        }
+        List<Entry> collected = Collections.unmodifiableList(stream.collect(Collectors.toList()));
+        synchronized (this) {
+            entries = collected;
+        }
+        return collected;
+    }
+
+    @Override
+    public List<Throwable> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    private Object take() {
+        try {
+            Object next = buffer.poll(timeout, TimeUnit.MILLISECONDS);
+            if (null != next) {
+                return next;
+            }
+            errors.add(new TiesServiceScopeException("Recollection results were not received in time"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.add(new TiesServiceScopeException("Recollection was interrupted", e));
+        }
+        abandoned = true;
+        buffer.clear();
+        return END;
+    }
+
+    private void emit(Object o) {
+        if (abandoned) {
+            return;
+        }
+        buffer.offer(o);
+        if (END != o) {
+            emitted.incrementAndGet();
+        }
+        if (abandoned) {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Counts a node result as done. Node results count only after their entries
+     * were emitted, so the last one emits the end of the stream.
+     */
+    private void complete() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (++completed < total) {
+                return;
+            }
+            merge.clear();
+            if (0 == emitted.get() && !failedNodes.isEmpty()) {
+                errors.add(new TiesServiceScopeException("Read failed for nodes " + failedNodes));
+            }
+            actions = new ArrayList<>(completionActions);
+            completionActions.clear();
+        }
+        emit(END);
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                LOG.error("Recollection completion action failed", e);
+            }
+        }
+    }
+
+    private void checkNotOverflown() {
+        if (++accepted > total) {
+            throw new IllegalStateException("Recollection overflow: " + total + " results expected");
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RecollectionStream [total=" + total + ", completed=" + completed + ", emitted=" + emitted.get() + "]";
+    }
+
+}
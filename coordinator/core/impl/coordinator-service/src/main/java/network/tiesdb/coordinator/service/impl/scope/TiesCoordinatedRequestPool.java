@@ -18,73 +18,145 @@
  */
 package network.tiesdb.coordinator.service.impl.scope;
 
+import java.lang.management.ManagementFactory;
 import java.math.BigInteger;
-import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
-//import org.slf4j.Logger;
-//import org.slf4j.LoggerFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
-public class TiesCoordinatedRequestPool<T> {
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-    //private static final Logger LOG = LoggerFactory.getLogger(TiesCoordinatedRequestPool.class);
+import network.tiesdb.coordinator.service.impl.TiesCoordinatorTimer;
+import network.tiesdb.coordinator.service.impl.TiesCoordinatorTimer.Timeout;
 
-    private static final int DEFAULT_REGISTER_RETRY_COUNT = 65535;
+public class TiesCoordinatedRequestPool<T> implements TiesCoordinatedRequestPoolMXBean {
 
-    private final Map<BigInteger, CoordinatedResultImpl> waitingResults;
+    private static final Logger LOG = LoggerFactory.getLogger(TiesCoordinatedRequestPool.class);
+
+    private static final String JMX_OBJECT_NAME = "network.tiesdb.coordinator:type=RequestPool";
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+
+    private final LongKeyedTable<CoordinatedResultImpl> waitingResults;
     private final AtomicLong idCounter = new AtomicLong(1);
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final LongAdder registeredCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final TiesCoordinatorTimer timer;
+
+    private volatile ObjectName objectName;
+
+    public static enum RequestType {
+        MODIFICATION, RECOLLECTION, HEALING
+    }
 
     public static interface CoordinatedResult<T> {
 
         BigInteger getId();
 
+        RequestType getType();
+
+        long getMessageId();
+
         boolean fail(Throwable error);
 
-        T get(int timeout, TimeUnit unit) throws CancellationException, InterruptedException, ExecutionException, TimeoutException;
+        T get(long timeout, TimeUnit unit) throws CancellationException, InterruptedException, ExecutionException, TimeoutException;
 
         T get() throws CancellationException, InterruptedException, ExecutionException, TimeoutException;
 
+        void whenComplete(BiConsumer<? super T, ? super Throwable> action);
+
+        /**
+         * Runs the action on the executor. If the executor rejects it, the action
+         * is run by the completing thread with the rejection as the error, so
+         * it should handle errors without heavy work.
+         */
+        void whenComplete(BiConsumer<? super T, ? super Throwable> action, Executor executor);
+
     }
 
-    protected class CoordinatedResultImpl implements CoordinatedResult<T> {
+    protected class CoordinatedResultImpl implements CoordinatedResult<T>, Runnable {
 
-        private final BigInteger id;
+        private final long id;
+        private final RequestType type;
         private final CompletableFuture<T> futureResult;
+        private volatile Timeout timeout;
 
-        protected CoordinatedResultImpl(BigInteger id, CompletableFuture<T> futureResult) {
+        protected CoordinatedResultImpl(long id, RequestType type, CompletableFuture<T> futureResult) {
             this.id = id;
+            this.type = type;
             this.futureResult = futureResult;
         }
 
         @Override
         public BigInteger getId() {
+            return BigInteger.valueOf(id);
+        }
+
+        @Override
+        public long getMessageId() {
             return id;
         }
 
+        @Override
+        public RequestType getType() {
+            return type;
+        }
+
         public boolean complete(T result) {
-            waitingResults.remove(getId());
+            release();
             return futureResult.complete(result);
         }
 
         public boolean cancel(boolean mayInterruptIfRunning) {
-            waitingResults.remove(getId());
+            release();
             return futureResult.cancel(mayInterruptIfRunning);
         }
 
         @Override
         public boolean fail(Throwable error) {
-            waitingResults.remove(getId());
+            release();
             return futureResult.completeExceptionally(error);
         }
 
         @Override
-        public T get(int timeout, TimeUnit unit) throws CancellationException, InterruptedException, ExecutionException, TimeoutException {
+        public void run() {
+            if (waitingResults.remove(id, this)) {
+                inFlightCount.decrementAndGet();
+                expiredCount.increment();
+                LOG.debug("Coordinated {} request {} has expired", type, id);
+                futureResult.completeExceptionally(new TimeoutException("Coordinated " + type + " request " + id + " has expired"));
+            }
+        }
+
+        private void release() {
+            if (waitingResults.remove(id, this)) {
+                inFlightCount.decrementAndGet();
+                completedCount.increment();
+                Timeout timeout = this.timeout;
+                if (null != timeout) {
+                    timeout.cancel();
+                }
+            }
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws CancellationException, InterruptedException, ExecutionException, TimeoutException {
             return futureResult.get(timeout, unit);
         }
 
@@ -93,6 +165,23 @@ public class TiesCoordinatedRequestPool<T> {
             return futureResult.get(0, TimeUnit.MILLISECONDS);
         }
 
+        @Override
+        public void whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+            futureResult.whenComplete(action);
+        }
+
+        @Override
+        public void whenComplete(BiConsumer<? super T, ? super Throwable> action, Executor executor) {
+            futureResult.whenComplete((result, error) -> {
+                try {
+                    executor.execute(() -> action.accept(result, error));
+                } catch (RejectedExecutionException e) {
+                    LOG.warn("Coordinated {} request {} result rejected by executor", type, id);
+                    action.accept(null, e);
+                }
+            });
+        }
+
         private TiesCoordinatedRequestPool<T> getOuterType() {
             return TiesCoordinatedRequestPool.this;
         }
@@ -103,7 +192,7 @@ public class TiesCoordinatedRequestPool<T> {
             int result = 1;
             result = prime * result + getOuterType().hashCode();
             result = prime * result + ((futureResult == null) ? 0 : futureResult.hashCode());
-            result = prime * result + ((id == null) ? 0 : id.hashCode());
+            result = prime * result + Long.hashCode(id);
             return result;
         }
 
@@ -124,46 +213,109 @@ public class TiesCoordinatedRequestPool<T> {
                     return false;
             } else if (!futureResult.equals(other.futureResult))
                 return false;
-            if (id == null) {
-                if (other.id != null)
-                    return false;
-            } else if (!id.equals(other.id))
+            if (id != other.id)
                 return false;
             return true;
         }
     }
 
-    public TiesCoordinatedRequestPool(int initialCapacity) {
-        this.waitingResults = new ConcurrentHashMap<>(initialCapacity);
+    public TiesCoordinatedRequestPool(TiesCoordinatorTimer timer, int expectedSize) {
+        if (null == timer) {
+            throw new NullPointerException("The timer should not be null");
+        }
+        this.waitingResults = new LongKeyedTable<>(DEFAULT_CONCURRENCY_LEVEL, expectedSize);
+        this.timer = timer;
     }
 
-    CoordinatedResult<T> register() {
-
-        int registerRetry = DEFAULT_REGISTER_RETRY_COUNT;
-        CompletableFuture<T> futureResult = new CompletableFuture<T>();
-        while (registerRetry-- > 0) {
-            final BigInteger id = BigInteger.valueOf(idCounter.getAndIncrement());
-            final CoordinatedResultImpl result = new CoordinatedResultImpl(id, futureResult);
-            if (null != waitingResults.putIfAbsent(id, result)) {
-                continue;
-            }
-            return result;
+    CoordinatedResult<T> register(RequestType type, long timeout, TimeUnit unit) {
+        if (null == type) {
+            throw new NullPointerException("The type should not be null");
+        }
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Request timeout should be positive, got " + timeout);
+        }
+        final long id = idCounter.getAndIncrement();
+        if (id <= 0) {
+            throw new IllegalStateException("Coordinated request ids are exhausted");
+        }
+        final CoordinatedResultImpl result = new CoordinatedResultImpl(id, type, new CompletableFuture<T>());
+        if (null != waitingResults.putIfAbsent(id, result)) {
+            throw new IllegalStateException("Coordinated request " + id + " is already registered");
         }
-        throw new RuntimeException("Can't register CoordinatedResult. Pool is too crowded.");
+        inFlightCount.incrementAndGet();
+        registeredCount.increment();
+        result.timeout = timer.newTimeout(result, timeout, unit);
+        if (result.futureResult.isDone()) {
+            result.timeout.cancel();
+        }
+        return result;
     }
 
-    void cancelAll() {
-        waitingResults.values().forEach(result -> result.cancel(true));
+    public void cancelAll() {
+        waitingResults.forEachValue(result -> result.cancel(true));
     }
 
     boolean cancel(BigInteger id) {
-        CoordinatedResultImpl result = waitingResults.get(id);
+        CoordinatedResultImpl result = waitingResults.get(toMessageId(id));
         return null != result && result.cancel(true);
     }
 
     boolean complete(BigInteger id, T resultValue) {
+        return complete(toMessageId(id), resultValue);
+    }
+
+    boolean complete(long id, T resultValue) {
         CoordinatedResultImpl result = waitingResults.get(id);
         return null != result && result.complete(resultValue);
     }
 
+    private static long toMessageId(BigInteger id) {
+        return null == id || id.signum() <= 0 || id.bitLength() >= Long.SIZE ? 0 : id.longValue();
+    }
+
+    public void registerGauges() {
+        try {
+            ObjectName objectName = new ObjectName(JMX_OBJECT_NAME);
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            if (!mbs.isRegistered(objectName)) {
+                mbs.registerMBean(this, objectName);
+                this.objectName = objectName;
+            }
+        } catch (JMException e) {
+            LOG.warn("Failed to register request pool gauges", e);
+        }
+    }
+
+    public void unregisterGauges() {
+        ObjectName objectName = this.objectName;
+        if (null != objectName) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.warn("Failed to unregister request pool gauges", e);
+            }
+            this.objectName = null;
+        }
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    @Override
+    public long getRegisteredCount() {
+        return registeredCount.sum();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    @Override
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
 }
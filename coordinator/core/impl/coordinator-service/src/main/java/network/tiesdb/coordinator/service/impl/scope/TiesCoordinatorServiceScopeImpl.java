@@ -22,29 +22,27 @@ import static network.tiesdb.util.Hex.UPPERCASE_HEX;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.CompletionService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
@@ -61,9 +59,13 @@ import com.tiesdb.lib.crypto.digest.api.Digest;
 
 import network.tiesdb.api.TiesVersion;
 import network.tiesdb.coordinator.service.impl.TiesCoordinatorServiceImpl;
+import network.tiesdb.coordinator.service.impl.scope.RecollectionMerge.HashKey;
 import network.tiesdb.coordinator.service.impl.scope.TiesCoordinatedRequestPool.CoordinatedResult;
+import network.tiesdb.coordinator.service.impl.scope.TiesCoordinatedRequestPool.RequestType;
+import network.tiesdb.coordinator.service.router.TiesTrackedTransportClient;
 import network.tiesdb.coordinator.service.schema.TiesServiceSchema;
 import network.tiesdb.coordinator.service.schema.TiesServiceSchema.FieldDescription;
+import network.tiesdb.exception.TiesException;
 import network.tiesdb.router.api.TiesRouter;
 import network.tiesdb.router.api.TiesRouter.Node;
 import network.tiesdb.router.api.TiesRoutingException;
@@ -102,17 +104,24 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
     private static final String DEFAULT_HASH_ALG = KECCAK_256;
 
-    private static final String SEGREGATION_ERROR = "ERROR";
-
     private static final short ETHEREUM_NETWORK_ID = 60;
 
-    private static final int NODE_REQUEST_TIMEOUT = 60;
-    private static final TimeUnit NODE_REQUEST_TIMEOUT_UNIT = TimeUnit.SECONDS;
+    private static final String FILTER_EQUALS = "=";
+    private static final String FILTER_IN = "IN";
+
+    private static final int MAX_ROUTED_PRIMARY_KEYS = 1024;
 
-    private static enum ModificationResultType {
+    static enum ModificationResultType {
         SUCCESS, MISS, FAILURE, ERROR
     }
 
+    private static final List<ModificationResultType> MODIFICATION_RESULT_PRIORITY = Collections.unmodifiableList(Arrays.asList( //
+            ModificationResultType.SUCCESS, //
+            ModificationResultType.ERROR, //
+            ModificationResultType.MISS, //
+            ModificationResultType.FAILURE //
+    ));
+
     private static final ActionConsistency CONSISTENCY_COUNT_ONE = new ActionConsistency.CountConsistency() {
         @Override
         public Integer getValue() {
@@ -122,8 +131,6 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
     private final TiesCoordinatorServiceImpl service;
 
-    private final ExecutorService healingExecutor = ForkJoinPool.commonPool(); // TODO FIXME Change executor!!!
-
     private final Random random;
 
     {
@@ -144,13 +151,6 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
     @Override
     public void close() throws IOException {
-        healingExecutor.shutdown();
-        try {
-            healingExecutor.awaitTermination(60, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            LOG.error("Failed to shut down healing process", e);
-            healingExecutor.shutdownNow();
-        }
         LOG.debug(this + " is closed");
     }
 
@@ -192,11 +192,6 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
         return out;
     }
 
-    private static <T> Predicate<T> distinct(Function<? super T, ?> extractor) {
-        Set<Object> seen = ConcurrentHashMap.newKeySet();
-        return t -> seen.add(extractor.apply(t));
-    }
-
     @Override
     public void insert(TiesServiceScopeModificationAction action) throws TiesServiceScopeException {
         modification(action, (s, o) -> s.insert(o));
@@ -238,7 +233,99 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
     }
 
-    protected void modification(TiesServiceScopeModificationAction action, TiesServiceOperation operation) throws TiesServiceScopeException {
+    static ModificationResultType getModificationResultType(byte[] headerHash, TiesServiceScopeResultAction.Result result,
+            Set<String> segregatedErrors) {
+        try {
+            return result.accept(new TiesServiceScopeResultAction.Result.Visitor<ModificationResultType>() {
+
+                @Override
+                public ModificationResultType on(TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException {
+                    return !Arrays.equals(result.getHeaderHash(), headerHash) //
+                            ? ModificationResultType.MISS
+                            : result.accept(new TiesServiceScopeModificationAction.Result.Visitor<ModificationResultType>() {
+                                @Override
+                                public ModificationResultType on(Success success) throws TiesServiceScopeException {
+                                    return ModificationResultType.SUCCESS;
+                                }
+
+                                @Override
+                                public ModificationResultType on(Error error) throws TiesServiceScopeException {
+                                    segregatedErrors.add(error.getError().getMessage().intern());
+                                    return ModificationResultType.ERROR;
+                                }
+                            });
+                }
+
+                @Override
+                public ModificationResultType on(TiesServiceScopeRecollectionAction.Result result) throws TiesServiceScopeException {
+                    return ModificationResultType.FAILURE;
+                }
+
+                @Override
+                public ModificationResultType on(TiesServiceScopeHealingAction.Result result) throws TiesServiceScopeException {
+                    return ModificationResultType.FAILURE;
+                }
+            });
+        } catch (Throwable e) {
+            LOG.error("Result filtering failure", e);
+            return ModificationResultType.FAILURE;
+        }
+    }
+
+    private static final class PendingModification {
+
+        private final TiesServiceScopeModificationAction action;
+        private final TiesEntryHeader header;
+        private final String tablespaceName;
+        private final String tableName;
+        private final TiesServiceSchema schema;
+        private final Set<FieldDescription> fields;
+        private final Set<? extends Node> nodes;
+        private final ConsistencyArbiter.Tally<Node, ModificationResultType> tally;
+        private final Set<String> segregatedErrors = ConcurrentHashMap.newKeySet();
+
+        private PendingModification(TiesServiceScopeModificationAction action, TiesEntryHeader header, String tablespaceName,
+                String tableName, TiesServiceSchema schema, Set<FieldDescription> fields, Set<? extends Node> nodes,
+                ConsistencyArbiter.Tally<Node, ModificationResultType> tally) {
+            this.action = action;
+            this.header = header;
+            this.tablespaceName = tablespaceName;
+            this.tableName = tableName;
+            this.schema = schema;
+            this.fields = fields;
+            this.nodes = nodes;
+            this.tally = tally;
+        }
+
+    }
+
+    /**
+     * Result of a multi-entry node request. Visitors see the first result
+     * only, batch aware callers should use {@link #getResults()}.
+     */
+    private static final class BatchResult implements TiesServiceScopeResultAction.Result {
+
+        private final List<TiesServiceScopeResultAction.Result> results;
+
+        private BatchResult(List<TiesServiceScopeResultAction.Result> results) {
+            this.results = results;
+        }
+
+        private List<TiesServiceScopeResultAction.Result> getResults() {
+            return results;
+        }
+
+        @Override
+        public <T> T accept(Visitor<T> v) throws TiesServiceScopeException {
+            if (results.isEmpty()) {
+                throw new TiesServiceScopeException("Empty batch result");
+            }
+            return results.get(0).accept(v);
+        }
+
+    }
+
+    private PendingModification prepareModification(TiesServiceScopeModificationAction action) throws TiesServiceScopeException {
 
         TiesEntryExtended entry = checkEntryIsValid(action.getEntry());
         TiesEntryHeader header = entry.getHeader();
@@ -279,59 +366,75 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
             throw new TiesServiceScopeException("No target nodes found for request");
         }
 
-        Map<Node, Future<CoordinatedResult<TiesServiceScopeResultAction.Result>>> resultWaiters;
-        CompletionService<CoordinatedResult<TiesServiceScopeResultAction.Result>> completionService = new ExecutorCompletionService<>(
-                ForkJoinPool.commonPool()); // TODO FIXME Change executor!!!
-        {
-            resultWaiters = new HashMap<>();
-            TiesRouter router = service.getRouterService();
-            for (Node node : nodes) {
-                resultWaiters.put(node, completionService.submit(() -> {
-                    CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = service.getRequestPool().register();
-                    try {
-                        TiesTransportClient c = router.getClient(node);
-                        c.request(new TiesServiceScopeConsumer() {
-                            @Override
-                            public void accept(TiesServiceScope s) throws TiesServiceScopeException {
-                                operation.apply(s, new TiesServiceScopeModificationAction() {
+        ConsistencyArbiter arbiter = new ConsistencyArbiter(action.getConsistency(), sch.getReplicationFactor(tsn, tbn));
+        return new PendingModification(action, header, tsn, tbn, sch, fields, nodes,
+                arbiter.tally(nodes.size(), MODIFICATION_RESULT_PRIORITY));
+    }
 
-                                    @Override
-                                    public ActionConsistency getConsistency() {
-                                        return action.getConsistency();
-                                    }
+    private TiesServiceScopeModificationAction newNodeModificationAction(TiesServiceScopeModificationAction action,
+            CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult, Node node) {
+        return new TiesServiceScopeModificationAction() {
 
-                                    @Override
-                                    public BigInteger getMessageId() {
-                                        return coordinatedResult.getId();
-                                    }
+            @Override
+            public ActionConsistency getConsistency() {
+                return action.getConsistency();
+            }
 
-                                    @Override
-                                    public TiesEntryExtended getEntry() throws TiesServiceScopeException {
-                                        return action.getEntry();
-                                    }
+            @Override
+            public BigInteger getMessageId() {
+                return coordinatedResult.getId();
+            }
 
-                                    @Override
-                                    public void setResult(Result result) throws TiesServiceScopeException {
-                                        result.accept(new TiesServiceScopeModificationAction.Result.Visitor<Void>() {
+            @Override
+            public TiesEntryExtended getEntry() throws TiesServiceScopeException {
+                return action.getEntry();
+            }
 
-                                            @Override
-                                            public Void on(TiesServiceScopeModificationAction.Result.Success success)
-                                                    throws TiesServiceScopeException {
-                                                LOG.trace("Node request sent successfully for: {} messageId {}", node);
-                                                return null;
-                                            }
+            @Override
+            public Type getType() throws TiesServiceScopeException {
+                return action.getType();
+            }
 
-                                            @Override
-                                            public Void on(TiesServiceScopeModificationAction.Result.Error error)
-                                                    throws TiesServiceScopeException {
-                                                LOG.trace("Node request sent failed for: {} messageId {}", node, error.getError());
-                                                coordinatedResult.fail(error.getError());
-                                                return null;
-                                            }
-                                        });
-                                    }
+            @Override
+            public void setResult(Result result) throws TiesServiceScopeException {
+                result.accept(new TiesServiceScopeModificationAction.Result.Visitor<Void>() {
 
-                                });
+                    @Override
+                    public Void on(TiesServiceScopeModificationAction.Result.Success success) throws TiesServiceScopeException {
+                        LOG.trace("Node request sent successfully for: {} messageId {}", node);
+                        return null;
+                    }
+
+                    @Override
+                    public Void on(TiesServiceScopeModificationAction.Result.Error error) throws TiesServiceScopeException {
+                        LOG.trace("Node request sent failed for: {} messageId {}", node, error.getError());
+                        coordinatedResult.fail(error.getError());
+                        return null;
+                    }
+                });
+            }
+
+        };
+    }
+
+    protected void modification(TiesServiceScopeModificationAction action, TiesServiceOperation operation) throws TiesServiceScopeException {
+
+        PendingModification modification = prepareModification(action);
+        String tsn = modification.tablespaceName;
+        String tbn = modification.tableName;
+        ConsistencyArbiter.Tally<Node, ModificationResultType> tally = modification.tally;
+
+        {
+            TiesRouter router = service.getRouterService();
+            for (Node node : modification.nodes) {
+                CompletableFuture.supplyAsync(() -> {
+                    CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = registerRequest(RequestType.MODIFICATION,
+                            tsn, tbn);
+                    try {
+                        request(router, node, coordinatedResult, new TiesServiceScopeConsumer() {
+                            @Override
+                            public void accept(TiesServiceScope s) throws TiesServiceScopeException {
+                                operation.apply(s, newNodeModificationAction(action, coordinatedResult, node));
                             }
                         });
                     } catch (TiesRoutingException e) {
@@ -342,80 +445,260 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                         coordinatedResult.fail(e);
                     }
                     return coordinatedResult;
-                }));
+                }, service.getFanOutExecutor()).whenComplete((coordinatedResult, registrationError) -> {
+                    if (null != registrationError) {
+                        LOG.error("Node request failed", registrationError);
+                        tally.vote(node, ModificationResultType.FAILURE);
+                        return;
+                    }
+                    coordinatedResult.whenComplete((result, error) -> {
+                        if (null != error) {
+                            LOG.error("Node request failed", error);
+                            tally.vote(node, ModificationResultType.FAILURE);
+                        } else {
+                            tally.vote(node, getModificationResultType(modification.header.getHash(), result, modification.segregatedErrors));
+                        }
+                    }, service.getMergeExecutor());
+                });
             }
         }
-        ConsistencyArbiter arbiter = new ConsistencyArbiter(action.getConsistency(), sch.getReplicationFactor(tsn, tbn));
 
-        for (Future<CoordinatedResult<TiesServiceScopeResultAction.Result>> result : resultWaiters.values()) {
-            try {
-                result.get().get(NODE_REQUEST_TIMEOUT, NODE_REQUEST_TIMEOUT_UNIT);
-            } catch (Throwable e) {
-                LOG.error("Node request failed", e);
-            }
-        }
-        HashSet<String> segregatedErrors = new HashSet<String>() {
+        // Healing is not scheduled as modification results can't be healed yet
+        completeModification(modification, service.getRequestTimeout(RequestType.MODIFICATION, tsn, tbn));
+    }
 
-            private static final long serialVersionUID = 3987824221222046320L;
+    @Override
+    public void modify(List<? extends TiesServiceScopeModificationAction> actions) throws TiesServiceScopeException {
+        if (actions.size() <= 1) {
+            TiesServiceScope.super.modify(actions);
+            return;
+        }
 
-            @Override
-            public String toString() {
-                Iterator<?> it = iterator();
-                if (! it.hasNext())
-                    return "";
-
-                StringBuilder sb = new StringBuilder();
-                sb.append(':').append(' ');
-                for (;;) {
-                    Object e = it.next();
-                    sb.append(e == this ? "..." : e);
-                    if (! it.hasNext())
-                        return sb.toString();
-                    sb.append(',').append(' ');
-                }
-            }
-        };
-        Map<ModificationResultType, Set<Node>> segregatedResults = ConsistencyArbiter.segregate(resultWaiters, futureResult -> {
+        List<PendingModification> modifications = new ArrayList<>(actions.size());
+        Map<Node, List<PendingModification>> nodeBatches = new HashMap<>();
+        Set<HashKey> batchHashes = new HashSet<>();
+        long timeout = 0;
+        for (TiesServiceScopeModificationAction action : actions) {
+            PendingModification modification;
             try {
-                CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = futureResult.get();
-                TiesServiceScopeResultAction.Result result = coordinatedResult.get(NODE_REQUEST_TIMEOUT, NODE_REQUEST_TIMEOUT_UNIT);
-                return result.accept(new TiesServiceScopeResultAction.Result.Visitor<ModificationResultType>() {
-
-                    @Override
-                    public ModificationResultType on(TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException {
-                        return !Arrays.equals(result.getHeaderHash(), header.getHash()) //
-                                ? ModificationResultType.MISS
-                                : result.accept(new TiesServiceScopeModificationAction.Result.Visitor<ModificationResultType>() {
-                                    @Override
-                                    public ModificationResultType on(Success success) throws TiesServiceScopeException {
-                                        return ModificationResultType.SUCCESS;
-                                    }
-
-                                    @Override
-                                    public ModificationResultType on(Error error) throws TiesServiceScopeException {
-                                        segregatedErrors.add(error.getError().getMessage().intern());
-                                        return ModificationResultType.ERROR;
-                                    }
-                                });
-                    }
-
+                modification = prepareModification(action);
+                if (!batchHashes.add(new HashKey(modification.header.getHash()))) {
+                    // Node results are matched by entry hash, so identical entries can't be told apart
+                    throw new TiesServiceScopeException("Duplicate entry in modification batch");
+                }
+            } catch (TiesServiceScopeException e) {
+                LOG.error("Modification failed for message: {}", action.getMessageId(), e);
+                byte[] headerHash = getHeaderHash(action);
+                action.setResult(new TiesServiceScopeModificationAction.Result.Error() {
                     @Override
-                    public ModificationResultType on(TiesServiceScopeRecollectionAction.Result result) throws TiesServiceScopeException {
-                        return ModificationResultType.FAILURE;
+                    public byte[] getHeaderHash() {
+                        return headerHash;
                     }
 
                     @Override
-                    public ModificationResultType on(TiesServiceScopeHealingAction.Result result) throws TiesServiceScopeException {
-                        return ModificationResultType.FAILURE;
+                    public Throwable getError() {
+                        return e;
                     }
                 });
-            } catch (Throwable e) {
-                LOG.error("Result filtering failure", e);
-                return ModificationResultType.FAILURE;
+                continue;
+            }
+            modifications.add(modification);
+            timeout = Math.max(timeout, service.getRequestTimeout(RequestType.MODIFICATION, modification.tablespaceName, modification.tableName));
+            for (Node node : modification.nodes) {
+                nodeBatches.computeIfAbsent(node, n -> new ArrayList<>()).add(modification);
             }
+        }
+        LOG.debug("CoordinatedModification of {} entries batched for {} nodes", modifications.size(), nodeBatches.size());
+
+        TiesRouter router = service.getRouterService();
+        long requestTimeout = timeout;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        nodeBatches.forEach((node, batch) -> {
+            CompletableFuture.supplyAsync(() -> {
+                CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = service.getRequestPool()
+                        .register(RequestType.MODIFICATION, requestTimeout, TimeUnit.MILLISECONDS);
+                try {
+                    request(router, node, coordinatedResult, new TiesServiceScopeConsumer() {
+                        @Override
+                        public void accept(TiesServiceScope s) throws TiesServiceScopeException {
+                            s.modify(batch.stream().map(m -> newNodeModificationAction(m.action, coordinatedResult, node))
+                                    .collect(Collectors.toList()));
+                        }
+                    });
+                } catch (TiesRoutingException e) {
+                    LOG.warn("Route was not found for node: {}", node, e);
+                    coordinatedResult.fail(e);
+                } catch (Throwable e) {
+                    LOG.warn("Node request failed for node: {} scope {}", node, e);
+                    coordinatedResult.fail(e);
+                }
+                return coordinatedResult;
+            }, service.getFanOutExecutor()).whenComplete((coordinatedResult, registrationError) -> {
+                if (null != registrationError) {
+                    LOG.error("Node request failed", registrationError);
+                    batch.forEach(m -> m.tally.vote(node, ModificationResultType.FAILURE));
+                    return;
+                }
+                coordinatedResult.whenComplete((result, error) -> {
+                    if (null != error) {
+                        LOG.error("Node request failed", error);
+                        if (error instanceof TimeoutException || error instanceof TiesRoutingException) {
+                            batch.forEach(m -> m.tally.vote(node, ModificationResultType.FAILURE));
+                        } else {
+                            // Retry entries one by one to fail only the affected ones
+                            batch.forEach(m -> {
+                                try {
+                                    service.getFanOutExecutor().execute(() -> modification(router, node, m, deadline));
+                                } catch (RejectedExecutionException e) {
+                                    LOG.warn("Node request retry rejected for node: {}", node, e);
+                                    m.tally.vote(node, ModificationResultType.FAILURE);
+                                }
+                            });
+                        }
+                        return;
+                    }
+                    List<TiesServiceScopeResultAction.Result> entryResults = matchBatchResults(
+                            batch.stream().map(m -> m.header.getHash()).collect(Collectors.toList()),
+                            result instanceof BatchResult ? ((BatchResult) result).getResults() : Collections.singletonList(result));
+                    for (int i = 0; i < batch.size(); i++) {
+                        PendingModification m = batch.get(i);
+                        TiesServiceScopeResultAction.Result r = entryResults.get(i);
+                        m.tally.vote(node, null == r ? ModificationResultType.FAILURE
+                                : getModificationResultType(m.header.getHash(), r, m.segregatedErrors));
+                    }
+                }, service.getMergeExecutor());
+            });
         });
 
-        Set<ModificationResultType> results = arbiter.results(segregatedResults).collect(Collectors.toSet());
+        for (PendingModification modification : modifications) {
+            completeModification(modification, Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+    }
+
+    private void modification(TiesRouter router, Node node, PendingModification modification, long deadline) {
+        long timeout = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (timeout <= 0) {
+            modification.tally.vote(node, ModificationResultType.FAILURE);
+            return;
+        }
+        CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = service.getRequestPool()
+                .register(RequestType.MODIFICATION, timeout, TimeUnit.MILLISECONDS);
+        coordinatedResult.whenComplete((result, error) -> {
+            if (null != error) {
+                LOG.error("Node request failed", error);
+                modification.tally.vote(node, ModificationResultType.FAILURE);
+            } else {
+                modification.tally.vote(node, getModificationResultType(modification.header.getHash(), result, modification.segregatedErrors));
+            }
+        }, service.getMergeExecutor());
+        try {
+            request(router, node, coordinatedResult, new TiesServiceScopeConsumer() {
+                @Override
+                public void accept(TiesServiceScope s) throws TiesServiceScopeException {
+                    s.modify(Collections.singletonList(newNodeModificationAction(modification.action, coordinatedResult, node)));
+                }
+            });
+        } catch (Throwable e) {
+            LOG.warn("Node request failed for node: {} scope {}", node, e);
+            coordinatedResult.fail(e);
+        }
+    }
+
+    private static void request(TiesRouter router, Node node, CoordinatedResult<?> coordinatedResult,
+            TiesServiceScopeConsumer consumer) throws TiesException {
+        TiesTransportClient c = router.getClient(node);
+        if (c instanceof TiesTrackedTransportClient) {
+            Runnable release = ((TiesTrackedTransportClient) c).requestTracked(consumer);
+            coordinatedResult.whenComplete((r, e) -> release.run());
+        } else {
+            c.request(consumer);
+        }
+    }
+
+    private static byte[] getHeaderHash(TiesServiceScopeModificationAction action) {
+        try {
+            return action.getEntry().getHeader().getHash();
+        } catch (Exception e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Matches node results to the batch entries by header hash. Results left
+     * unmatched are given to the entries left without a result in order, so such
+     * entries vote as missed like a single entry answered with another hash.
+     * 
+     * @return results in order of the entry hashes, null for an entry without a
+     *         result
+     */
+    static List<TiesServiceScopeResultAction.Result> matchBatchResults(List<byte[]> entryHashes,
+            Collection<? extends TiesServiceScopeResultAction.Result> results) {
+        Set<HashKey> entryKeys = entryHashes.stream().map(HashKey::new).collect(Collectors.toSet());
+        Map<HashKey, TiesServiceScopeResultAction.Result> matched = new HashMap<>();
+        List<TiesServiceScopeResultAction.Result> unmatched = new ArrayList<>();
+        for (TiesServiceScopeResultAction.Result r : results) {
+            byte[] headerHash = getResultHeaderHash(r);
+            HashKey key = null == headerHash ? null : new HashKey(headerHash);
+            if (null != key && entryKeys.contains(key) && !matched.containsKey(key)) {
+                matched.put(key, r);
+            } else {
+                unmatched.add(r);
+            }
+        }
+        Iterator<TiesServiceScopeResultAction.Result> others = unmatched.iterator();
+        List<TiesServiceScopeResultAction.Result> entryResults = new ArrayList<>(entryHashes.size());
+        for (byte[] entryHash : entryHashes) {
+            TiesServiceScopeResultAction.Result r = matched.get(new HashKey(entryHash));
+            entryResults.add(null == r && others.hasNext() ? others.next() : r);
+        }
+        return entryResults;
+    }
+
+    private static byte[] getResultHeaderHash(TiesServiceScopeResultAction.Result result) {
+        try {
+            return result.accept(new TiesServiceScopeResultAction.Result.Visitor<byte[]>() {
+
+                @Override
+                public byte[] on(TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException {
+                    return result.getHeaderHash();
+                }
+
+                @Override
+                public byte[] on(TiesServiceScopeRecollectionAction.Result result) throws TiesServiceScopeException {
+                    return null;
+                }
+
+                @Override
+                public byte[] on(TiesServiceScopeHealingAction.Result result) throws TiesServiceScopeException {
+                    return null;
+                }
+            });
+        } catch (TiesServiceScopeException e) {
+            LOG.error("Result filtering failure", e);
+            return null;
+        }
+    }
+
+    private void completeModification(PendingModification modification, long timeout) throws TiesServiceScopeException {
+        TiesServiceScopeModificationAction action = modification.action;
+        TiesEntryHeader header = modification.header;
+        ConsistencyArbiter.Tally<Node, ModificationResultType> tally = modification.tally;
+        Set<String> segregatedErrors = modification.segregatedErrors;
+
+        Set<ModificationResultType> results;
+        try {
+            results = tally.getDecision().get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.debug("Modification consistency was not reached in time for message: {}", action.getMessageId(), e);
+            tally.close();
+            results = tally.getDecision().join();
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.error("Modification consistency check failed for message: {}", action.getMessageId(), e);
+            tally.close();
+            results = tally.getDecision().join();
+        }
+        LOG.debug("Modification consistency results for message {}: {}", action.getMessageId(), results);
+
         if (results.contains(ModificationResultType.SUCCESS)) {
             action.setResult(new TiesServiceScopeModificationAction.Result.Success() {
                 @Override
@@ -424,7 +707,8 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                 }
             });
         } else if (results.contains(ModificationResultType.ERROR)) {
-            Throwable error = new Throwable("Write was impossible" + segregatedErrors);
+            Throwable error = new Throwable(
+                    "Write was impossible" + (segregatedErrors.isEmpty() ? "" : ": " + String.join(", ", segregatedErrors)));
             action.setResult(new TiesServiceScopeModificationAction.Result.Error() {
                 @Override
                 public byte[] getHeaderHash() {
@@ -437,7 +721,7 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                 }
             });
         } else if (results.contains(ModificationResultType.MISS)) {
-            Set<Node> missedNodes = segregatedResults.get(ModificationResultType.FAILURE);
+            Set<Node> missedNodes = tally.getVoters(ModificationResultType.MISS);
             action.setResult(new TiesServiceScopeModificationAction.Result.Error() {
                 @Override
                 public byte[] getHeaderHash() {
@@ -450,7 +734,7 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                 }
             });
         } else if (results.contains(ModificationResultType.FAILURE)) {
-            Set<Node> failedNodes = segregatedResults.get(ModificationResultType.FAILURE);
+            Set<Node> failedNodes = tally.getVoters(ModificationResultType.FAILURE);
             action.setResult(new TiesServiceScopeModificationAction.Result.Error() {
                 @Override
                 public byte[] getHeaderHash() {
@@ -475,17 +759,111 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                 }
             });
         }
+    }
 
-        healingExecutor.execute(() -> {
+    private static byte[] getFieldHash(String fieldName, byte[] rawValue) {
+        Digest fieldDigest = getDigest(DEFAULT_HASH_ALG);
+        fieldDigest.update(fieldName.getBytes(StandardCharsets.UTF_8));
+        fieldDigest.update(rawValue);
+        byte[] out = new byte[fieldDigest.getDigestSize()];
+        fieldDigest.doFinal(out);
+        return out;
+    }
 
-            Set<String> pkFieldNames = fields.parallelStream().filter(f -> f.isPrimaryKey()).map(f -> f.getName())
-                    .collect(Collectors.toSet());
-            try {
-                healingDetection(pkFieldNames, pkHash -> sch.getNodes(tsn, tbn, pkHash), resultWaiters, tsn, tbn, fields);
-            } catch (TiesServiceScopeException ex) {
-                LOG.error("Healing failed for modification request {}", action.getMessageId(), ex);
+    /**
+     * Returns key field hashes of the filter values, or null if the filter
+     * can't be routed. Values are routed only when their type is the field
+     * type, as raw values of other types hash differently.
+     */
+    static List<byte[]> getFilterValueHashes(Query.Filter filter, FieldDescription field) throws TiesServiceScopeException {
+        String name = filter.getName();
+        List<Query.Function.Argument> arguments = filter.getArguments();
+        if (null == name || null == arguments || arguments.isEmpty()) {
+            return null;
+        }
+        if (!(FILTER_EQUALS.equalsIgnoreCase(name) && 1 == arguments.size()) && !FILTER_IN.equalsIgnoreCase(name)) {
+            return null;
+        }
+        List<byte[]> hashes = new ArrayList<>(arguments.size());
+        for (Query.Function.Argument argument : arguments) {
+            byte[] rawValue = argument.accept(new Query.Function.Argument.Visitor<byte[]>() {
+
+                @Override
+                public byte[] on(Query.Function.Argument.FunctionArgument a) throws TiesServiceScopeException {
+                    return null;
+                }
+
+                @Override
+                public byte[] on(Query.Function.Argument.ValueArgument a) throws TiesServiceScopeException {
+                    return field.getType().equalsIgnoreCase(a.getType()) ? a.getRawValue() : null;
+                }
+
+                @Override
+                public byte[] on(Query.Function.Argument.FieldArgument a) throws TiesServiceScopeException {
+                    return null;
+                }
+
+            });
+            if (null == rawValue) {
+                return null;
             }
-        });
+            hashes.add(getFieldHash(filter.getFieldName(), rawValue));
+        }
+        return hashes;
+    }
+
+    /**
+     * Returns replica nodes for queries binding every primary key field by
+     * equality or IN-list, or null if the query should be sent to all nodes.
+     */
+    private static Set<? extends Node> getPrimaryKeyNodes(TiesServiceSchema sch, String tsn, String tbn, Set<FieldDescription> fields,
+            Query query) throws TiesServiceScopeException {
+        Map<String, FieldDescription> keyFields = fields.stream().filter(f -> f.isPrimaryKey())
+                .collect(Collectors.toMap(f -> f.getName(), f -> f));
+        Set<String> pkFieldsNames = keyFields.keySet();
+        List<Query.Filter> filters = query.getFilters();
+        if (pkFieldsNames.isEmpty() || null == filters || filters.isEmpty()) {
+            return null;
+        }
+        Map<String, List<byte[]>> keyValueHashes = new HashMap<>();
+        for (Query.Filter filter : filters) {
+            String fieldName = filter.getFieldName();
+            if (!pkFieldsNames.contains(fieldName) || keyValueHashes.containsKey(fieldName)) {
+                continue;
+            }
+            List<byte[]> hashes = getFilterValueHashes(filter, keyFields.get(fieldName));
+            if (null != hashes) {
+                keyValueHashes.put(fieldName, hashes);
+            }
+        }
+        if (!keyValueHashes.keySet().containsAll(pkFieldsNames)) {
+            return null;
+        }
+        int keysCount = 1;
+        for (List<byte[]> hashes : keyValueHashes.values()) {
+            keysCount *= hashes.size();
+            if (keysCount > MAX_ROUTED_PRIMARY_KEYS) {
+                LOG.debug("Too many primary keys requested, routing to all nodes");
+                return null;
+            }
+        }
+        Set<Node> nodes = new HashSet<>();
+        for (int i = 0; i < keysCount; i++) {
+            int keyIndex = i;
+            Map<String, byte[]> keyHashes = new HashMap<>();
+            for (String fieldName : pkFieldsNames) {
+                List<byte[]> hashes = keyValueHashes.get(fieldName);
+                keyHashes.put(fieldName, hashes.get(keyIndex % hashes.size()));
+                keyIndex /= hashes.size();
+            }
+            byte[] pkFieldsHash = getFieldsHash(null, pkFieldsNames, keyHashes::get);
+            LOG.trace("PrimaryKeyFieldHash: {}", UPPERCASE_HEX.printHexBinary(pkFieldsHash));
+            Set<? extends Node> keyNodes = sch.getNodes(tsn, tbn, pkFieldsHash);
+            if (null != keyNodes) {
+                nodes.addAll(keyNodes);
+            }
+        }
+        return nodes;
     }
 
     @Override
@@ -526,23 +904,30 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
             }
         }
 
-        Set<? extends Node> nodes = sch.getNodes(tsn, tbn);
+        Set<? extends Node> nodes = getPrimaryKeyNodes(sch, tsn, tbn, fields, query);
+        if (null == nodes) {
+            nodes = sch.getNodes(tsn, tbn);
+        } else {
+            LOG.debug("CoordinatedRecollection primary key nodes: {}", nodes);
+        }
         if (null == nodes || nodes.isEmpty()) {
             throw new TiesServiceScopeException("No target nodes found for request");
         }
 
-        Map<Node, Future<CoordinatedResult<TiesServiceScopeResultAction.Result>>> resultWaiters;
-        CompletionService<CoordinatedResult<TiesServiceScopeResultAction.Result>> completionService = new ExecutorCompletionService<>(
-                ForkJoinPool.commonPool()); // TODO FIXME Change executor!!!
+        ConsistencyArbiter arbiter = new ConsistencyArbiter(recollectionRequest.getConsistency(), sch.getReplicationFactor(tsn, tbn));
+        RecollectionStream recollection = new RecollectionStream(arbiter, nodes.size(),
+                service.getRequestTimeout(RequestType.RECOLLECTION, tsn, tbn));
+
+        Map<Node, CompletableFuture<CoordinatedResult<TiesServiceScopeResultAction.Result>>> resultWaiters;
         {
             resultWaiters = new HashMap<>();
             TiesRouter router = service.getRouterService();
             for (Node node : nodes) {
-                resultWaiters.put(node, completionService.submit(() -> {
-                    CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = service.getRequestPool().register();
+                resultWaiters.put(node, CompletableFuture.supplyAsync(() -> {
+                    CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = registerRequest(RequestType.RECOLLECTION,
+                            tsn, tbn);
                     try {
-                        TiesTransportClient c = router.getClient(node);
-                        c.request(new TiesServiceScopeConsumer() {
+                        request(router, node, coordinatedResult, new TiesServiceScopeConsumer() {
 
                             @Override
                             public void accept(TiesServiceScope s) throws TiesServiceScopeException {
@@ -578,184 +963,102 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                         coordinatedResult.fail(e);
                     }
                     return coordinatedResult;
-                }));
+                }, service.getFanOutExecutor()));
             }
-            for (Future<CoordinatedResult<TiesServiceScopeResultAction.Result>> result : resultWaiters.values()) {
-                try {
-                    result.get().get(NODE_REQUEST_TIMEOUT, NODE_REQUEST_TIMEOUT_UNIT);
-                } catch (Throwable e) {
-                    LOG.error("Node request failed", e);
+            // Waiters are complete before voting starts to be safely shared with healing
+            resultWaiters.forEach((node, resultWaiter) -> resultWaiter.whenComplete((coordinatedResult, registrationError) -> {
+                if (null != registrationError) {
+                    LOG.error("Node request failed", registrationError);
+                    recollection.fail(node, registrationError);
+                    return;
                 }
-            }
+                coordinatedResult.whenComplete((result, error) -> {
+                    if (null != error) {
+                        LOG.debug("Failed recollection result on message: {}", recollectionRequest.getMessageId(), error);
+                        recollection.fail(node, error);
+                    } else {
+                        voteRecollectionResult(recollection, node, result);
+                    }
+                }, service.getMergeExecutor());
+            }));
         }
 
-        ConsistencyArbiter arbiter = new ConsistencyArbiter(recollectionRequest.getConsistency(), sch.getReplicationFactor(tsn, tbn));
+        recollection.whenCompleted(() -> scheduleHealing(recollectionRequest.getMessageId(), () -> {
 
-        LinkedList<Throwable> resultErrors = new LinkedList<>();
-        Map<String, Set<Node>> segregatedResults = ConsistencyArbiter.segregate(resultWaiters,
-                e -> UPPERCASE_HEX.printHexBinary(e.getEntryHeader().getHash()), result -> {
-                    try {
-                        return result.get().get()
-                                .accept(new TiesServiceScopeResultAction.Result.Visitor<Stream<TiesServiceScopeRecollectionAction.Result.Entry>>() {
-
-                                    @Override
-                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(TiesServiceScopeModificationAction.Result result)
-                                            throws TiesServiceScopeException {
-                                        LOG.error("Illegal result for recollection response: {}", result);
-                                        return Stream.empty();
-                                    }
-
-                                    @Override
-                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(TiesServiceScopeHealingAction.Result result)
-                                            throws TiesServiceScopeException {
-                                        LOG.error("Illegal result for recollection response: {}", result);
-                                        return Stream.empty();
-                                    }
-
-                                    @Override
-                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(TiesServiceScopeRecollectionAction.Result result)
-                                            throws TiesServiceScopeException {
-                                        return result.accept(
-                                                new TiesServiceScopeRecollectionAction.Result.Visitor<Stream<TiesServiceScopeRecollectionAction.Result.Entry>>() {
-                                                    @Override
-                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(
-                                                            TiesServiceScopeRecollectionAction.Success result) throws TiesServiceScopeException {
-                                                        return result.getEntries().parallelStream();
-                                                    }
-
-                                                    @Override
-                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(
-                                                            TiesServiceScopeRecollectionAction.Error result) throws TiesServiceScopeException {
-                                                        LOG.error("Error result for recollection response: {}", result);
-                                                        resultErrors.addAll(result.getErrors());
-                                                        return Stream.empty();
-                                                    }
-
-                                                    @Override
-                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(Partial result)
-                                                            throws TiesServiceScopeException {
-                                                        LOG.error("Partial result for recollection response: {}", result);
-                                                        resultErrors.addAll(result.getErrors());
-                                                        return result.getEntries().parallelStream();
-                                                    }
-                                                });
-                                    }
-
-                                });
-                    } catch (CancellationException | TiesServiceScopeException | InterruptedException | ExecutionException
-                            | TimeoutException e) {
-                        LOG.debug("Failed recollection result on message: {}", recollectionRequest.getMessageId(), e);
-                        return Stream.empty();
-                    }
-                });
-
-        LOG.debug("SegregatedResults: {}", segregatedResults);
+            Set<String> pkFieldNames = fields.stream().filter(f -> f.isPrimaryKey()).map(f -> f.getName())
+                    .collect(Collectors.toSet());
+            try {
+                healingDetection(pkFieldNames, pkHash -> sch.getNodes(tsn, tbn, pkHash), resultWaiters, tsn, tbn, fields);
+            } catch (TiesServiceScopeException ex) {
+                LOG.error("Healing failed for recollection request {}", recollectionRequest.getMessageId(), ex);
+            }
+        }));
 
-        Set<String> arbiterEntryHashes = arbiter.results(segregatedResults).filter(p -> SEGREGATION_ERROR != p).collect(Collectors.toSet());
+        recollectionRequest.setResult(recollection);
+    }
 
-        LOG.debug("ArbiterEntryHashes: {}", arbiterEntryHashes);
+    private static void voteRecollectionResult(RecollectionStream recollection, Node node, TiesServiceScopeResultAction.Result result) {
         try {
-            Set<Node> failedNodes = segregatedResults.get(SEGREGATION_ERROR);
-            if (arbiterEntryHashes.isEmpty() && null != failedNodes && !failedNodes.isEmpty()) {
-                resultErrors.add(new TiesServiceScopeException("Read failed for nodes " + failedNodes));
-                recollectionRequest.setResult(//
-                        new TiesServiceScopeRecollectionAction.Error() {
-                            @Override
-                            public List<Throwable> getErrors() {
-                                return resultErrors;
-                            }
-                        });
-            } else {
-                List<TiesServiceScopeRecollectionAction.Result.Entry> arbiterEntries = arbiterEntryHashes.isEmpty() //
-                        ? Collections.emptyList()
-                        : resultWaiters.values().parallelStream() //
-                                .flatMap(result -> {
-                                    try {
-                                        return result.get().get().accept(
-                                                new TiesServiceScopeResultAction.Result.Visitor<Stream<TiesServiceScopeRecollectionAction.Result.Entry>>() {
+            result.accept(new TiesServiceScopeResultAction.Result.Visitor<Void>() {
 
-                                                    @Override
-                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(
-                                                            TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException {
-                                                        LOG.error("Illegal result for recollection: {}", result);
-                                                        return Stream.empty();
-                                                    }
+                @Override
+                public Void on(TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException {
+                    LOG.error("Illegal result for recollection response: {}", result);
+                    recollection.accept(node, null, null);
+                    return null;
+                }
 
-                                                    @Override
-                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(
-                                                            TiesServiceScopeRecollectionAction.Result result) throws TiesServiceScopeException {
-                                                        return result.accept(
-                                                                new TiesServiceScopeRecollectionAction.Result.Visitor<Stream<TiesServiceScopeRecollectionAction.Result.Entry>>() {
-                                                                    @Override
-                                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(
-                                                                            TiesServiceScopeRecollectionAction.Success result)
-                                                                            throws TiesServiceScopeException {
-                                                                        return result.getEntries().parallelStream();
-                                                                    }
-
-                                                                    @Override
-                                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(
-                                                                            TiesServiceScopeRecollectionAction.Error result)
-                                                                            throws TiesServiceScopeException {
-                                                                        LOG.error("Error result for recollection response: {}", result);
-                                                                        return Stream.empty();
-                                                                    }
-
-                                                                    @Override
-                                                                    public Stream<Entry> on(Partial result)
-                                                                            throws TiesServiceScopeException {
-                                                                        LOG.error("Partial result for recollection response: {}", result);
-                                                                        return result.getEntries().parallelStream();
-                                                                    }
-                                                                });
-                                                    }
+                @Override
+                public Void on(TiesServiceScopeHealingAction.Result result) throws TiesServiceScopeException {
+                    LOG.error("Illegal result for recollection response: {}", result);
+                    recollection.accept(node, null, null);
+                    return null;
+                }
 
-                                                    @Override
-                                                    public Stream<TiesServiceScopeRecollectionAction.Result.Entry> on(
-                                                            TiesServiceScopeHealingAction.Result result) throws TiesServiceScopeException {
-                                                        LOG.error("Illegal result for recollection: {}", result);
-                                                        return Stream.empty();
-                                                    }
-                                                });
-                                    } catch (CancellationException | TiesServiceScopeException | InterruptedException | ExecutionException
-                                            | TimeoutException e) {
-                                    }
-                                    return Stream.empty();
-                                }) //
-                                .filter(e -> arbiterEntryHashes.contains(UPPERCASE_HEX.printHexBinary(e.getEntryHeader().getHash()))) //
-                                .filter(distinct(e -> UPPERCASE_HEX.printHexBinary(e.getEntryHeader().getHash()))) //
-                                .collect(Collectors.toList());
-
-                recollectionRequest.setResult(resultErrors.isEmpty()//
-                        ? new TiesServiceScopeRecollectionAction.Success() {
-                            @Override
-                            public List<Entry> getEntries() {
-                                return arbiterEntries;
-                            }
+                @Override
+                public Void on(TiesServiceScopeRecollectionAction.Result result) throws TiesServiceScopeException {
+                    return result.accept(new TiesServiceScopeRecollectionAction.Result.Visitor<Void>() {
+
+                        @Override
+                        public Void on(TiesServiceScopeRecollectionAction.Success result) throws TiesServiceScopeException {
+                            recollection.accept(node, result.getEntries(), null);
+                            return null;
                         }
-                        : new TiesServiceScopeRecollectionAction.Partial() {
-                            @Override
-                            public List<Throwable> getErrors() {
-                                return resultErrors;
-                            }
 
-                            @Override
-                            public List<Entry> getEntries() {
-                                return arbiterEntries;
-                            }
-                        });
-            }
-        } finally {
-            healingExecutor.execute(() -> {
+                        @Override
+                        public Void on(TiesServiceScopeRecollectionAction.Error result) throws TiesServiceScopeException {
+                            LOG.error("Error result for recollection response: {}", result);
+                            recollection.accept(node, null, result.getErrors());
+                            return null;
+                        }
 
-                Set<String> pkFieldNames = fields.parallelStream().filter(f -> f.isPrimaryKey()).map(f -> f.getName())
-                        .collect(Collectors.toSet());
-                try {
-                    healingDetection(pkFieldNames, pkHash -> sch.getNodes(tsn, tbn, pkHash), resultWaiters, tsn, tbn, fields);
-                } catch (TiesServiceScopeException ex) {
-                    LOG.error("Healing failed for recollection request {}", recollectionRequest.getMessageId(), ex);
+                        @Override
+                        public Void on(Partial result) throws TiesServiceScopeException {
+                            LOG.error("Partial result for recollection response: {}", result);
+                            recollection.accept(node, result.getEntries(), result.getErrors());
+                            return null;
+                        }
+                    });
                 }
+
             });
+        } catch (TiesServiceScopeException e) {
+            LOG.error("Recollection result could not be voted for node: {}", node, e);
+            recollection.fail(node, e);
+        }
+    }
+
+    private CoordinatedResult<TiesServiceScopeResultAction.Result> registerRequest(RequestType type, String tablespaceName,
+            String tableName) {
+        return service.getRequestPool().register(type, service.getRequestTimeout(type, tablespaceName, tableName),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduleHealing(BigInteger messageId, Runnable healingTask) {
+        try {
+            service.getHealingExecutor().execute(healingTask);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Healing was skipped for request {}: {}", messageId, e.getMessage());
         }
     }
 
@@ -777,22 +1080,21 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
     }
 
     private void healingDetection(Set<String> primaryKeyFieldNames, Function<byte[], Set<? extends Node>> nodesMapper,
-            Map<Node, Future<CoordinatedResult<TiesServiceScopeResultAction.Result>>> resultWaiters, String tablespaceName, String tableName,
+            Map<Node, ? extends Future<CoordinatedResult<TiesServiceScopeResultAction.Result>>> resultWaiters, String tablespaceName, String tableName,
             Set<FieldDescription> fields) throws TiesServiceScopeException {
 
-        Map<String, Map<String, Map<Node, TiesEntry>>> healingExpectantMap = resultWaiters.entrySet().parallelStream().flatMap(e -> {
+        long recollectionTimeout = service.getRequestTimeout(RequestType.RECOLLECTION, tablespaceName, tableName);
+        long healingTimeout = service.getRequestTimeout(RequestType.HEALING, tablespaceName, tableName);
+
+        Map<String, Map<String, Map<Node, TiesEntry>>> healingExpectantMap = resultWaiters.entrySet().stream().flatMap(e -> {
             try {
-                TiesServiceScopeResultAction.Result result = e.getValue().get().get(NODE_REQUEST_TIMEOUT, NODE_REQUEST_TIMEOUT_UNIT);
+                TiesServiceScopeResultAction.Result result = e.getValue().get().get(recollectionTimeout, TimeUnit.MILLISECONDS);
                 return result.accept(new TiesServiceScopeResultAction.Result.Visitor<Stream<HealingMappingEntry<Node, TiesEntry>>>() {
 
                     @Override
                     public Stream<HealingMappingEntry<Node, TiesEntry>> on(TiesServiceScopeModificationAction.Result result)
                             throws TiesServiceScopeException {
-                        // TODO Auto-generated method stub
-                        RuntimeException err = new RuntimeException("not yet implemented");
-                        err.setStackTrace(new StackTraceElement[] { err.getStackTrace()[0] });
-                        LOG.debug("Modification healing not yet implemented", err);
-                        return Stream.<HealingMappingEntry<Node, TiesEntry>>empty();
+                        throw new TiesServiceScopeException("Healing is supported for recollection results only");
                     }
 
                     @Override
@@ -804,10 +1106,10 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                                     @Override
                                     public Stream<HealingMappingEntry<Node, TiesEntry>> on(TiesServiceScopeRecollectionAction.Success success)
                                             throws TiesServiceScopeException {
-                                        return success.getEntries().parallelStream().map(entry -> {
+                                        return success.getEntries().stream().map(entry -> {
                                             try {
                                                 byte[] entryHash = entry.getEntryHeader().getHash();
-                                                Map<String, byte[]> fhs = entry.getEntryFields().parallelStream()
+                                                Map<String, byte[]> fhs = entry.getEntryFields().stream()
                                                         .filter(f -> primaryKeyFieldNames.contains(f.getName()))
                                                         .collect(Collectors.toMap(f -> f.getName(), f -> {
                                                             try {
@@ -898,15 +1200,15 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
         TiesRouter router = service.getRouterService();
 
-        healingExpectantMap.entrySet().parallelStream().forEach(pke -> {
+        healingExpectantMap.entrySet().stream().forEach(pke -> {
             String pkFieldsHash = pke.getKey();
             Map<String, Map<Node, TiesEntry>> entryMap = pke.getValue();
             if (entryMap.size() > 1) {
                 // Multiple versions
-                Map<String, BigInteger> versionMap = entryMap.entrySet().parallelStream().collect(//
+                Map<String, BigInteger> versionMap = entryMap.entrySet().stream().collect(//
                         Collectors.groupingByConcurrent(e -> e.getKey(), //
                                 Collectors.mapping(
-                                        e -> e.getValue().values().parallelStream().limit(1).map(te -> te.getHeader().getEntryVersion())
+                                        e -> e.getValue().values().stream().limit(1).map(te -> te.getHeader().getEntryVersion())
                                                 .collect(//
                                                         Collectors.collectingAndThen(Collectors.maxBy((o1, o2) -> o1.compareTo(o2)),
                                                                 (Optional<BigInteger> opt) -> opt.orElse(BigInteger.ONE.negate()))),
@@ -928,8 +1230,8 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
             Set<? extends Node> nodes = nodesMapper.apply(UPPERCASE_HEX.parseHexBinary(pkFieldsHash));
             Map<String, String> typeMap = Collections
-                    .unmodifiableMap(fields.parallelStream().collect(Collectors.toMap(f -> f.getName(), f -> f.getType())));
-            entryMap.entrySet().parallelStream().forEach(ene -> {
+                    .unmodifiableMap(fields.stream().collect(Collectors.toMap(f -> f.getName(), f -> f.getType())));
+            entryMap.entrySet().stream().forEach(ene -> {
                 String enHashStr = ene.getKey();
                 Map<Node, TiesEntry> nodesEntryMap = ene.getValue();
                 if (!nodesEntryMap.keySet().containsAll(nodes)) {
@@ -938,19 +1240,20 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                     LOG.debug("Entry {} should be healed\n\t   to nodes: {}\n\t from nodes: {}", //
                             enHashStr, nodesForHealing, nodesEntryMap.keySet());
                     TiesEntry entry = nodesEntryMap.values().iterator().next();
-                    CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = service.getRequestPool().register();
+                    CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = registerRequest(RequestType.HEALING,
+                            tablespaceName, tableName);
                     Node donorNode = getRandom(nodesEntryMap.keySet());
                     try {
                         Set<String> keyFieldNames = Collections.unmodifiableSet(
                                 fields.stream().filter(f -> f.isPrimaryKey()).map(f -> f.getName()).collect(Collectors.toSet()));
-                        router.getClient(donorNode).request(new TiesServiceScopeConsumer() {
+                        request(router, donorNode, coordinatedResult, new TiesServiceScopeConsumer() {
                             @Override
                             public void accept(TiesServiceScope serviceScope) throws TiesServiceScopeException {
                                 serviceScope.select(new TiesServiceScopeRecollectionAction() {
 
                                     private final Query query = new Query() {
 
-                                        private final List<Selector> selectors = entry.getFields().parallelStream() //
+                                        private final List<Selector> selectors = entry.getFields().stream() //
                                                 .filter(f -> f instanceof TiesEntry.HashField) //
                                                 .map(f -> new Selector.FieldSelector() {
                                                     @Override
@@ -960,7 +1263,7 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                                                 }) //
                                                 .collect(Collectors.toList());
 
-                                        private final List<Filter> filters = entry.getFields().parallelStream() //
+                                        private final List<Filter> filters = entry.getFields().stream() //
                                                 .filter(f -> f instanceof TiesEntry.ValueField) //
                                                 .filter(f -> keyFieldNames.contains(f.getName())) //
                                                 .map(f -> new Filter() {
@@ -1059,7 +1362,7 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                         coordinatedResult.fail(e);
                     }
                     try {
-                        coordinatedResult.get(NODE_REQUEST_TIMEOUT, NODE_REQUEST_TIMEOUT_UNIT) //
+                        coordinatedResult.get(healingTimeout, TimeUnit.MILLISECONDS) //
                                 .accept(new TiesServiceScopeResultAction.Result.Visitor<Void>() {
 
                                     @Override
@@ -1121,10 +1424,10 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
             throw new IllegalArgumentException("Entries does not match");
         }
         List<? extends TiesEntry.Field> fields = Stream
-                .concat(entry.getFields().parallelStream(), resultEntry.getEntryFields().parallelStream())
+                .concat(entry.getFields().stream(), resultEntry.getEntryFields().stream())
                 .filter(f -> f instanceof TiesEntry.ValueField)
                 .collect(Collectors.toMap(f -> f.getName(), f -> f, (a, b) -> a instanceof TiesEntry.ValueField ? a : b)).values()
-                .parallelStream().collect(Collectors.toList());
+                .stream().collect(Collectors.toList());
 
         return new TiesEntry() {
 
@@ -1148,17 +1451,17 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
             return items.iterator().next();
         }
         int i = random.nextInt(items.size());
-        return items.parallelStream().skip(i).findFirst().get();
+        return items.stream().skip(i).findFirst().get();
     }
 
     private void healingPropagation(TiesRouter router, Set<Node> nodes, TiesEntry entry, String tablespaceName, String tableName,
             Map<String, String> typeMap) {
 
         nodes.forEach(node -> {
-            CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = service.getRequestPool().register();
+            CoordinatedResult<TiesServiceScopeResultAction.Result> coordinatedResult = registerRequest(RequestType.HEALING,
+                    tablespaceName, tableName);
             try {
-                TiesTransportClient c = router.getClient(node);
-                c.request(new TiesServiceScopeConsumer() {
+                request(router, node, coordinatedResult, new TiesServiceScopeConsumer() {
 
                     private final TiesEntryExtended extEntry = new TiesEntryExtended() {
 
@@ -1166,7 +1469,7 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
                         private final Map<String, TypedValueField> valueFields;
 
                         {
-                            List<TypedField> allFields = entry.getFields().parallelStream().map(f -> {
+                            List<TypedField> allFields = entry.getFields().stream().map(f -> {
                                 try {
                                     return f.accept(new TiesEntry.Field.Visitor<TiesEntryExtended.TypedField>() {
                                         @Override
@@ -1227,13 +1530,13 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
                                     });
                                 } catch (TiesServiceScopeException e) {
-                                    LOG.error("Failed to convert field for healing: {}", f, c);
+                                    LOG.error("Failed to convert field for healing: {}", f, e);
                                     return null;
                                 }
                             }).filter(f -> null != f).collect(Collectors.toList());
-                            hashFields = allFields.parallelStream().filter(f -> f instanceof TypedHashField)
+                            hashFields = allFields.stream().filter(f -> f instanceof TypedHashField)
                                     .collect(Collectors.toMap(f -> f.getName(), f -> (TypedHashField) f));
-                            valueFields = allFields.parallelStream().filter(f -> f instanceof TypedValueField)
+                            valueFields = allFields.stream().filter(f -> f instanceof TypedValueField)
                                     .collect(Collectors.toMap(f -> f.getName(), f -> (TypedValueField) f));
                         }
 
@@ -1355,7 +1658,9 @@ public class TiesCoordinatorServiceScopeImpl implements TiesServiceScope {
 
     @Override
     public void result(TiesServiceScopeResultAction result) throws TiesServiceScopeException {
-        if (!service.getRequestPool().complete(result.getMessageId(), result.getResult())) {
+        List<TiesServiceScopeResultAction.Result> results = result.getResults();
+        TiesServiceScopeResultAction.Result value = 1 == results.size() ? results.get(0) : new BatchResult(results);
+        if (!service.getRequestPool().complete(result.getMessageId(), value)) {
             throw new TiesServiceScopeException("Request completion failed for messageId: " + result.getMessageId());
         }
     }
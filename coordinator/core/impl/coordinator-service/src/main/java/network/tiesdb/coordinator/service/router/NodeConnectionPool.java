@@ -0,0 +1,247 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.router;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.exception.TiesConfigurationException;
+import network.tiesdb.exception.TiesException;
+import network.tiesdb.router.api.TiesRoutingException;
+import network.tiesdb.service.api.TiesService;
+import network.tiesdb.service.scope.api.TiesServiceScopeConsumer;
+import network.tiesdb.transport.api.TiesTransportClient;
+import network.tiesdb.transport.api.TiesTransportFactory;
+
+/**
+ * Pool of transport connections to a single node.
+ * 
+ * <P>
+ * Requests are spread over live connections by the least in-flight count.
+ * Broken connections are skipped and reconnected by health checks with
+ * exponential backoff, so lookups never block on connecting. A lookup finding
+ * no live connection fails at once and could request an early health check.
+ */
+final class NodeConnectionPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NodeConnectionPool.class);
+
+    final class Connection implements TiesTrackedTransportClient {
+
+        private final int index;
+        private final TiesTransportClient client;
+        private final AtomicInteger inFlightCount = new AtomicInteger();
+        private final AtomicBoolean connecting = new AtomicBoolean();
+
+        private volatile boolean broken = true;
+        private volatile long nextAttemptTime;
+        private int failures;
+
+        private Connection(int index, TiesTransportClient client) {
+            this.index = index;
+            this.client = client;
+            this.nextAttemptTime = System.nanoTime();
+        }
+
+        @Override
+        public void init() throws TiesException {
+            // NOP Pooled connection lifecycle is managed by the pool
+        }
+
+        @Override
+        public void start() throws TiesException {
+            // NOP Pooled connection lifecycle is managed by the pool
+        }
+
+        @Override
+        public void stop() throws TiesException {
+            // NOP Pooled connection lifecycle is managed by the pool
+        }
+
+        @Override
+        public void request(TiesServiceScopeConsumer consumer) throws TiesException {
+            requestTracked(consumer).run();
+        }
+
+        @Override
+        public Runnable requestTracked(TiesServiceScopeConsumer consumer) throws TiesException {
+            inFlightCount.incrementAndGet();
+            try {
+                client.request(consumer);
+            } catch (TiesException | RuntimeException e) {
+                LOG.debug("Request failed for connection {}#{}", uri, index, e);
+                broken = true;
+                inFlightCount.decrementAndGet();
+                throw e;
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    inFlightCount.decrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        public TiesTransportClient check() throws TiesException {
+            if (!isConnected()) {
+                throw new TiesRoutingException("Connection " + uri + "#" + index + " is broken");
+            }
+            return this;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return !broken && client.isConnected();
+        }
+
+        private boolean connect() {
+            if (!connecting.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                client.check();
+                broken = false;
+                failures = 0;
+                LOG.debug("Connection {}#{} established", uri, index);
+                return true;
+            } catch (TiesException | RuntimeException e) {
+                failures++;
+                long backoff = getBackoff(failures);
+                nextAttemptTime = System.nanoTime() + backoff;
+                LOG.warn("Connection {}#{} failed {} times, next attempt in {} ms", uri, index, failures,
+                        TimeUnit.NANOSECONDS.toMillis(backoff), e);
+                return false;
+            } finally {
+                connecting.set(false);
+            }
+        }
+
+        private void close() {
+            broken = true;
+            try {
+                client.stop();
+            } catch (TiesException | RuntimeException e) {
+                LOG.error("Client stop failed: {}#{}", uri, index, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Connection [uri=" + uri + ", index=" + index + ", inFlight=" + inFlightCount.get() + ", broken=" + broken + "]";
+        }
+
+    }
+
+    private final URI uri;
+    private final Connection[] connections;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicBoolean checkRequested = new AtomicBoolean();
+    private final long backoffMin;
+    private final long backoffMax;
+
+    NodeConnectionPool(TiesService service, TiesTransportFactory transportFactory, URI uri, int size, long backoffMin, long backoffMax,
+            TimeUnit unit) throws TiesConfigurationException {
+        if (size <= 0) {
+            throw new TiesConfigurationException("Connections per node count should be positive, got " + size);
+        }
+        this.uri = uri;
+        this.backoffMin = unit.toNanos(Math.max(1, backoffMin));
+        this.backoffMax = Math.max(this.backoffMin, unit.toNanos(backoffMax));
+        this.connections = new Connection[size];
+        for (int i = 0; i < size; i++) {
+            connections[i] = new Connection(i, transportFactory.createTransportClient(service, uri));
+        }
+    }
+
+    private long getBackoff(int failures) {
+        long backoff = backoffMin;
+        for (int i = 1; i < failures && backoff < backoffMax; i++) {
+            backoff = backoff > (backoffMax >>> 1) ? backoffMax : backoff << 1;
+        }
+        return Math.min(backoff, backoffMax);
+    }
+
+    TiesTransportClient acquire() throws TiesRoutingException {
+        int start = cursor.getAndIncrement();
+        Connection best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < connections.length; i++) {
+            Connection c = connections[Math.floorMod(start + i, connections.length)];
+            if (c.isConnected()) {
+                int load = c.inFlightCount.get();
+                if (load < bestLoad) {
+                    best = c;
+                    bestLoad = load;
+                    if (0 == load) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (null != best) {
+            return best;
+        }
+        throw new TiesRoutingException("No live connections to " + uri);
+    }
+
+    /**
+     * @return true if a broken connection is due to reconnect and no health
+     *         check was requested since the last one
+     */
+    boolean requestHealthCheck() {
+        long now = System.nanoTime();
+        for (Connection c : connections) {
+            if (!c.isConnected() && now - c.nextAttemptTime >= 0) {
+                return checkRequested.compareAndSet(false, true);
+            }
+        }
+        return false;
+    }
+
+    void healthCheck() {
+        checkRequested.set(false);
+        long now = System.nanoTime();
+        for (Connection c : connections) {
+            if (!c.isConnected()) {
+                c.broken = true;
+                if (now - c.nextAttemptTime >= 0) {
+                    c.connect();
+                }
+            }
+        }
+    }
+
+    void close() {
+        for (Connection c : connections) {
+            c.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NodeConnectionPool [uri=" + uri + ", size=" + connections.length + "]";
+    }
+
+}
@@ -19,8 +19,14 @@
 package network.tiesdb.coordinator.service.router;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -98,9 +104,11 @@ public class TiesServiceStaticRouter implements TiesRouter {
     private final TiesService service;
     private final TiesServiceStaticRouterConfigImpl config;
 
-    private final Map<StaticNode, URI> nodeMap = new HashMap<>();
-    private final Map<String, TiesTransportFactory> transports = new HashMap<>();
-    private final Map<URI, TiesTransportClient> clientCache = new HashMap<>();
+    private volatile Map<StaticNode, URI> nodeMap = Collections.emptyMap();
+    private volatile Map<String, TiesTransportFactory> transports = Collections.emptyMap();
+    private final ConcurrentHashMap<URI, NodeConnectionPool> connectionPools = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService healthChecker;
 
     public TiesServiceStaticRouter(TiesService service, TiesServiceStaticRouterConfigImpl config) {
         this.service = service;
@@ -111,53 +119,101 @@ public class TiesServiceStaticRouter implements TiesRouter {
     public TiesTransportClient getClient(Node node) throws TiesRoutingException {
         LOG.trace("Node: {}", node);
         URI uri = nodeMap.get(StaticNode.fromNode(node));
+        if (null == uri) {
+            throw new TiesRoutingException("No route found for node " + node);
+        }
+
+        NodeConnectionPool pool = connectionPools.get(uri);
+        if (null == pool) {
+            pool = createConnectionPool(node, uri);
+        }
+        try {
+            return pool.acquire();
+        } catch (TiesRoutingException e) {
+            // Reconnect on the health checker instead of the request thread
+            scheduleHealthCheck(pool);
+            throw e;
+        }
+    }
 
-        TiesTransportClient client = clientCache.get(uri);
-        if (null != client) {
+    private void scheduleHealthCheck(NodeConnectionPool pool) {
+        ScheduledExecutorService healthChecker = this.healthChecker;
+        if (null != healthChecker && pool.requestHealthCheck()) {
             try {
-                return client.check();
-            } catch (TiesException e) {
-                LOG.error("Client check failed for uri: {}", uri, e);
+                healthChecker.execute(pool::healthCheck);
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Health check was not scheduled for {}", pool, e);
             }
         }
+    }
 
+    private NodeConnectionPool createConnectionPool(Node node, URI uri) throws TiesRoutingException {
         TiesTransportFactory tf = transports.get(uri.getScheme());
         if (null == tf) {
             throw new TiesRoutingException("Unknown protocol " + uri.getScheme() + " for node " + node + " route " + uri);
         }
+        NodeConnectionPool pool;
         try {
-            client = tf.createTransportClient(service, uri);
-            client = client.check();
-            clientCache.put(uri, client);
-            return client;
+            pool = new NodeConnectionPool(service, tf, uri, config.getConnectionsPerNode(), config.getReconnectBackoffMin(),
+                    config.getReconnectBackoffMax(), TimeUnit.MILLISECONDS);
         } catch (TiesException e) {
-            throw new TiesRoutingException("Can't connect Node " + node, e);
+            throw new TiesRoutingException("Can't create connections for Node " + node, e);
         }
+        NodeConnectionPool existing = connectionPools.putIfAbsent(uri, pool);
+        if (null != existing) {
+            return existing;
+        }
+        scheduleHealthCheck(pool);
+        return pool;
     }
 
     @Override
     public void start() throws TiesException {
-        // NOP
+        ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "TiesRouterHealthCheck");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, config.getHealthCheckInterval());
+        healthChecker.scheduleWithFixedDelay(() -> {
+            connectionPools.values().forEach(pool -> {
+                try {
+                    pool.healthCheck();
+                } catch (Throwable e) {
+                    LOG.error("Health check failed for {}", pool, e);
+                }
+            });
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        this.healthChecker = healthChecker;
+        // Connect known nodes ahead of their first requests
+        nodeMap.forEach((node, uri) -> {
+            if (!connectionPools.containsKey(uri)) {
+                try {
+                    createConnectionPool(node, uri);
+                } catch (TiesRoutingException e) {
+                    LOG.warn("Connections were not created for node {}", node, e);
+                }
+            }
+        });
     }
 
     @Override
     public void stop() throws TiesException {
-        this.nodeMap.clear();
-        this.transports.clear();
-        this.clientCache.values().forEach(client -> {
-            try {
-                client.stop();
-            } catch (TiesException e) {
-                LOG.error("Client stop failed: {}", client, e);
-            }
-        });
-        this.clientCache.clear();
+        ScheduledExecutorService healthChecker = this.healthChecker;
+        this.healthChecker = null;
+        if (null != healthChecker) {
+            healthChecker.shutdownNow();
+        }
+        this.nodeMap = Collections.emptyMap();
+        this.transports = Collections.emptyMap();
+        this.connectionPools.values().forEach(NodeConnectionPool::close);
+        this.connectionPools.clear();
     }
 
     @Override
     public void init() throws TiesException {
-        this.nodeMap.putAll(config.getNodesURIMap());
-        this.transports.putAll(config.getTransportFactoriesMap());
+        this.nodeMap = Collections.unmodifiableMap(new HashMap<>(config.getNodesURIMap()));
+        this.transports = Collections.unmodifiableMap(new HashMap<>(config.getTransportFactoriesMap()));
     }
 
 }
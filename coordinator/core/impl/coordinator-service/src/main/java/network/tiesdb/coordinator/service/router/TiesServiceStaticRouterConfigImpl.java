@@ -44,6 +44,11 @@ public class TiesServiceStaticRouterConfigImpl implements TiesRouterConfig {
     private Map<StaticNode, URI> nodeAddresses;
     private Map<String, TiesTransportFactory> transports;
 
+    private int connectionsPerNode = 4;
+    private long healthCheckInterval = 5000;
+    private long reconnectBackoffMin = 500;
+    private long reconnectBackoffMax = 30000;
+
     public TiesServiceStaticRouterConfigImpl() {
         // NOP Is not empty config values
     }
@@ -93,4 +98,36 @@ public class TiesServiceStaticRouterConfigImpl implements TiesRouterConfig {
         this.transports = Collections.unmodifiableMap(newTransports);
     }
 
+    public int getConnectionsPerNode() {
+        return connectionsPerNode;
+    }
+
+    public void setConnectionsPerNode(int connectionsPerNode) {
+        this.connectionsPerNode = connectionsPerNode;
+    }
+
+    public long getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(long healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public long getReconnectBackoffMin() {
+        return reconnectBackoffMin;
+    }
+
+    public void setReconnectBackoffMin(long reconnectBackoffMin) {
+        this.reconnectBackoffMin = reconnectBackoffMin;
+    }
+
+    public long getReconnectBackoffMax() {
+        return reconnectBackoffMax;
+    }
+
+    public void setReconnectBackoffMax(long reconnectBackoffMax) {
+        this.reconnectBackoffMax = reconnectBackoffMax;
+    }
+
 }
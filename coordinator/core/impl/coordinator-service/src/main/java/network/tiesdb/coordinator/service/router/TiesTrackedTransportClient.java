@@ -0,0 +1,37 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.router;
+
+import network.tiesdb.exception.TiesException;
+import network.tiesdb.service.scope.api.TiesServiceScopeConsumer;
+import network.tiesdb.transport.api.TiesTransportClient;
+
+/**
+ * Transport client which counts requests as in-flight until they are released.
+ */
+public interface TiesTrackedTransportClient extends TiesTransportClient {
+
+    /**
+     * Sends the request and keeps it in-flight until the returned release
+     * callback is run. Callers should run it once the request completes or
+     * times out.
+     */
+    Runnable requestTracked(TiesServiceScopeConsumer consumer) throws TiesException;
+
+}
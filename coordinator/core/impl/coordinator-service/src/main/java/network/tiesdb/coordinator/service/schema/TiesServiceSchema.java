@@ -23,15 +23,23 @@ import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toSet;
 
-import java.math.BigInteger;
+import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,69 +98,163 @@ public class TiesServiceSchema {
         }
     }
 
-    public static class SchemaCache extends ConcurrentHashMap<CacheKey, Set<FieldDescription>> {
-        private static final long serialVersionUID = -5958833752316194583L;
+    private static interface EntryUpdate<V> {
 
-        private final Function<CacheKey, Set<FieldDescription>> entryProvider;
+        V apply(CacheKey key, V cached, V loaded);
 
-        public SchemaCache(Function<CacheKey, Set<FieldDescription>> entryProvider) {
+    }
+
+    /**
+     * Cache of schema entries loaded asynchronously per key.
+     * 
+     * <P>
+     * Concurrent first requests of a key share one load and loads of different
+     * keys never wait for each other. A refreshed entry keeps being served until
+     * its reloaded value is ready.
+     */
+    private static class LoadingCache<V> {
+
+        private final ConcurrentHashMap<CacheKey, CompletableFuture<V>> entries = new ConcurrentHashMap<>();
+        private final Set<CacheKey> failedKeys = ConcurrentHashMap.newKeySet();
+        private final Function<CacheKey, V> entryProvider;
+        private final Executor executor;
+
+        private LoadingCache(Function<CacheKey, V> entryProvider, Executor executor) {
             this.entryProvider = entryProvider;
+            this.executor = executor;
         }
 
-        public Set<FieldDescription> load(String tablespaceName, String tableName) {
+        private V load(String tablespaceName, String tableName) {
             CacheKey key = new CacheKey(tablespaceName, tableName);
-            return computeIfAbsent(key, this::createSchemaCache);
+            CompletableFuture<V> entry = entries.get(key);
+            if (null == entry) {
+                CompletableFuture<V> created = new CompletableFuture<>();
+                entry = entries.putIfAbsent(key, created);
+                if (null == entry) {
+                    entry = created;
+                    startLoading(key, created);
+                }
+            }
+            try {
+                return entry.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
         }
 
-        // TODO synchronize on key to avoid whole cache locking
-        private synchronized Set<FieldDescription> createSchemaCache(CacheKey key) {
-            Set<FieldDescription> cacheEntry = get(key);
-            if (null == cacheEntry) {
-                cacheEntry = this.entryProvider.apply(key);
+        private void startLoading(CacheKey key, CompletableFuture<V> entry) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        entry.complete(entryProvider.apply(key));
+                    } catch (Throwable e) {
+                        entries.remove(key, entry);
+                        entry.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                entries.remove(key, entry);
+                entry.completeExceptionally(e);
             }
-            return cacheEntry;
         }
-    }
 
-    public static class DistributionCache extends ConcurrentHashMap<CacheKey, DistributionCache.Entry> {
-        private static final long serialVersionUID = -5958833752316194583L;
+        private Set<CacheKey> keys() {
+            return entries.keySet();
+        }
 
-        private final Function<CacheKey, Entry> entryProvider;
+        private Set<CacheKey> drainFailedKeys() {
+            Set<CacheKey> keys = new HashSet<>();
+            for (Iterator<CacheKey> i = failedKeys.iterator(); i.hasNext(); i.remove()) {
+                keys.add(i.next());
+            }
+            return keys;
+        }
 
-        public DistributionCache(Function<CacheKey, Entry> entryProvider) {
-            this.entryProvider = entryProvider;
+        /**
+         * @return true if any of the entries was replaced
+         */
+        private CompletableFuture<Boolean> refreshAll(Collection<CacheKey> keys, EntryUpdate<V> update) {
+            List<CompletableFuture<Boolean>> updates = keys.stream().map(key -> refresh(key, update)).collect(Collectors.toList());
+            return CompletableFuture.allOf(updates.toArray(new CompletableFuture[updates.size()]))
+                    .thenApply(v -> updates.stream().anyMatch(CompletableFuture::join));
         }
 
-        private static class Entry {
+        private CompletableFuture<Boolean> refresh(CacheKey key, EntryUpdate<V> update) {
+            CompletableFuture<V> current = entries.get(key);
+            if (null == current) {
+                return CompletableFuture.completedFuture(false);
+            }
+            if (!current.isDone()) {
+                // Loading might have read the state preceding the change
+                return current.handle((v, e) -> null).thenCompose(v -> refresh(key, update));
+            }
+            if (current.isCompletedExceptionally()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            V cached = current.join();
+            LOG.debug("Start updating: `{}`.`{}`", key.tablespace, key.table);
+            try {
+                return CompletableFuture.supplyAsync(() -> entryProvider.apply(key), executor).handle((loaded, e) -> {
+                    if (null != e) {
+                        LOG.error("Update failed for: `{}`.`{}`", key.tablespace, key.table, e);
+                        failedKeys.add(key);
+                        return false;
+                    }
+                    V updated = update.apply(key, cached, loaded);
+                    return updated != cached && entries.replace(key, current, CompletableFuture.completedFuture(updated));
+                });
+            } catch (RejectedExecutionException e) {
+                LOG.error("Update rejected for: `{}`.`{}`", key.tablespace, key.table, e);
+                failedKeys.add(key);
+                return CompletableFuture.completedFuture(false);
+            }
+        }
 
-            private final Set<? extends RangedNode> nodes;
-            private final int replicationFactor;
+    }
 
-            public Entry(int replicationFactor, Set<? extends RangedNode> nodes) {
-                this.nodes = nodes;
-                this.replicationFactor = replicationFactor;
-            }
+    private static class Distribution {
 
-            @Override
-            public String toString() {
-                return "CacheEntry [replicationFactor=" + replicationFactor + ", nodes=" + nodes + "]";
-            }
+        private final Set<? extends RangedNode> nodes;
+        private final int replicationFactor;
+        private final NodeDistribution distribution;
+        private final Map<RangedNode, Map<Integer, Set<Integer>>> ranges;
 
+        public Distribution(int replicationFactor, Set<? extends RangedNode> nodes) {
+            this.nodes = Collections.unmodifiableSet(nodes);
+            this.replicationFactor = replicationFactor;
+            this.distribution = new NodeDistribution(this.nodes);
+            this.ranges = new HashMap<>();
+            nodes.forEach(n -> ranges.put(n, n.getRangeMap()));
         }
 
-        private Entry load(String tablespaceName, String tableName) {
-            CacheKey key = new CacheKey(tablespaceName, tableName);
-            return computeIfAbsent(key, this::createTableCache);
+        @Override
+        public int hashCode() {
+            return 31 * replicationFactor + ranges.hashCode();
         }
 
-        // TODO synchronize on key to avoid whole cache locking
-        private synchronized Entry createTableCache(CacheKey key) {
-            Entry cacheEntry = get(key);
-            if (null == cacheEntry) {
-                cacheEntry = this.entryProvider.apply(key);
-            }
-            return cacheEntry;
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null)
+                return false;
+            if (getClass() != obj.getClass())
+                return false;
+            Distribution other = (Distribution) obj;
+            return replicationFactor == other.replicationFactor && ranges.equals(other.ranges);
+        }
+
+        @Override
+        public String toString() {
+            return "Distribution [replicationFactor=" + replicationFactor + ", nodes=" + nodes + "]";
         }
+
     }
 
     public static class FieldDescription {
@@ -213,7 +315,102 @@ public class TiesServiceSchema {
 
     private static interface RangedNode extends Node {
 
-        boolean inRange(BigInteger key);
+        int[] getBases();
+
+        Map<Integer, Set<Integer>> getRangeMap();
+
+        boolean inRange(int base, int index);
+
+    }
+
+    /**
+     * Precomputed key to replica set mapping.
+     * 
+     * <P>
+     * Each key only matters modulo the least common multiple of all the node
+     * range bases. If it is small enough, the replica set of every possible
+     * remainder is computed once and the lookup is a single modulo with
+     * primitive arithmetic over the key bytes. Otherwise the remainder is
+     * computed once per distinct base and nodes are filtered with it.
+     */
+    private static class NodeDistribution {
+
+        private static final int MAX_PRECOMPUTED_SLOTS = 1 << 16;
+
+        private final Set<? extends RangedNode> nodes;
+        private final int[] bases;
+        private final int modulus;
+        private final Set<? extends Node>[] slots;
+
+        @SuppressWarnings("unchecked")
+        private NodeDistribution(Set<? extends RangedNode> nodes) {
+            this.nodes = nodes;
+            this.bases = nodes.stream().flatMapToInt(n -> IntStream.of(n.getBases())).filter(b -> b > 0).distinct().sorted().toArray();
+            long lcm = 1;
+            for (int base : bases) {
+                lcm = lcm / gcd(lcm, base) * base;
+                if (lcm > MAX_PRECOMPUTED_SLOTS) {
+                    break;
+                }
+            }
+            if (lcm > MAX_PRECOMPUTED_SLOTS) {
+                this.modulus = 0;
+                this.slots = null;
+            } else {
+                this.modulus = (int) lcm;
+                this.slots = new Set[modulus];
+                Map<Set<RangedNode>, Set<RangedNode>> interned = new HashMap<>();
+                for (int slot = 0; slot < modulus; slot++) {
+                    Set<RangedNode> slotNodes = new HashSet<>();
+                    for (RangedNode node : nodes) {
+                        for (int base : node.getBases()) {
+                            if (base > 0 && node.inRange(base, slot % base)) {
+                                slotNodes.add(node);
+                                break;
+                            }
+                        }
+                    }
+                    slots[slot] = interned.computeIfAbsent(slotNodes, Collections::unmodifiableSet);
+                }
+            }
+        }
+
+        private static long gcd(long a, long b) {
+            while (b != 0) {
+                long t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+
+        private static int remainder(byte[] key, int base) {
+            long r = 0;
+            for (int i = 0; i < key.length; i++) {
+                r = ((r << 8) | (key[i] & 0xFF)) % base;
+            }
+            return (int) r;
+        }
+
+        private Set<? extends Node> getNodes(byte[] key) {
+            if (null != slots) {
+                return slots[remainder(key, modulus)];
+            }
+            int[] remainders = new int[bases.length];
+            for (int i = 0; i < bases.length; i++) {
+                remainders[i] = remainder(key, bases[i]);
+            }
+            Set<RangedNode> resultNodes = new HashSet<>();
+            for (RangedNode node : nodes) {
+                for (int i = 0; i < bases.length; i++) {
+                    if (node.inRange(bases[i], remainders[i])) {
+                        resultNodes.add(node);
+                        break;
+                    }
+                }
+            }
+            return Collections.unmodifiableSet(resultNodes);
+        }
 
     }
 
@@ -221,12 +418,14 @@ public class TiesServiceSchema {
 
         private final String address;
         private final short network;
-        private final Map<BigInteger, Set<BigInteger>> rangeMap;
+        private final Map<Integer, Set<Integer>> rangeMap;
+        private final int[] bases;
 
-        public SchemaRangedNode(String address, short network, Map<BigInteger, Set<BigInteger>> rangeMap) {
+        public SchemaRangedNode(String address, short network, Map<Integer, Set<Integer>> rangeMap) {
             this.address = address;
             this.network = network;
             this.rangeMap = rangeMap;
+            this.bases = rangeMap.keySet().stream().mapToInt(Integer::intValue).toArray();
         }
 
         @Override
@@ -240,13 +439,19 @@ public class TiesServiceSchema {
         }
 
         @Override
-        public boolean inRange(BigInteger key) {
-            for (Entry<BigInteger, Set<BigInteger>> e : rangeMap.entrySet()) {
-                if (e.getValue().contains(key.remainder(e.getKey()))) {
-                    return true;
-                }
-            }
-            return false;
+        public int[] getBases() {
+            return bases;
+        }
+
+        @Override
+        public Map<Integer, Set<Integer>> getRangeMap() {
+            return rangeMap;
+        }
+
+        @Override
+        public boolean inRange(int base, int index) {
+            Set<Integer> indexes = rangeMap.get(base);
+            return null != indexes && indexes.contains(index);
         }
 
         @Override
@@ -285,11 +490,19 @@ public class TiesServiceSchema {
     }
 
     private final TiesSchema schema;
-    private final SchemaCache schemaCache = new SchemaCache(this::loadSchemaFields);
-    private final DistributionCache tableCache = new DistributionCache(this::loadSchemaTable);
+    private final LoadingCache<Set<FieldDescription>> schemaCache;
+    private final LoadingCache<Distribution> tableCache;
+
+    private final Set<CacheKey> changedKeys = ConcurrentHashMap.newKeySet();
+    private final boolean changeFeed;
 
-    public TiesServiceSchema(TiesSchema schema) {
+    public TiesServiceSchema(TiesSchema schema, Executor executor) {
         this.schema = schema;
+        this.schemaCache = new LoadingCache<>(this::loadSchemaFields, executor);
+        this.tableCache = new LoadingCache<>(this::loadSchemaTable, executor);
+        this.changeFeed = schema.addChangeListener((tablespaceName, tableName) -> {
+            changedKeys.add(new CacheKey(tablespaceName, tableName));
+        });
     }
 
     public Set<FieldDescription> getFields(String tablespaceName, String tableName) {
@@ -301,14 +514,11 @@ public class TiesServiceSchema {
     }
 
     public Set<? extends Node> getNodes(String tablespaceName, String tableName, byte[] headerHash) {
-        DistributionCache.Entry cacheEntry = tableCache.load(tablespaceName, tableName);
-        Set<? extends RangedNode> nodes = cacheEntry.nodes;
+        Distribution cacheEntry = tableCache.load(tablespaceName, tableName);
         if (null == headerHash) {
-            return nodes;
+            return cacheEntry.nodes;
         }
-        BigInteger headerHashKey = new BigInteger(1, headerHash);
-        Set<RangedNode> resultNodes = nodes.stream().filter(node -> node.inRange(headerHashKey)).collect(toSet());
-        return resultNodes;
+        return cacheEntry.distribution.getNodes(headerHash);
     }
 
     private static void checkForInvalidModifications(Set<FieldDescription> refList, Set<FieldDescription> conList) {
@@ -330,45 +540,82 @@ public class TiesServiceSchema {
     }
 
     void retryUpdateFailedDescriptors() {
-        // NOP
+        Set<CacheKey> failedKeys = schemaCache.drainFailedKeys();
+        failedKeys.addAll(tableCache.drainFailedKeys());
+        if (changeFeed && !failedKeys.isEmpty()) {
+            LOG.debug("Scheduling {} failed updates to retry", failedKeys.size());
+            changedKeys.addAll(failedKeys);
+        }
     }
 
     void garbadgeCleanup() {
         // NOP
     }
 
-    void updateAllDescriptors() {
-        LOG.debug("Start updating schema: {}", schema);
-        SchemaCache schemaCacheUpdated = new SchemaCache(this::loadSchemaFields);
-        schemaCache.forEach((k, v) -> {
-            updateSchemaCache(k, v, schemaCacheUpdated);
-        });
-        schemaCache.putAll(schemaCacheUpdated);
-        DistributionCache tableCacheUpdated = new DistributionCache(this::loadSchemaTable);
-        tableCache.keySet().stream().forEach(k -> tableCacheUpdated.load(k.tablespace, k.table));
-        tableCache.putAll(tableCacheUpdated);
-        LOG.debug("Updating schema finished for: {}", schema);
+    /**
+     * Tells if the schema reports changed tables, so that only these tables are
+     * updated.
+     */
+    boolean isChangeFeedSupported() {
+        return changeFeed;
     }
 
-    private void updateSchemaCache(CacheKey cacheKey, Set<FieldDescription> cachedDescriptions, SchemaCache schemaCacheUpdated) {
-        LOG.debug("Start updating: `{}`.`{}`", cacheKey.tablespace, cacheKey.table);
+    /**
+     * @return true if any of the cached descriptors was changed
+     */
+    boolean updateAllDescriptors() {
+        LOG.debug("Start updating schema: {}", schema);
         try {
-            Set<FieldDescription> contractDescriptions = loadSchemaFields(cacheKey);
-            try {
-                checkForInvalidModifications(cachedDescriptions, contractDescriptions);
-            } catch (Throwable e) {
-                throw new TiesServiceScopeException(
-                        "Illegal schema `" + cacheKey.tablespace + "`.`" + cacheKey.table + "` modification detected", e);
+            if (!schema.refresh()) {
+                LOG.debug("Updating schema skipped with no changes for: {}", schema);
+                return false;
             }
-            if (cachedDescriptions.equals(contractDescriptions)) {
-                LOG.debug("Update succeeded with no changes for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table);
-            } else {
-                schemaCacheUpdated.put(cacheKey, contractDescriptions);
-                LOG.debug("Update succeeded for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table);
+        } catch (IOException e) {
+            LOG.error("Updating schema failed for: {}", schema, e);
+            return false;
+        }
+        CompletableFuture<Boolean> fieldsUpdate;
+        CompletableFuture<Boolean> tablesUpdate;
+        if (changeFeed) {
+            Set<CacheKey> keys = new HashSet<>();
+            for (Iterator<CacheKey> i = changedKeys.iterator(); i.hasNext(); i.remove()) {
+                keys.add(i.next());
             }
+            fieldsUpdate = schemaCache.refreshAll(keys, this::updateSchemaFields);
+            tablesUpdate = tableCache.refreshAll(keys, this::updateSchemaTable);
+        } else {
+            fieldsUpdate = schemaCache.refreshAll(schemaCache.keys(), this::updateSchemaFields);
+            tablesUpdate = tableCache.refreshAll(tableCache.keys(), this::updateSchemaTable);
+        }
+        boolean changed = fieldsUpdate.join() | tablesUpdate.join();
+        LOG.debug("Updating schema finished for: {}", schema);
+        return changed;
+    }
+
+    private Distribution updateSchemaTable(CacheKey cacheKey, Distribution cached, Distribution loaded) {
+        if (cached.equals(loaded)) {
+            LOG.debug("Distribution update succeeded with no changes for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table);
+            return cached;
+        }
+        LOG.debug("Distribution update succeeded for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table);
+        return loaded;
+    }
+
+    private Set<FieldDescription> updateSchemaFields(CacheKey cacheKey, Set<FieldDescription> cachedDescriptions,
+            Set<FieldDescription> contractDescriptions) {
+        try {
+            checkForInvalidModifications(cachedDescriptions, contractDescriptions);
         } catch (Throwable e) {
-            LOG.error("Update failed for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table, e);
+            LOG.error("Update failed for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table, new TiesServiceScopeException(
+                    "Illegal schema `" + cacheKey.tablespace + "`.`" + cacheKey.table + "` modification detected", e));
+            return cachedDescriptions;
+        }
+        if (cachedDescriptions.equals(contractDescriptions)) {
+            LOG.debug("Update succeeded with no changes for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table);
+            return cachedDescriptions;
         }
+        LOG.debug("Update succeeded for: `{}`.`{}`", cacheKey.tablespace, cacheKey.table);
+        return contractDescriptions;
     }
 
     private Set<FieldDescription> loadSchemaFields(CacheKey key) {
@@ -394,7 +641,7 @@ public class TiesServiceSchema {
         return descriptions;
     }
 
-    private DistributionCache.Entry loadSchemaTable(CacheKey key) {
+    private Distribution loadSchemaTable(CacheKey key) {
         { // TODO FIXME Move SingleDebugNode logic to new subclass in TEST environment
             String sna = System.getProperty("network.tiesdb.debug.SingleNodeAddress");
             if (null != sna) {
@@ -412,7 +659,17 @@ public class TiesServiceSchema {
                     }
 
                     @Override
-                    public boolean inRange(BigInteger key) {
+                    public int[] getBases() {
+                        return new int[] { 1 };
+                    }
+
+                    @Override
+                    public Map<Integer, Set<Integer>> getRangeMap() {
+                        return Collections.singletonMap(1, Collections.singleton(0));
+                    }
+
+                    @Override
+                    public boolean inRange(int base, int index) {
                         return true;
                     }
 
@@ -422,7 +679,7 @@ public class TiesServiceSchema {
                     }
 
                 });
-                return new DistributionCache.Entry(1, nodeset);
+                return new Distribution(1, nodeset);
             }
         }
         Tablespace tablespace = schema.getTablespace(key.tablespace);
@@ -432,16 +689,16 @@ public class TiesServiceSchema {
                 schema.getSchemaNetwork(), //
                 Collections.unmodifiableMap( //
                         table.getNodeRanges(address).stream().collect( //
-                                groupingBy(r -> BigInteger.valueOf(r.getBase()), //
-                                        mapping(r -> BigInteger.valueOf(r.getIndex()), toSet()))//
+                                groupingBy(r -> r.getBase(), //
+                                        mapping(r -> r.getIndex(), toSet()))//
                         ) //
                 ) //
         )).collect(toSet());
-        return new DistributionCache.Entry(table.getReplicationFactor(), nodes);
+        return new Distribution(table.getReplicationFactor(), nodes);
     }
 
     public int getReplicationFactor(String tablespaceName, String tableName) {
-        DistributionCache.Entry cacheEntry = tableCache.load(tablespaceName, tableName);
+        Distribution cacheEntry = tableCache.load(tablespaceName, tableName);
         return cacheEntry.replicationFactor;
     }
 
@@ -18,9 +18,10 @@
  */
 package network.tiesdb.coordinator.service.schema;
 
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -42,10 +43,12 @@ public class TiesServiceSchemaDaemonImpl implements TiesDaemon {
 
     private final TiesServiceSchema schemaService;
 
-    private static final long DEFAULT_CHECK_DELAY = 180;
-    private static final TimeUnit DEFAULT_CHECK_DELAY_UNIT = TimeUnit.MINUTES;
+    private static final long CHANGE_FEED_CHECK_DELAY = 5;
+    private static final long MIN_CHECK_DELAY = 60;
+    private static final long MAX_CHECK_DELAY = 180 * 60;
+    private static final TimeUnit CHECK_DELAY_UNIT = TimeUnit.SECONDS;
 
-    private static final long DEFAULT_CLEANUP_DELAY = DEFAULT_CHECK_DELAY * 3;
+    private static final long DEFAULT_CLEANUP_DELAY = 180 * 3;
     private static final TimeUnit DEFAULT_CLEANUP_DELAY_UNIT = TimeUnit.MINUTES;
 
     private static final int EXECUTOR_CORE_POOL_SIZE = 2;
@@ -73,7 +76,7 @@ public class TiesServiceSchemaDaemonImpl implements TiesDaemon {
         checkerRef.updateAndGet((checker) -> {
             if (null == checker) {
                 LOG.debug("Scheduling TiesServiceSchema checker...");
-                checker = getScheduler().scheduleAtFixedRate(new AllSchemaChecker(), 0, DEFAULT_CHECK_DELAY, DEFAULT_CHECK_DELAY_UNIT);
+                checker = getScheduler().schedule(new AllSchemaChecker(), 0, CHECK_DELAY_UNIT);
                 LOG.debug("TiesServiceSchema checker scheduled");
             }
             return checker;
@@ -81,7 +84,8 @@ public class TiesServiceSchemaDaemonImpl implements TiesDaemon {
         cleanerRef.updateAndGet((cleaner) -> {
             if (null == cleaner) {
                 LOG.debug("Scheduling TiesServiceSchema cleaner...");
-                cleaner = getScheduler().scheduleAtFixedRate(new AllSchemaChecker(), 0, DEFAULT_CLEANUP_DELAY, DEFAULT_CLEANUP_DELAY_UNIT);
+                cleaner = getScheduler().scheduleAtFixedRate(new AllSchemaCleaner(), DEFAULT_CLEANUP_DELAY, DEFAULT_CLEANUP_DELAY,
+                        DEFAULT_CLEANUP_DELAY_UNIT);
                 LOG.debug("TiesServiceSchema cleaner scheduled");
             }
             return cleaner;
@@ -105,6 +109,8 @@ public class TiesServiceSchemaDaemonImpl implements TiesDaemon {
         LOG.trace("Stopping TiesServiceSchema...");
 
         ScheduledExecutorService scheduler = schedulerRef.getAndSet(null);
+        cancel(checkerRef.getAndSet(null));
+        cancel(cleanerRef.getAndSet(null));
         if (null != scheduler) {
             LOG.trace("Stopping TiesServiceSchema scheduler...");
             scheduler.shutdown();
@@ -114,6 +120,12 @@ public class TiesServiceSchemaDaemonImpl implements TiesDaemon {
         LOG.debug("TiesServiceSchema stopped");
     }
 
+    private static void cancel(ScheduledFuture<?> future) {
+        if (null != future) {
+            future.cancel(false);
+        }
+    }
+
     public void init() {
         LOG.debug("Initializing TiesServiceSchema...");
         initScheduler();
@@ -122,8 +134,11 @@ public class TiesServiceSchemaDaemonImpl implements TiesDaemon {
 
     private void initScheduler() {
         LOG.trace("Creating TiesServiceSchema scheduler");
-        ScheduledExecutorService scheduler = //
-                Executors.newScheduledThreadPool(EXECUTOR_CORE_POOL_SIZE, (r) -> new Thread(r, "TiesServiceSchemaUpdateScheduler"));
+        ScheduledThreadPoolExecutor scheduler = //
+                new ScheduledThreadPoolExecutor(EXECUTOR_CORE_POOL_SIZE, (r) -> new Thread(r, "TiesServiceSchemaUpdateScheduler"));
+        // Delayed checks should not keep the scheduler alive after shutdown
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        scheduler.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
         LOG.trace("Registering created TiesServiceSchema scheduler");
         if (!schedulerRef.compareAndSet(null, scheduler)) {
             LOG.trace("TiesServiceSchema scheduler registration failed");
@@ -134,15 +149,54 @@ public class TiesServiceSchemaDaemonImpl implements TiesDaemon {
         }
     }
 
+    /**
+     * Schema update check rescheduling itself after each run.
+     * 
+     * <P>
+     * A schema reporting its changes is checked every few seconds, as a check
+     * with no changes costs a single block number request. Otherwise all the
+     * cached tables are reloaded on each check, so the delay is doubled after
+     * each check with no changes up to the maximum and is reset on a change.
+     */
     public class AllSchemaChecker implements Runnable {
 
+        private long delay = MIN_CHECK_DELAY;
+
         @Override
         public void run() {
-            LOG.trace("Checking for scheduled schema updates...");
-            schemaService.updateAllDescriptors();
-            LOG.trace("Checking for schema update errors...");
-            schemaService.retryUpdateFailedDescriptors();
-            LOG.trace("All schema updates checked");
+            boolean changed = false;
+            try {
+                LOG.trace("Checking for scheduled schema updates...");
+                changed = schemaService.updateAllDescriptors();
+                LOG.trace("Checking for schema update errors...");
+                schemaService.retryUpdateFailedDescriptors();
+                LOG.trace("All schema updates checked");
+            } catch (Throwable e) {
+                LOG.error("Schema update check failed", e);
+            }
+            if (schemaService.isChangeFeedSupported()) {
+                delay = CHANGE_FEED_CHECK_DELAY;
+            } else {
+                delay = changed ? MIN_CHECK_DELAY : Math.min(delay * 2, MAX_CHECK_DELAY);
+            }
+            ScheduledExecutorService scheduler = schedulerRef.get();
+            if (null == scheduler || scheduler.isShutdown()) {
+                LOG.debug("TiesServiceSchema checker stopped");
+                return;
+            }
+            LOG.trace("Next schema update check in {} {}", delay, CHECK_DELAY_UNIT);
+            ScheduledFuture<?> next;
+            try {
+                next = scheduler.schedule(this, delay, CHECK_DELAY_UNIT);
+            } catch (RejectedExecutionException e) {
+                LOG.debug("TiesServiceSchema checker stopped");
+                return;
+            }
+            checkerRef.set(next);
+            // Stopped while rescheduling
+            if (scheduler != schedulerRef.get() && checkerRef.compareAndSet(next, null)) {
+                next.cancel(false);
+            }
         }
 
     }
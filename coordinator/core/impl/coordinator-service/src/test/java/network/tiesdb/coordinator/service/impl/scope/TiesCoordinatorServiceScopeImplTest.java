@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.coordinator.service.impl.scope;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import network.tiesdb.coordinator.service.impl.scope.TiesCoordinatorServiceScopeImpl.ModificationResultType;
+import network.tiesdb.coordinator.service.schema.TiesServiceSchema.FieldDescription;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+import network.tiesdb.service.scope.api.TiesServiceScopeModificationAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Query;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Query.Function.Argument;
+import network.tiesdb.service.scope.api.TiesServiceScopeResultAction;
+
+public class TiesCoordinatorServiceScopeImplTest {
+
+    private static final FieldDescription ID_FIELD = new FieldDescription("id", "Int64", true);
+
+    @Test
+    @DisplayName("Key filter with the field type is routed")
+    public void keyFilterRoutedTest() throws TiesServiceScopeException {
+        List<byte[]> hashes = TiesCoordinatorServiceScopeImpl.getFilterValueHashes(filter("=", value("int64", 42L)), ID_FIELD);
+        assertNotNull(hashes);
+        assertEquals(1, hashes.size());
+        assertArrayEquals(hashes.get(0),
+                TiesCoordinatorServiceScopeImpl.getFilterValueHashes(filter("in", value("INT64", 42L)), ID_FIELD).get(0));
+    }
+
+    @Test
+    @DisplayName("Key filter with another type is not routed")
+    public void keyFilterTypeMismatchTest() throws TiesServiceScopeException {
+        assertNull(TiesCoordinatorServiceScopeImpl.getFilterValueHashes(filter("=", value("int32", 42)), ID_FIELD));
+        assertNull(TiesCoordinatorServiceScopeImpl.getFilterValueHashes(filter("IN", value("int64", 42L), value("int32", 43)),
+                ID_FIELD));
+    }
+
+    @Test
+    @DisplayName("Batch entry answered with another hash is missed")
+    public void batchResultHashMismatchTest() {
+        byte[] first = { 1 };
+        byte[] second = { 2 };
+        TiesServiceScopeResultAction.Result firstResult = success(first);
+        TiesServiceScopeResultAction.Result otherResult = success(new byte[] { 3 });
+
+        List<TiesServiceScopeResultAction.Result> results = TiesCoordinatorServiceScopeImpl
+                .matchBatchResults(Arrays.asList(first, second), Arrays.asList(otherResult, firstResult));
+        assertSame(firstResult, results.get(0));
+        assertSame(otherResult, results.get(1));
+        assertEquals(ModificationResultType.SUCCESS,
+                TiesCoordinatorServiceScopeImpl.getModificationResultType(first, results.get(0), new HashSet<>()));
+        assertEquals(ModificationResultType.MISS,
+                TiesCoordinatorServiceScopeImpl.getModificationResultType(second, results.get(1), new HashSet<>()));
+    }
+
+    @Test
+    @DisplayName("Batch entry without a result is not matched")
+    public void batchResultMissingTest() {
+        byte[] first = { 1 };
+        byte[] second = { 2 };
+        TiesServiceScopeResultAction.Result secondResult = success(second);
+
+        List<TiesServiceScopeResultAction.Result> results = TiesCoordinatorServiceScopeImpl
+                .matchBatchResults(Arrays.asList(first, second), Collections.singletonList(secondResult));
+        assertNull(results.get(0));
+        assertSame(secondResult, results.get(1));
+    }
+
+    private static TiesServiceScopeModificationAction.Result.Success success(byte[] headerHash) {
+        return () -> headerHash;
+    }
+
+    private static Query.Filter filter(String name, Argument... arguments) {
+        return new Query.Filter() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public List<Argument> getArguments() {
+                return Arrays.asList(arguments);
+            }
+
+            @Override
+            public String getFieldName() {
+                return ID_FIELD.getName();
+            }
+
+        };
+    }
+
+    private static Argument.ValueArgument value(String type, Number value) {
+        byte[] rawValue = value instanceof Long //
+                ? ByteBuffer.allocate(Long.BYTES).putLong(value.longValue()).array()
+                : ByteBuffer.allocate(Integer.BYTES).putInt(value.intValue()).array();
+        return new Argument.ValueArgument() {
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public byte[] getRawValue() {
+                return rawValue;
+            }
+
+            @Override
+            public Object getValue() {
+                return value;
+            }
+
+        };
+    }
+
+}
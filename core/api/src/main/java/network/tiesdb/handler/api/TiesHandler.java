@@ -18,6 +18,10 @@
  */
 package network.tiesdb.handler.api;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
 import network.tiesdb.api.TiesVersion;
 import network.tiesdb.context.api.TiesHandlerConfig;
 import network.tiesdb.exception.TiesException;
@@ -39,6 +43,27 @@ public interface TiesHandler {
 
     void handle(TiesInput input, TiesOutput output) throws TiesException;
 
+    /**
+     * Handles the input on the executor, off the calling thread.
+     * 
+     * <P>
+     * Runs the synchronous {@link #handle(TiesInput, TiesOutput)} on the executor,
+     * so a handler waiting for its service scope keeps an executor thread busy
+     * until the response is written. Callbacks of the returned future may run on
+     * the thread calling this method if handling completes before they are
+     * attached.
+     */
+    // TODO Make service scopes asynchronous so coordinated requests don't hold executor threads
+    default CompletableFuture<Void> handle(TiesInput input, TiesOutput output, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                handle(input, output);
+            } catch (TiesException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
     void handle(TiesServiceScopeConsumer consumer, TiesOutput output) throws TiesException;
 
     TiesVersion getVersion();
@@ -18,6 +18,7 @@
  */
 package network.tiesdb.schema.api;
 
+import java.io.IOException;
 import java.security.SignatureException;
 import java.util.List;
 import java.util.Set;
@@ -84,6 +85,12 @@ public interface TiesSchema {
 
     }
 
+    interface ChangeListener {
+
+        void tableChanged(String tablespaceName, String tableName);
+
+    }
+
     short getSchemaNetwork();
 
     String getNodeAddress();
@@ -91,6 +98,26 @@ public interface TiesSchema {
     String getContractAddress();
 
     Tablespace getTablespace(String name);
+
+    /**
+     * Brings cached schema state up to date with its source.
+     * 
+     * @return false if the schema is known to be unchanged since the last
+     *         refresh
+     */
+    default boolean refresh() throws IOException {
+        return true;
+    }
+
+    /**
+     * Subscribes the listener to table changes found by {@link #refresh()}.
+     * 
+     * @return false if the schema does not report changes, so every table
+     *         should be considered changed after a refresh
+     */
+    default boolean addChangeListener(ChangeListener listener) {
+        return false;
+    }
     
     boolean isChequeValid(TiesCheque cheque) throws SignatureException;
 
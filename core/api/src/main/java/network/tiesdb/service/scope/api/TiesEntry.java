@@ -18,6 +18,7 @@
  */
 package network.tiesdb.service.scope.api;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public interface TiesEntry {
@@ -47,6 +48,15 @@ public interface TiesEntry {
 
         byte[] getHash();
 
+        /**
+         * Read-only view of the field hash. Unlike {@link #getHash()} it could
+         * be returned without a defensive copy.
+         */
+        default ByteBuffer getHashBuffer() {
+            byte[] hash = getHash();
+            return null == hash ? null : ByteBuffer.wrap(hash).asReadOnlyBuffer();
+        }
+
     }
 
     interface ValueField extends HashField {
@@ -58,6 +68,15 @@ public interface TiesEntry {
 
         byte[] getValue();
 
+        /**
+         * Read-only view of the raw field value. Unlike {@link #getValue()} it
+         * could be returned without a defensive copy.
+         */
+        default ByteBuffer getValueBuffer() {
+            byte[] value = getValue();
+            return null == value ? null : ByteBuffer.wrap(value).asReadOnlyBuffer();
+        }
+
     }
 
     TiesEntryHeader getHeader();
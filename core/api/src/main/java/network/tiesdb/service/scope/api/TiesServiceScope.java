@@ -19,6 +19,7 @@
 package network.tiesdb.service.scope.api;
 
 import java.io.Closeable;
+import java.util.List;
 
 import network.tiesdb.api.TiesVersion;
 
@@ -32,6 +33,51 @@ public interface TiesServiceScope extends Closeable {
 
     void delete(TiesServiceScopeModificationAction action) throws TiesServiceScopeException;
 
+    /**
+     * Modifies several entries at once. Implementations could combine all of
+     * the entries into a single request, default one handles them one by one.
+     */
+    default void modify(List<? extends TiesServiceScopeModificationAction> actions) throws TiesServiceScopeException {
+        for (TiesServiceScopeModificationAction action : actions) {
+            try {
+                switch (action.getType()) {
+                case INSERT:
+                    insert(action);
+                    break;
+                case UPDATE:
+                    update(action);
+                    break;
+                case DELETE:
+                    delete(action);
+                    break;
+                default:
+                    throw new TiesServiceScopeException("Unknown modification type " + action.getType());
+                }
+            } catch (TiesServiceScopeException e) {
+                byte[] headerHash;
+                try {
+                    headerHash = action.getEntry().getHeader().getHash();
+                } catch (Exception ex) {
+                    headerHash = new byte[0];
+                }
+                byte[] errorHeaderHash = headerHash;
+                action.setResult(new TiesServiceScopeModificationAction.Result.Error() {
+
+                    @Override
+                    public Throwable getError() {
+                        return e;
+                    }
+
+                    @Override
+                    public byte[] getHeaderHash() {
+                        return errorHeaderHash;
+                    }
+
+                });
+            }
+        }
+    }
+
     void select(TiesServiceScopeRecollectionAction action) throws TiesServiceScopeException;
 
     void heal(TiesServiceScopeHealingAction action) throws TiesServiceScopeException;
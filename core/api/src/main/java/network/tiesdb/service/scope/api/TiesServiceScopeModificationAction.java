@@ -18,6 +18,8 @@
  */
 package network.tiesdb.service.scope.api;
 
+import java.math.BigInteger;
+
 public interface TiesServiceScopeModificationAction extends TiesServiceScopeAction, TiesServiceScopeAction.Distributed {
 
     interface Result extends TiesServiceScopeResultAction.Result {
@@ -60,8 +62,34 @@ public interface TiesServiceScopeModificationAction extends TiesServiceScopeActi
 
     }
 
+    enum Type {
+
+        INSERT, UPDATE, DELETE;
+
+        public static Type of(byte[] entryOldHash, BigInteger entryVersion) throws TiesServiceScopeException {
+            if (null == entryOldHash && BigInteger.ONE.equals(entryVersion)) {
+                return INSERT;
+            } else if (null != entryOldHash && BigInteger.ZERO.equals(entryVersion)) {
+                return DELETE;
+            } else if (null != entryOldHash) {
+                return UPDATE;
+            }
+            throw new TiesServiceScopeException("Illegal modification EntryOldHash and/or EntryVersion");
+        }
+
+    }
+
     TiesEntryExtended getEntry() throws TiesServiceScopeException;
 
+    default Type getType() throws TiesServiceScopeException {
+        TiesEntryExtended entry = getEntry();
+        TiesEntryHeader header = null == entry ? null : entry.getHeader();
+        if (null == header) {
+            throw new TiesServiceScopeException("No header found in modification entry");
+        }
+        return Type.of(header.getEntryOldHash(), header.getEntryVersion());
+    }
+
     void setResult(Result result) throws TiesServiceScopeException;
 
 }
\ No newline at end of file
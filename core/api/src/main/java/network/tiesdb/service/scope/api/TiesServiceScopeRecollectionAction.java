@@ -19,6 +19,7 @@
 package network.tiesdb.service.scope.api;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TiesServiceScopeRecollectionAction extends TiesServiceScopeAction, TiesServiceScopeAction.Distributed {
 
@@ -290,5 +291,19 @@ public interface TiesServiceScopeRecollectionAction extends TiesServiceScopeActi
 
     }
 
+    /**
+     * Result which entries are delivered while the recollection is still in
+     * progress. Errors are complete only after the entry stream is exhausted.
+     */
+    public interface Streaming extends Partial {
+
+        /**
+         * Entries in order of their arrival. The stream blocks while entries are
+         * being collected and could be consumed only once.
+         */
+        Stream<Entry> getEntryStream();
+
+    }
+
     void setResult(Result result) throws TiesServiceScopeException;
 }
\ No newline at end of file
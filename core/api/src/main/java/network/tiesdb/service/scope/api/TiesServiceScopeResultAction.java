@@ -18,6 +18,9 @@
  */
 package network.tiesdb.service.scope.api;
 
+import java.util.Collections;
+import java.util.List;
+
 public interface TiesServiceScopeResultAction extends TiesServiceScopeAction {
 
     interface Result {
@@ -34,7 +37,11 @@ public interface TiesServiceScopeResultAction extends TiesServiceScopeAction {
 
         <T> T accept(Result.Visitor<T> v) throws TiesServiceScopeException;
     }
-    
+
     Result getResult();
 
+    default List<Result> getResults() {
+        return Collections.singletonList(getResult());
+    }
+
 }
\ No newline at end of file
@@ -19,6 +19,7 @@
 package network.tiesdb.transport.api;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * TiesDB request API.
@@ -32,4 +33,13 @@ public interface TiesInput {
 
     InputStream getInputStream();
 
+    /**
+     * Returns request content as a buffer view if transport supports it.
+     * 
+     * @return content buffer or null for stream only inputs
+     */
+    default ByteBuffer getByteBuffer() {
+        return null;
+    }
+
 }
\ No newline at end of file
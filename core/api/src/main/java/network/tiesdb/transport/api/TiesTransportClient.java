@@ -36,4 +36,6 @@ public interface TiesTransportClient extends TiesDaemon {
 
     TiesTransportClient check() throws TiesException;
 
+    boolean isConnected();
+
 }
@@ -32,6 +32,8 @@ public class TiesHandlerConfigImpl implements TiesHandlerConfig {
     static final String BINDING = "network.tiesdb.handler.V0R0";
     static final String SHORT_BINDING = "HandlerV0R0";
 
+    private boolean directWriter = false;
+
     public TiesHandlerConfigImpl() {
         // NOP Is not empty config values
     }
@@ -46,4 +48,12 @@ public class TiesHandlerConfigImpl implements TiesHandlerConfig {
         return new TiesHandlerFactoryImpl(this);
     }
 
+    public boolean isDirectWriter() {
+        return directWriter;
+    }
+
+    public void setDirectWriter(boolean directWriter) {
+        this.directWriter = directWriter;
+    }
+
 }
@@ -19,13 +19,16 @@
 package network.tiesdb.handler.impl.v0r0;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.tiesdb.protocol.TiesDBProtocolManager;
+import com.tiesdb.protocol.api.TiesDBChannelBufferInput;
 import com.tiesdb.protocol.api.TiesDBProtocol;
+import com.tiesdb.protocol.api.TiesDBProtocol.TiesDBChannelInput;
 import com.tiesdb.protocol.api.TiesDBProtocolHandler;
 import com.tiesdb.protocol.api.TiesDBProtocolHandlerProvider;
 import com.tiesdb.protocol.api.Version;
@@ -103,7 +106,7 @@ public class TiesHandlerImpl implements TiesHandler, TiesDBProtocolHandler<TiesD
             throw new RuntimeException("No TiesDBProtocols found");
         }
 
-        this.messageController = new MessageController(service);
+        this.messageController = new MessageController(service, config.isDirectWriter());
     };
 
     @Override
@@ -146,7 +149,10 @@ public class TiesHandlerImpl implements TiesHandler, TiesDBProtocolHandler<TiesD
         for (TiesDBProtocol protocol : protocols) {
             try {
                 final StreamOutput po = new StreamOutput(tiesOutput.getOutputStream());
-                final StreamInput pi = new StreamInput(tiesInput.getInputStream());
+                final ByteBuffer buf = tiesInput.getByteBuffer();
+                final TiesDBChannelInput pi = null != buf //
+                        ? new TiesDBChannelBufferInput(buf)
+                        : new StreamInput(tiesInput.getInputStream());
                 LOG.debug("TiesDBProtocol selected {}", protocol);
                 protocol.acceptChannel(pi, po, this);
                 break;
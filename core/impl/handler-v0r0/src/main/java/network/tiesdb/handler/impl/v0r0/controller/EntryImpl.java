@@ -19,6 +19,7 @@
 package network.tiesdb.handler.impl.v0r0.controller;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -65,11 +66,21 @@ class EntryImpl implements TiesEntryExtended {
                         return field.getHash();
                     }
 
+                    @Override
+                    public ByteBuffer getHashBuffer() {
+                        return field.getHashBuffer();
+                    }
+
                     @Override
                     public byte[] getValue() {
                         return field.getRawValue();
                     }
 
+                    @Override
+                    public ByteBuffer getValueBuffer() {
+                        return field.getRawValueBuffer();
+                    }
+
                     @Override
                     public String getName() {
                         return field.getName();
@@ -91,6 +102,11 @@ class EntryImpl implements TiesEntryExtended {
                         return field.getHash();
                     }
 
+                    @Override
+                    public ByteBuffer getHashBuffer() {
+                        return field.getHashBuffer();
+                    }
+
                     @Override
                     public String getName() {
                         return field.getName();
@@ -47,9 +47,9 @@ public class MessageController {
     private final RequestHandler requestController;
     private final ResponseHandler responseController;
 
-    public MessageController(TiesService service) {
+    public MessageController(TiesService service, boolean directWriter) {
         this.messageReader = new MessageReader();
-        this.requestController = new RequestHandler(service, new ResponseWriter());
+        this.requestController = new RequestHandler(service, new ResponseWriter(directWriter));
         this.responseController = new ResponseHandler(service);
     }
 
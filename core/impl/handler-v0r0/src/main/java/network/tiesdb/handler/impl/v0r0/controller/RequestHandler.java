@@ -24,12 +24,14 @@ import static network.tiesdb.util.Hex.UPPERCASE_HEX;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -114,6 +116,20 @@ public class RequestHandler implements Request.Visitor<Response> {
         responseWriter.accept(session, processRequest(request));
     }
 
+    private static RecollectionError convertToRecollectionError(Throwable th) {
+        return new RecollectionError() {
+            @Override
+            public Throwable getError() {
+                return th;
+            }
+
+            @Override
+            public String toString() {
+                return "RecollectionError [" + getError() + "]";
+            }
+        };
+    }
+
     public RecollectionEntry convertToRecollectionResultEntry(RecollectionRequest request, Result.Entry entry) {
         TiesEntryHeader resultHeader = entry.getEntryHeader();
         EntryHeader entryHeader = new EntryHeader() {
@@ -427,13 +443,18 @@ public class RequestHandler implements Request.Visitor<Response> {
             LOG.error("Error handling ModificationRequest {}", request, e);
             throw new TiesDBProtocolMessageException(messageId, "Error handling ModificationRequest", e);
         }
-        LinkedList<TiesServiceScopeModificationAction.Result> results = new LinkedList<>();
-        for (EntryReader.Entry modificationEntry : request.getEntries()) {
+        List<EntryReader.Entry> modificationEntries = new ArrayList<>();
+        request.getEntries().forEach(modificationEntries::add);
+        TiesServiceScopeModificationAction.Result[] entryResults = new TiesServiceScopeModificationAction.Result[modificationEntries.size()];
+        List<TiesServiceScopeModificationAction> actions = new ArrayList<>(modificationEntries.size());
+        for (int i = 0; i < modificationEntries.size(); i++) {
+            int index = i;
+            EntryReader.Entry modificationEntry = modificationEntries.get(i);
             EntryHeaderReader.EntryHeader header = modificationEntry.getHeader();
             if (null == header) {
                 IllegalArgumentException e = new IllegalArgumentException("No header");
                 LOG.error("Error handling ModificationRequest.Entry {}", modificationEntry, e);
-                results.add(new TiesServiceScopeModificationAction.Result.Error() {
+                entryResults[index] = new TiesServiceScopeModificationAction.Result.Error() {
 
                     @Override
                     public Throwable getError() {
@@ -445,107 +466,118 @@ public class RequestHandler implements Request.Visitor<Response> {
                         return EMPTY_ARRAY;
                     }
 
-                });
+                };
                 continue;
             }
-            try {
-                if (null == header.getEntryOldHash() && BigInteger.ONE.equals(header.getEntryVersion())) {
-                    serviceScope.insert(new TiesServiceScopeModificationAction() {
-
-                        private final EntryImpl entry = new EntryImpl(modificationEntry, true);
-
-                        @Override
-                        public TiesEntryExtended getEntry() {
-                            return entry;
-                        }
-
-                        @Override
-                        public ActionConsistency getConsistency() {
-                            return consistency;
-                        }
-
-                        @Override
-                        public BigInteger getMessageId() {
-                            return messageId;
-                        }
-
-                        @Override
-                        public void setResult(Result result) throws TiesServiceScopeException {
-                            results.add(result);
-                        }
+            if (!header.isSignatureValid()) {
+                TiesServiceScopeException e = new TiesServiceScopeException("Header signature check failed");
+                LOG.error("Error handling ModificationRequest.Entry {}", modificationEntry, e);
+                entryResults[index] = new TiesServiceScopeModificationAction.Result.Error() {
 
-                    });
-                } else if (null != header.getEntryOldHash() && BigInteger.ZERO.equals(header.getEntryVersion())) {
-                    serviceScope.delete(new TiesServiceScopeModificationAction() {
+                    @Override
+                    public Throwable getError() {
+                        return e;
+                    }
 
-                        private final EntryImpl entry = new EntryImpl(modificationEntry, false);
+                    @Override
+                    public byte[] getHeaderHash() {
+                        return header.getHash();
+                    }
+                };
+                continue;
+            }
+            TiesServiceScopeModificationAction.Type type;
+            try {
+                type = TiesServiceScopeModificationAction.Type.of(header.getEntryOldHash(), header.getEntryVersion());
+            } catch (TiesServiceScopeException e) {
+                LOG.error("Error handling ModificationRequest.Entry {}", modificationEntry, e);
+                entryResults[index] = new TiesServiceScopeModificationAction.Result.Error() {
 
-                        @Override
-                        public TiesEntryExtended getEntry() {
-                            return entry;
-                        }
+                    @Override
+                    public Throwable getError() {
+                        return e;
+                    }
 
-                        @Override
-                        public ActionConsistency getConsistency() {
-                            return consistency;
-                        }
+                    @Override
+                    public byte[] getHeaderHash() {
+                        return header.getHash();
+                    }
+                };
+                continue;
+            }
+            actions.add(new TiesServiceScopeModificationAction() {
 
-                        @Override
-                        public BigInteger getMessageId() {
-                            return messageId;
-                        }
+                private final EntryImpl entry = new EntryImpl(modificationEntry, type == Type.INSERT);
 
-                        @Override
-                        public void setResult(Result result) throws TiesServiceScopeException {
-                            results.add(result);
-                        }
+                @Override
+                public TiesEntryExtended getEntry() {
+                    return entry;
+                }
 
-                    });
-                } else if (null != header.getEntryOldHash()) {
-                    serviceScope.update(new TiesServiceScopeModificationAction() {
+                @Override
+                public Type getType() {
+                    return type;
+                }
 
-                        private final EntryImpl entry = new EntryImpl(modificationEntry, false);
+                @Override
+                public ActionConsistency getConsistency() {
+                    return consistency;
+                }
 
-                        @Override
-                        public TiesEntryExtended getEntry() {
-                            return entry;
-                        }
+                @Override
+                public BigInteger getMessageId() {
+                    return messageId;
+                }
 
-                        @Override
-                        public ActionConsistency getConsistency() {
-                            return consistency;
-                        }
+                @Override
+                public void setResult(Result result) throws TiesServiceScopeException {
+                    entryResults[index] = result;
+                }
 
-                        @Override
-                        public BigInteger getMessageId() {
-                            return messageId;
-                        }
+            });
+        }
+        if (!actions.isEmpty()) {
+            try {
+                serviceScope.modify(actions);
+            } catch (TiesServiceScopeException e) {
+                LOG.error("Error handling ModificationRequest {}", request, e);
+                for (int i = 0; i < entryResults.length; i++) {
+                    if (null == entryResults[i]) {
+                        byte[] headerHash = modificationEntries.get(i).getHeader().getHash();
+                        entryResults[i] = new TiesServiceScopeModificationAction.Result.Error() {
 
-                        @Override
-                        public void setResult(Result result) throws TiesServiceScopeException {
-                            results.add(result);
-                        }
+                            @Override
+                            public Throwable getError() {
+                                return e;
+                            }
 
-                    });
-                } else {
-                    throw new TiesServiceScopeException("Illegal modification EntryOldHash and/or EntryVersion");
+                            @Override
+                            public byte[] getHeaderHash() {
+                                return headerHash;
+                            }
+                        };
+                    }
                 }
-            } catch (TiesServiceScopeException e) {
-                LOG.error("Error handling ModificationRequest.Entry {}", modificationEntry, e);
-                results.add(new TiesServiceScopeModificationAction.Result.Error() {
+            }
+        }
+        List<TiesServiceScopeModificationAction.Result> results = new ArrayList<>(entryResults.length);
+        for (int i = 0; i < entryResults.length; i++) {
+            if (null == entryResults[i]) {
+                byte[] headerHash = modificationEntries.get(i).getHeader().getHash();
+                entryResults[i] = new TiesServiceScopeModificationAction.Result.Error() {
 
                     @Override
                     public Throwable getError() {
-                        return e;
+                        return new TiesServiceScopeException("No result for modification entry");
                     }
 
                     @Override
                     public byte[] getHeaderHash() {
-                        return modificationEntry.getHeader().getHash();
+                        return headerHash;
                     }
-                });
-                continue;
+                };
             }
+            results.add(entryResults[i]);
         }
         final List<ModificationResult> resultList = Collections.unmodifiableList(results.stream().map(r -> {
             try {
@@ -626,7 +658,7 @@ public class RequestHandler implements Request.Visitor<Response> {
             LOG.error("Error handling RecollectionRequest {}", request, e);
             throw new TiesDBProtocolMessageException(messageId, "Error handling RecollectionRequest", e);
         }
-        List<RecollectionResult> results = new LinkedList<>();
+        AtomicReference<Stream<RecollectionResult>> results = new AtomicReference<>(Stream.empty());
         try {
             serviceScope.select(new TiesServiceScopeRecollectionAction() {
 
@@ -640,7 +672,7 @@ public class RequestHandler implements Request.Visitor<Response> {
                 @Override
                 public void setResult(Result r) throws TiesServiceScopeException {
                     LOG.debug("AddedResult {}", r);
-                    r.accept(new TiesServiceScopeRecollectionAction.Result.Visitor<Stream<RecollectionResult>>() {
+                    results.accumulateAndGet(r.accept(new TiesServiceScopeRecollectionAction.Result.Visitor<Stream<RecollectionResult>>() {
 
                         @Override
                         public Stream<RecollectionResult> on(Success success) throws TiesServiceScopeException {
@@ -649,21 +681,18 @@ public class RequestHandler implements Request.Visitor<Response> {
 
                         @Override
                         public Stream<RecollectionResult> on(Error error) throws TiesServiceScopeException {
-                            return error.getErrors().stream().map(th -> new RecollectionError() {
-                                @Override
-                                public Throwable getError() {
-                                    return th;
-                                }
-
-                                @Override
-                                public String toString() {
-                                    return "RecollectionError [" + getError() + "]";
-                                }
-                            });
+                            return error.getErrors().stream().map(th -> convertToRecollectionError(th));
                         }
 
                         @Override
                         public Stream<RecollectionResult> on(Partial partial) throws TiesServiceScopeException {
+                            if (partial instanceof Streaming) {
+                                // Entries are converted while the response is written, errors are known after them
+                                Streaming streaming = (Streaming) partial;
+                                return Stream.concat(
+                                        streaming.getEntryStream().map(entry -> convertToRecollectionResultEntry(request, entry)),
+                                        Stream.of(streaming).flatMap(s -> s.getErrors().stream().map(th -> convertToRecollectionError(th))));
+                            }
                             if (partial.isSuccess() && !partial.isError()) {
                                 return on((Success) partial);
                             } else if (!partial.isSuccess() && partial.isError()) {
@@ -671,7 +700,7 @@ public class RequestHandler implements Request.Visitor<Response> {
                             }
                             return Stream.concat(on((Success) partial), on((Error) partial));
                         }
-                    }).forEach(results::add);
+                    }), Stream::concat);
 
                 }
 
@@ -696,7 +725,7 @@ public class RequestHandler implements Request.Visitor<Response> {
 
                 @Override
                 public Iterable<RecollectionResult> getResults() {
-                    return results;
+                    return results.get()::iterator;
                 }
 
             };
@@ -712,7 +741,7 @@ public class RequestHandler implements Request.Visitor<Response> {
 
                 @Override
                 public Iterable<RecollectionResult> getResults() {
-                    return results;
+                    return results.get()::iterator;
                 }
 
             };
@@ -756,6 +785,23 @@ public class RequestHandler implements Request.Visitor<Response> {
                 });
                 continue;
             }
+            if (!header.isSignatureValid()) {
+                TiesServiceScopeException e = new TiesServiceScopeException("Header signature check failed");
+                LOG.error("Error handling HealingRequest.Entry {}", healingEntry, e);
+                results.add(new TiesServiceScopeHealingAction.Result.Error() {
+
+                    @Override
+                    public Throwable getError() {
+                        return e;
+                    }
+
+                    @Override
+                    public byte[] getHeaderHash() {
+                        return header.getHash();
+                    }
+                });
+                continue;
+            }
             try {
                 serviceScope.heal(new TiesServiceScopeHealingAction() {
 
@@ -100,52 +100,63 @@ public class ResponseHandler implements Response.Visitor<Void> {
         } catch (TiesServiceScopeException e) {
             throw new TiesDBProtocolException("Response could not be handled", e);
         }
+        List<TiesServiceScopeResultAction.Result> results = new LinkedList<>();
         for (ModificationResult modificationResult : modificationResponse.getModificationResults()) {
-            try {
-                TiesServiceScopeResultAction.Result result = modificationResult
-                        .accept(new ModificationResponseReader.ModificationResult.Visitor<TiesServiceScopeResultAction.Result>() {
-                            @Override
-                            public TiesServiceScopeResultAction.Result on(ModificationResultSuccess modificationResultSuccess) {
-                                return new TiesServiceScopeModificationAction.Result.Success() {
-                                    @Override
-                                    public byte[] getHeaderHash() {
-                                        return modificationResultSuccess.getEntryHeaderHash();
-                                    }
-                                };
-                            }
-
-                            @Override
-                            public TiesServiceScopeResultAction.Result on(ModificationResultError modificationResultError) {
-                                return new TiesServiceScopeModificationAction.Result.Error() {
-
-                                    @Override
-                                    public byte[] getHeaderHash() {
-                                        return modificationResultError.getEntryHeaderHash();
-                                    }
+            results.add(modificationResult
+                    .accept(new ModificationResponseReader.ModificationResult.Visitor<TiesServiceScopeResultAction.Result>() {
+                        @Override
+                        public TiesServiceScopeResultAction.Result on(ModificationResultSuccess modificationResultSuccess) {
+                            return new TiesServiceScopeModificationAction.Result.Success() {
+                                @Override
+                                public byte[] getHeaderHash() {
+                                    return modificationResultSuccess.getEntryHeaderHash();
+                                }
+                            };
+                        }
+
+                        @Override
+                        public TiesServiceScopeResultAction.Result on(ModificationResultError modificationResultError) {
+                            return new TiesServiceScopeModificationAction.Result.Error() {
+
+                                @Override
+                                public byte[] getHeaderHash() {
+                                    return modificationResultError.getEntryHeaderHash();
+                                }
+
+                                @Override
+                                public Throwable getError() {
+                                    return new TiesException(modificationResultError.getMessage());
+                                }
+                            };
+                        }
+                    }));
+        }
+        if (results.isEmpty()) {
+            LOG.warn("No modification results found in response {}", messageId);
+            return null;
+        }
+        List<TiesServiceScopeResultAction.Result> resultList = Collections.unmodifiableList(results);
+        try {
+            serviceScope.result(new TiesServiceScopeResultAction() {
 
-                                    @Override
-                                    public Throwable getError() {
-                                        return new TiesException(modificationResultError.getMessage());
-                                    }
-                                };
-                            }
-                        });
-                serviceScope.result(new TiesServiceScopeResultAction() {
+                @Override
+                public BigInteger getMessageId() {
+                    return messageId;
+                }
 
-                    @Override
-                    public BigInteger getMessageId() {
-                        return messageId;
-                    }
+                @Override
+                public Result getResult() {
+                    return resultList.get(0);
+                }
 
-                    @Override
-                    public Result getResult() {
-                        return result;
-                    }
+                @Override
+                public List<Result> getResults() {
+                    return resultList;
+                }
 
-                });
-            } catch (TiesServiceScopeException e) {
-                throw new TiesDBProtocolException("Response handling failed", e);
-            }
+            });
+        } catch (TiesServiceScopeException e) {
+            throw new TiesDBProtocolException("Response handling failed", e);
         }
         return null;
     }
@@ -22,10 +22,13 @@ import static java.util.stream.StreamSupport.stream;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.UUID;
@@ -38,6 +41,7 @@ import com.tiesdb.protocol.exception.TiesDBProtocolException;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
 import com.tiesdb.protocol.v0r0.ebml.TiesDBRequestConsistency;
 import com.tiesdb.protocol.v0r0.ebml.TiesDBRequestConsistency.ConsistencyType;
+import com.tiesdb.protocol.v0r0.ebml.format.ByteBufferFormat;
 import com.tiesdb.protocol.v0r0.writer.AbstractFunctionWriter.Function;
 import com.tiesdb.protocol.v0r0.writer.AbstractFunctionWriter.Function.Argument;
 import com.tiesdb.protocol.v0r0.writer.ChequeWriter.Cheque;
@@ -72,7 +76,6 @@ import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Query
 import network.tiesdb.service.scope.api.TiesServiceScopeResultAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeSchemaAction;
 import one.utopic.sparse.ebml.EBMLFormat;
-import one.utopic.sparse.ebml.format.BytesFormat;
 
 public class ServiceClientController implements TiesServiceScope {
 
@@ -166,6 +169,62 @@ public class ServiceClientController implements TiesServiceScope {
         }
     }
 
+    @Override
+    public void modify(List<? extends TiesServiceScopeModificationAction> actions) throws TiesServiceScopeException {
+        if (actions.isEmpty()) {
+            return;
+        }
+        TiesServiceScopeModificationAction firstAction = actions.get(0);
+        List<Entry> entries = new ArrayList<>(actions.size());
+        List<byte[]> headerHashes = new ArrayList<>(actions.size());
+        for (TiesServiceScopeModificationAction action : actions) {
+            if (!Objects.equals(firstAction.getMessageId(), action.getMessageId())) {
+                throw new TiesServiceScopeException("Modification actions of a single request should share the same messageId");
+            }
+            TiesEntryExtended entry = action.getEntry();
+            if (null == entry) {
+                throw new TiesServiceScopeException("No entry found in modification request");
+            }
+            TiesEntryHeader entryHeader = entry.getHeader();
+            if (null == entryHeader) {
+                throw new TiesServiceScopeException("No header found in modification request entry");
+            }
+            entries.add(convertForWriting(entry));
+            headerHashes.add(entryHeader.getHash());
+        }
+        try {
+            REQUEST_WRITER_INSTANCE.accept(session, new ModificationRequest() {
+
+                @Override
+                public TiesDBRequestConsistency getConsistency() {
+                    return convertConsistency(firstAction.getConsistency());
+                }
+
+                @Override
+                public Iterable<Entry> getEntries() {
+                    return entries;
+                }
+
+                @Override
+                public BigInteger getMessageId() {
+                    return firstAction.getMessageId();
+                }
+
+            });
+        } catch (TiesDBProtocolException e) {
+            throw new TiesServiceScopeException("Node modification request failed", e);
+        }
+        for (int i = 0; i < actions.size(); i++) {
+            byte[] headerHash = headerHashes.get(i);
+            actions.get(i).setResult(new TiesServiceScopeModificationAction.Result.Success() {
+                @Override
+                public byte[] getHeaderHash() {
+                    return headerHash;
+                }
+            });
+        }
+    }
+
     @Override
     public void select(TiesServiceScopeRecollectionAction action) throws TiesServiceScopeException {
         Query query = action.getQuery();
@@ -394,7 +453,7 @@ public class ServiceClientController implements TiesServiceScope {
 
                             }), //
                     stream(Spliterators.spliteratorUnknownSize(entry.getFieldValues().values().iterator(), Spliterator.ORDERED), true) //
-                            .map(f -> new Field.ValueField<byte[]>() {
+                            .map(f -> new Field.ValueField<ByteBuffer>() {
 
                                 @Override
                                 public String getName() {
@@ -407,13 +466,13 @@ public class ServiceClientController implements TiesServiceScope {
                                 }
 
                                 @Override
-                                public EBMLFormat<byte[]> getFormat() {
-                                    return BytesFormat.INSTANCE;
+                                public EBMLFormat<ByteBuffer> getFormat() {
+                                    return ByteBufferFormat.INSTANCE;
                                 }
 
                                 @Override
-                                public byte[] getValue() {
-                                    return f.getValue();
+                                public ByteBuffer getValue() {
+                                    return f.getValueBuffer();
                                 }
                             })) //
                     .sorted((a, b) -> a.getName().compareTo(b.getName())) //
@@ -25,8 +25,11 @@ import com.tiesdb.protocol.api.TiesDBProtocol.TiesDBChannelInput;
 
 public class StreamInput implements TiesDBChannelInput {
 
+    private static final int NONE = -2;
+
     private final InputStream is;
     private volatile boolean isClosed = false;
+    private int lookahead = NONE;
 
     public StreamInput(InputStream is) {
         this.is = is;
@@ -37,28 +40,40 @@ public class StreamInput implements TiesDBChannelInput {
         if (isClosed) {
             return true;
         }
-        try {
-            is.mark(1);
-            return is.read() == -1;
-        } catch (IOException e) {
-            return true;
-        } finally {
+        if (NONE == lookahead) {
             try {
-                is.reset();
+                lookahead = is.read();
             } catch (IOException e) {
                 return true;
             }
         }
+        return -1 == lookahead;
     }
 
     @Override
     public byte readByte() throws IOException {
+        if (NONE != lookahead) {
+            int b = lookahead;
+            lookahead = -1 == b ? -1 : NONE;
+            return (byte) b;
+        }
         return (byte) is.read();
     }
 
     @Override
     public int skip(int byteCount) throws IOException {
-        return (int) is.skip(byteCount);
+        if (byteCount <= 0) {
+            return 0;
+        }
+        int count = 0;
+        if (NONE != lookahead) {
+            if (-1 == lookahead) {
+                return 0;
+            }
+            lookahead = NONE;
+            count++;
+        }
+        return count + (int) is.skip(byteCount - count);
     }
 
     @Override
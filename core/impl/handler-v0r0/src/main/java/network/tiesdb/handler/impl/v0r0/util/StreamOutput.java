@@ -46,6 +46,14 @@ public class StreamOutput implements TiesDBChannelOutput {
         bos.write(b);
     }
 
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException {
+        if (isFinished()) {
+            throw new EOFException();
+        }
+        bos.write(buf, off, len);
+    }
+
     @Override
     public void flush() throws IOException {
         bos.flush();
@@ -32,6 +32,7 @@ public class TiesSchemaConfigImpl implements TiesSchemaConfig, TiesSchemaEthereu
     private String web3ProviderEndpointUrl;
     private String tiesDBContractAddress;
     private String tiesDBNodeAddress;
+    private String snapshotPath;
 
     public void setTiesDBContractAddress(String tiesDBContractAddress) {
         this.tiesDBContractAddress = tiesDBContractAddress;
@@ -45,6 +46,10 @@ public class TiesSchemaConfigImpl implements TiesSchemaConfig, TiesSchemaEthereu
         this.tiesDBNodeAddress = tiesDBNodeAddress;
     }
 
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
     public void setContractAddress(String tiesDBContractAddress) {
         this.setTiesDBContractAddress(tiesDBContractAddress);
     }
@@ -86,4 +91,9 @@ public class TiesSchemaConfigImpl implements TiesSchemaConfig, TiesSchemaEthereu
         return tiesDBNodeAddress;
     }
 
+    @Override
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
 }
@@ -18,29 +18,31 @@
  */
 package network.tiesdb.schema.impl.ethereum.impl;
 
-import com.tiesdb.schema.api.Field;
-
 import network.tiesdb.schema.api.TiesSchema;
 
 public class FieldImpl implements TiesSchema.Field {
 
-    private final Field f;
-
-    FieldImpl(Field f) {
-        this.f = f;
-    }
+    private final String name;
+    private final String type;
 
-    public static TiesSchema.Field newInstance(Field field) {
-        return null == field ? null : new FieldImpl(field);
+    FieldImpl(String name, String type) {
+        this.name = name;
+        this.type = type;
     }
 
     @Override
     public String getName() {
-        return f.getName();
+        return name;
     }
 
     @Override
     public String getType() {
-        return f.getType();
+        return type;
     }
+
+    @Override
+    public String toString() {
+        return "FieldImpl [name=" + name + ", type=" + type + "]";
+    }
+
 }
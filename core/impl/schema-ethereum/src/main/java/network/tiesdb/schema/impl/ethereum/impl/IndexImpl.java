@@ -18,34 +18,24 @@
  */
 package network.tiesdb.schema.impl.ethereum.impl;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import com.tiesdb.schema.api.Index;
 
 import network.tiesdb.schema.api.TiesSchema;
 import network.tiesdb.schema.api.TiesSchema.IndexType;
 
 public class IndexImpl implements TiesSchema.Index {
 
-    private final Index i;
-
-    IndexImpl(Index i) {
-        this.i = i;
-    }
-
-    public static TiesSchema.Index newInstance(Index index) {
-        return null == index ? null : new IndexImpl(index);
-    }
+    private final IndexType type;
+    private final List<TiesSchema.Field> fields;
 
-    @Override
-    public List<TiesSchema.Field> getFields() {
-        return i.getFields().values().stream().map(FieldImpl::newInstance).collect(Collectors.toList());
+    IndexImpl(IndexType type, List<TiesSchema.Field> fields) {
+        this.type = type;
+        this.fields = Collections.unmodifiableList(fields);
     }
 
-    @Override
-    public IndexType getType() {
-        switch (i.getType()) {
+    static IndexType getType(int contractType) {
+        switch (contractType) {
         case 1:
             return IndexType.PRIMARY;
         case 2:
@@ -53,8 +43,23 @@ public class IndexImpl implements TiesSchema.Index {
         case 4:
             return IndexType.EXTERNAL;
         default:
-            throw new IllegalArgumentException("Unknown TiesDB contract IndexType value " + i.getType());
+            throw new IllegalArgumentException("Unknown TiesDB contract IndexType value " + contractType);
         }
     }
 
+    @Override
+    public List<TiesSchema.Field> getFields() {
+        return fields;
+    }
+
+    @Override
+    public IndexType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexImpl [type=" + type + ", fields=" + fields + "]";
+    }
+
 }
@@ -0,0 +1,197 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.schema.impl.ethereum.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.protocol.http.HttpService;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Sends contract calls as JSON-RPC batch requests.
+ * 
+ * <P>
+ * Calls are split into batches of bounded size, and only a bounded number of
+ * batches is in flight at once, so a large schema costs a few round trips
+ * without flooding the endpoint.
+ */
+final class JsonRpcBatchClient {
+
+    static final int DEFAULT_BATCH_SIZE = 100;
+    static final int DEFAULT_CONCURRENCY = 4;
+
+    private static final String BLOCK = "latest";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String url;
+    private final OkHttpClient httpClient;
+    private final int batchSize;
+    private final int concurrency;
+
+    JsonRpcBatchClient(String url, OkHttpClient httpClient) {
+        this(url, httpClient, DEFAULT_BATCH_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    JsonRpcBatchClient(String url, OkHttpClient httpClient, int batchSize, int concurrency) {
+        if (batchSize < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Batch size and concurrency should be positive");
+        }
+        this.url = url;
+        this.httpClient = httpClient;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Calls the contract functions.
+     * 
+     * @return decoded outputs of the functions in the order of the functions
+     */
+    List<List<Type>> call(String contractAddress, List<Function> functions) throws IOException {
+        if (functions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String[] results = new String[functions.size()];
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        Semaphore permits = new Semaphore(concurrency);
+        try {
+            for (int from = 0; from < functions.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, functions.size());
+                String payload = getPayload(contractAddress, functions, from, to);
+                permits.acquire();
+                CompletableFuture<Void> batch = new CompletableFuture<>();
+                batch.whenComplete((v, e) -> permits.release());
+                batches.add(batch);
+                post(payload, results, from, to, batch);
+            }
+            for (CompletableFuture<Void> batch : batches) {
+                batch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batches.forEach(b -> b.cancel(true));
+            throw new InterruptedIOException("Contract calls were interrupted");
+        } catch (ExecutionException e) {
+            batches.forEach(b -> b.cancel(true));
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException("Contract calls failed", cause);
+        }
+        List<List<Type>> outputs = new ArrayList<>(functions.size());
+        for (int i = 0; i < results.length; i++) {
+            Function function = functions.get(i);
+            @SuppressWarnings("rawtypes")
+            List<Type> output = FunctionReturnDecoder.decode(results[i], function.getOutputParameters());
+            if (output.size() != function.getOutputParameters().size()) {
+                throw new IOException("Unexpected result of " + function.getName() + ": " + results[i]);
+            }
+            outputs.add(output);
+        }
+        return outputs;
+    }
+
+    private String getPayload(String contractAddress, List<Function> functions, int from, int to) {
+        ArrayNode payload = mapper.createArrayNode();
+        for (int i = from; i < to; i++) {
+            ObjectNode request = payload.addObject();
+            request.put("jsonrpc", "2.0");
+            request.put("id", i);
+            request.put("method", "eth_call");
+            ArrayNode params = request.putArray("params");
+            params.addObject() //
+                    .put("to", contractAddress) //
+                    .put("data", FunctionEncoder.encode(functions.get(i)));
+            params.add(BLOCK);
+        }
+        return payload.toString();
+    }
+
+    private void post(String payload, String[] results, int from, int to, CompletableFuture<Void> batch) {
+        Request request = new Request.Builder() //
+                .url(url) //
+                .post(RequestBody.create(HttpService.JSON_MEDIA_TYPE, payload)) //
+                .build();
+        httpClient.newCall(request).enqueue(new Callback() {
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                batch.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful()) {
+                        throw new IOException("Batch request failed with HTTP " + response.code() + " " + response.message());
+                    }
+                    read(mapper.readTree(body.byteStream()), results, from, to);
+                    batch.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    batch.completeExceptionally(e);
+                }
+            }
+
+        });
+    }
+
+    private static void read(JsonNode responses, String[] results, int from, int to) throws IOException {
+        if (!responses.isArray()) {
+            throw new IOException("Batch request failed: " + responses.path("error"));
+        }
+        for (JsonNode response : responses) {
+            int id = response.path("id").asInt(-1);
+            if (id < from || id >= to) {
+                throw new IOException("Unexpected batch response id " + response.path("id"));
+            }
+            if (response.hasNonNull("error")) {
+                throw new IOException("Contract call error: " + response.get("error"));
+            }
+            results[id] = response.path("result").asText();
+        }
+        for (int i = from; i < to; i++) {
+            if (null == results[i]) {
+                throw new IOException("No batch response for request " + i);
+            }
+        }
+    }
+
+}
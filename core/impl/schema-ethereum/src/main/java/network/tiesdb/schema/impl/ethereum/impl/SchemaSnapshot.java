@@ -0,0 +1,251 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.schema.impl.ethereum.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import network.tiesdb.schema.api.TiesSchema;
+import network.tiesdb.schema.api.TiesSchema.IndexType;
+import network.tiesdb.schema.impl.ethereum.impl.TableImpl.RangeImpl;
+
+/**
+ * Immutable state of the schema contract as of the block it was read at.
+ * 
+ * <P>
+ * Only tablespaces which were requested are kept, the rest are known by id.
+ */
+final class SchemaSnapshot {
+
+    private static final int MAGIC = 0x54534353; // TSCS
+    private static final int FORMAT_VERSION = 1;
+
+    private final String contractAddress;
+    private final long blockNumber;
+    private final Set<ByteBuffer> tablespaceIds;
+    private final Map<String, TablespaceImpl> tablespaces;
+
+    SchemaSnapshot(String contractAddress, long blockNumber, Set<ByteBuffer> tablespaceIds, Map<String, TablespaceImpl> tablespaces) {
+        this.contractAddress = TableImpl.normalizeAddress(contractAddress);
+        this.blockNumber = blockNumber;
+        this.tablespaceIds = Collections.unmodifiableSet(tablespaceIds);
+        this.tablespaces = Collections.unmodifiableMap(tablespaces);
+    }
+
+    String getContractAddress() {
+        return contractAddress;
+    }
+
+    long getBlockNumber() {
+        return blockNumber;
+    }
+
+    boolean hasTablespace(byte[] id) {
+        return tablespaceIds.contains(ByteBuffer.wrap(id));
+    }
+
+    TablespaceImpl getTablespace(String name) {
+        return tablespaces.get(name);
+    }
+
+    Collection<TablespaceImpl> getTablespaces() {
+        return tablespaces.values();
+    }
+
+    /**
+     * Unchanged tables are kept as the same instances by the loader, so tables
+     * are compared by instance.
+     * 
+     * @return true if the snapshots know the same tablespaces and have the same
+     *         tables
+     */
+    boolean hasSameTables(SchemaSnapshot other) {
+        if (!tablespaceIds.equals(other.tablespaceIds) || !tablespaces.keySet().equals(other.tablespaces.keySet())) {
+            return false;
+        }
+        for (TablespaceImpl tablespace : tablespaces.values()) {
+            Map<String, TableImpl> tables = tablespace.getTables();
+            Map<String, TableImpl> otherTables = other.tablespaces.get(tablespace.getName()).getTables();
+            if (!tables.keySet().equals(otherTables.keySet())) {
+                return false;
+            }
+            for (Map.Entry<String, TableImpl> table : tables.entrySet()) {
+                if (table.getValue() != otherTables.get(table.getKey())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    SchemaSnapshot withTablespace(TablespaceImpl tablespace) {
+        Map<String, TablespaceImpl> updated = new HashMap<>(tablespaces);
+        updated.put(tablespace.getName(), tablespace);
+        return new SchemaSnapshot(contractAddress, blockNumber, tablespaceIds, updated);
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(contractAddress);
+        out.writeLong(blockNumber);
+        out.writeInt(tablespaceIds.size());
+        for (ByteBuffer id : tablespaceIds) {
+            writeBytes(out, id.array());
+        }
+        out.writeInt(tablespaces.size());
+        for (TablespaceImpl tablespace : tablespaces.values()) {
+            writeBytes(out, tablespace.getId());
+            out.writeUTF(tablespace.getName());
+            out.writeInt(tablespace.getTables().size());
+            for (TableImpl table : tablespace.getTables().values()) {
+                writeTable(out, table);
+            }
+        }
+    }
+
+    private static void writeTable(DataOutput out, TableImpl table) throws IOException {
+        writeBytes(out, table.getId());
+        writeBytes(out, table.getState());
+        out.writeUTF(table.getName());
+        out.writeInt(table.getReplicationFactor());
+        out.writeInt(table.getRangesCount());
+        out.writeInt(table.getFields().size());
+        for (FieldImpl field : table.getFields().values()) {
+            out.writeUTF(field.getName());
+            out.writeUTF(field.getType());
+        }
+        out.writeInt(table.getIndexList().size());
+        for (IndexImpl index : table.getIndexList()) {
+            out.writeByte(index.getType().ordinal());
+            out.writeInt(index.getFields().size());
+            for (TiesSchema.Field field : index.getFields()) {
+                out.writeUTF(field.getName());
+            }
+        }
+        out.writeInt(table.getNodeRangeMap().size());
+        for (Map.Entry<String, Set<RangeImpl>> node : table.getNodeRangeMap().entrySet()) {
+            out.writeUTF(node.getKey());
+            out.writeInt(node.getValue().size());
+            for (RangeImpl range : node.getValue()) {
+                out.writeInt(range.getBase());
+                out.writeInt(range.getIndex());
+            }
+        }
+    }
+
+    static SchemaSnapshot read(DataInput in) throws IOException {
+        if (MAGIC != in.readInt()) {
+            throw new IOException("Not a schema snapshot");
+        }
+        int version = in.readInt();
+        if (FORMAT_VERSION != version) {
+            throw new IOException("Unsupported schema snapshot version " + version);
+        }
+        String contractAddress = in.readUTF();
+        long blockNumber = in.readLong();
+        Set<ByteBuffer> tablespaceIds = new HashSet<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            tablespaceIds.add(ByteBuffer.wrap(readBytes(in)));
+        }
+        Map<String, TablespaceImpl> tablespaces = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            byte[] id = readBytes(in);
+            String name = in.readUTF();
+            Map<String, TableImpl> tables = new LinkedHashMap<>();
+            for (int j = in.readInt(); j > 0; j--) {
+                TableImpl table = readTable(in);
+                tables.put(table.getName(), table);
+            }
+            tablespaces.put(name, new TablespaceImpl(id, name, tables));
+        }
+        return new SchemaSnapshot(contractAddress, blockNumber, tablespaceIds, tablespaces);
+    }
+
+    private static TableImpl readTable(DataInput in) throws IOException {
+        byte[] id = readBytes(in);
+        byte[] state = readBytes(in);
+        String name = in.readUTF();
+        int replicationFactor = in.readInt();
+        int rangesCount = in.readInt();
+        Map<String, FieldImpl> fields = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            FieldImpl field = new FieldImpl(in.readUTF(), in.readUTF());
+            fields.put(field.getName(), field);
+        }
+        IndexType[] indexTypes = IndexType.values();
+        List<IndexImpl> indexes = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            int type = in.readUnsignedByte();
+            if (type >= indexTypes.length) {
+                throw new IOException("Unknown index type " + type + " in table " + name);
+            }
+            List<TiesSchema.Field> indexFields = new ArrayList<>();
+            for (int j = in.readInt(); j > 0; j--) {
+                String fieldName = in.readUTF();
+                FieldImpl field = fields.get(fieldName);
+                if (null == field) {
+                    throw new IOException("Index field " + fieldName + " was not found in table " + name);
+                }
+                indexFields.add(field);
+            }
+            indexes.add(new IndexImpl(indexTypes[type], indexFields));
+        }
+        Map<String, Set<RangeImpl>> nodeRanges = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String address = in.readUTF();
+            Set<RangeImpl> ranges = new LinkedHashSet<>();
+            for (int j = in.readInt(); j > 0; j--) {
+                ranges.add(new RangeImpl(in.readInt(), in.readInt()));
+            }
+            nodeRanges.put(address, ranges);
+        }
+        return new TableImpl(id, state, name, fields, indexes, nodeRanges, replicationFactor, rangesCount);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaSnapshot [contractAddress=" + contractAddress + ", blockNumber=" + blockNumber + ", tablespaces="
+                + tablespaces.keySet() + "]";
+    }
+
+}
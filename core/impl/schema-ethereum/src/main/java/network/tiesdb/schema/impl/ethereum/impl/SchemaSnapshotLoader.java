@@ -0,0 +1,381 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.schema.impl.ethereum.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint32;
+import org.web3j.abi.datatypes.generated.Uint64;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+
+import network.tiesdb.schema.api.TiesSchema;
+import network.tiesdb.schema.impl.ethereum.impl.TableImpl.RangeImpl;
+
+/**
+ * Reads schema contract state into snapshot items.
+ * 
+ * <P>
+ * Contract calls are sent in batches, one round for tablespace records, one for
+ * table records, one for node ranges of all the tables and one for fields and
+ * indexes of changed tables. A table record lists ids of all the table fields,
+ * indexes and nodes, so fields and indexes of a table are only read again if
+ * the digest of its record and node ranges has changed.
+ */
+final class SchemaSnapshotLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaSnapshotLoader.class);
+
+    private static final BigInteger RANGE_DIVIDER = BigInteger.valueOf(0x100000000L);
+
+    private static final class TableRecord {
+
+        private final byte[] id;
+        private final String name;
+        private final String tablespaceName;
+        private final List<byte[]> fieldIds;
+        private final List<byte[]> indexIds;
+        private final int replicationFactor;
+        private final int rangesCount;
+        private final List<String> nodeAddresses;
+        private final byte[] record;
+
+        private Map<String, Set<RangeImpl>> nodeRanges;
+        private byte[] state;
+
+        private TableRecord(byte[] id, List<Type> output) throws IOException {
+            this.id = id;
+            this.name = string(output.get(0));
+            this.tablespaceName = string(output.get(1));
+            this.fieldIds = ids(output.get(2));
+            List<byte[]> triggerIds = ids(output.get(3));
+            this.indexIds = ids(output.get(4));
+            this.replicationFactor = number(output.get(5)).intValue();
+            this.rangesCount = number(output.get(6)).intValue();
+            this.nodeAddresses = addresses(output.get(7));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(name);
+                out.writeUTF(tablespaceName);
+                writeIds(out, fieldIds);
+                writeIds(out, triggerIds);
+                writeIds(out, indexIds);
+                out.writeLong(number(output.get(5)).longValue());
+                out.writeLong(number(output.get(6)).longValue());
+                out.writeInt(nodeAddresses.size());
+                for (String address : nodeAddresses) {
+                    out.writeUTF(address.toLowerCase());
+                }
+            }
+            this.record = bytes.toByteArray();
+        }
+
+        private void setNodeRanges(Map<String, Set<RangeImpl>> nodeRanges) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.write(record);
+                for (Set<RangeImpl> ranges : nodeRanges.values()) {
+                    out.writeInt(ranges.size());
+                    for (RangeImpl range : ranges) {
+                        out.writeInt(range.getBase());
+                        out.writeInt(range.getIndex());
+                    }
+                }
+            }
+            this.nodeRanges = nodeRanges;
+            this.state = Hash.sha3(bytes.toByteArray());
+        }
+
+    }
+
+    private final Web3j web3j;
+    private final String contractAddress;
+    private final JsonRpcBatchClient client;
+
+    SchemaSnapshotLoader(Web3j web3j, String contractAddress, JsonRpcBatchClient client) {
+        this.web3j = web3j;
+        this.contractAddress = contractAddress;
+        this.client = client;
+    }
+
+    long getBlockNumber() throws IOException {
+        EthBlockNumber blockNumber = web3j.ethBlockNumber().send();
+        if (blockNumber.hasError()) {
+            throw new IOException("Block number request error: " + blockNumber.getError().getMessage());
+        }
+        return blockNumber.getBlockNumber().longValueExact();
+    }
+
+    Set<ByteBuffer> loadTablespaceIds() throws IOException {
+        List<Type> storage = client.call(contractAddress, Collections.singletonList(getStorage())).get(0);
+        Set<ByteBuffer> ids = new HashSet<>();
+        for (byte[] id : ids(storage.get(0))) {
+            ids.add(ByteBuffer.wrap(id));
+        }
+        return ids;
+    }
+
+    /**
+     * @param cached
+     *            previous state of the tablespace to reuse unchanged tables of,
+     *            or null
+     */
+    TablespaceImpl loadTablespace(byte[] id, TablespaceImpl cached) throws IOException {
+        Map<ByteBuffer, TablespaceImpl> cachedTablespaces = new HashMap<>();
+        if (null != cached) {
+            cachedTablespaces.put(ByteBuffer.wrap(id), cached);
+        }
+        return loadTablespaces(Collections.singletonList(id), cachedTablespaces).get(0);
+    }
+
+    /**
+     * @param cached
+     *            previous states of the tablespaces by id to reuse unchanged
+     *            tables of
+     * @return tablespaces in the order of ids
+     */
+    List<TablespaceImpl> loadTablespaces(Collection<byte[]> ids, Map<ByteBuffer, TablespaceImpl> cached) throws IOException {
+        List<Function> tablespaceCalls = new ArrayList<>(ids.size());
+        for (byte[] id : ids) {
+            tablespaceCalls.add(getTablespace(id));
+        }
+        List<List<Type>> tablespaceRecords = client.call(contractAddress, tablespaceCalls);
+
+        Map<ByteBuffer, TableImpl> cachedTables = new HashMap<>();
+        for (TablespaceImpl tablespace : cached.values()) {
+            tablespace.getTables().values().forEach(t -> cachedTables.put(ByteBuffer.wrap(t.getId()), t));
+        }
+
+        List<byte[]> tableIds = new ArrayList<>();
+        List<Function> tableCalls = new ArrayList<>();
+        for (List<Type> tablespaceRecord : tablespaceRecords) {
+            for (byte[] tableId : ids(tablespaceRecord.get(2))) {
+                tableIds.add(tableId);
+                tableCalls.add(getTable(tableId));
+            }
+        }
+        List<List<Type>> tableOutputs = client.call(contractAddress, tableCalls);
+
+        List<TableRecord> records = new ArrayList<>(tableIds.size());
+        List<Function> rangeCalls = new ArrayList<>();
+        for (int i = 0; i < tableIds.size(); i++) {
+            TableRecord record = new TableRecord(tableIds.get(i), tableOutputs.get(i));
+            for (String address : record.nodeAddresses) {
+                rangeCalls.add(getNodeTableRanges(address, record.id));
+            }
+            records.add(record);
+        }
+        List<List<Type>> rangeOutputs = client.call(contractAddress, rangeCalls);
+        int rangeCall = 0;
+        for (TableRecord record : records) {
+            Map<String, Set<RangeImpl>> nodeRanges = new LinkedHashMap<>();
+            for (String address : record.nodeAddresses) {
+                Set<RangeImpl> ranges = new LinkedHashSet<>();
+                for (Type value : list(rangeOutputs.get(rangeCall++).get(0))) {
+                    BigInteger[] range = number(value).divideAndRemainder(RANGE_DIVIDER);
+                    ranges.add(new RangeImpl(range[0].intValueExact(), range[1].intValueExact()));
+                }
+                nodeRanges.put(TableImpl.normalizeAddress(address), ranges);
+            }
+            record.setNodeRanges(nodeRanges);
+        }
+
+        Map<ByteBuffer, TableImpl> tables = new HashMap<>();
+        List<TableRecord> changed = new ArrayList<>();
+        for (TableRecord record : records) {
+            TableImpl table = cachedTables.get(ByteBuffer.wrap(record.id));
+            if (null != table && Arrays.equals(record.state, table.getState())) {
+                tables.put(ByteBuffer.wrap(record.id), table);
+            } else {
+                LOG.debug("Loading table `{}`.`{}`", record.tablespaceName, record.name);
+                changed.add(record);
+            }
+        }
+        for (TableImpl table : loadTables(changed)) {
+            tables.put(ByteBuffer.wrap(table.getId()), table);
+        }
+
+        List<TablespaceImpl> tablespaces = new ArrayList<>(ids.size());
+        int i = 0;
+        for (byte[] id : ids) {
+            List<Type> tablespaceRecord = tablespaceRecords.get(i++);
+            Map<String, TableImpl> tablespaceTables = new LinkedHashMap<>();
+            for (byte[] tableId : ids(tablespaceRecord.get(2))) {
+                TableImpl table = tables.get(ByteBuffer.wrap(tableId));
+                tablespaceTables.put(table.getName(), table);
+            }
+            tablespaces.add(new TablespaceImpl(id, string(tablespaceRecord.get(0)), tablespaceTables));
+        }
+        return tablespaces;
+    }
+
+    private List<TableImpl> loadTables(List<TableRecord> records) throws IOException {
+        List<Function> calls = new ArrayList<>();
+        for (TableRecord record : records) {
+            for (byte[] fieldId : record.fieldIds) {
+                calls.add(getField(record.id, fieldId));
+            }
+            for (byte[] indexId : record.indexIds) {
+                calls.add(getIndex(record.id, indexId));
+            }
+        }
+        List<List<Type>> outputs = client.call(contractAddress, calls);
+
+        List<TableImpl> tables = new ArrayList<>(records.size());
+        int call = 0;
+        for (TableRecord record : records) {
+            Map<ByteBuffer, FieldImpl> fieldsById = new HashMap<>();
+            Map<String, FieldImpl> fields = new LinkedHashMap<>();
+            for (byte[] fieldId : record.fieldIds) {
+                List<Type> output = outputs.get(call++);
+                FieldImpl field = new FieldImpl(string(output.get(0)), string(output.get(1)));
+                fieldsById.put(ByteBuffer.wrap(fieldId), field);
+                fields.put(field.getName(), field);
+            }
+
+            List<IndexImpl> indexes = new ArrayList<>();
+            for (int i = 0; i < record.indexIds.size(); i++) {
+                List<Type> output = outputs.get(call++);
+                List<TiesSchema.Field> indexFields = new ArrayList<>();
+                for (byte[] fieldId : ids(output.get(2))) {
+                    FieldImpl field = fieldsById.get(ByteBuffer.wrap(fieldId));
+                    if (null == field) {
+                        throw new IOException("Index field is not contained in the table! Index name: " + string(output.get(0))
+                                + "; table name: " + record.tablespaceName + "." + record.name);
+                    }
+                    indexFields.add(field);
+                }
+                indexes.add(new IndexImpl(IndexImpl.getType(number(output.get(1)).intValue()), indexFields));
+            }
+
+            tables.add(new TableImpl(record.id, record.state, record.name, fields, indexes, record.nodeRanges, record.replicationFactor,
+                    record.rangesCount));
+        }
+        return tables;
+    }
+
+    private static Function getStorage() {
+        return new Function("getStorage", //
+                Collections.emptyList(), //
+                Arrays.<TypeReference<?>>asList(new TypeReference<DynamicArray<Bytes32>>() {}, new TypeReference<DynamicArray<Address>>() {}));
+    }
+
+    private static Function getTablespace(byte[] tsKey) {
+        return new Function("getTablespace", //
+                Arrays.<Type>asList(new Bytes32(tsKey)), //
+                Arrays.<TypeReference<?>>asList(new TypeReference<Utf8String>() {}, new TypeReference<Address>() {},
+                        new TypeReference<DynamicArray<Bytes32>>() {}));
+    }
+
+    private static Function getTable(byte[] tKey) {
+        return new Function("getTable", //
+                Arrays.<Type>asList(new Bytes32(tKey)), //
+                Arrays.<TypeReference<?>>asList(new TypeReference<Utf8String>() {}, new TypeReference<Utf8String>() {},
+                        new TypeReference<DynamicArray<Bytes32>>() {}, new TypeReference<DynamicArray<Bytes32>>() {},
+                        new TypeReference<DynamicArray<Bytes32>>() {}, new TypeReference<Uint32>() {}, new TypeReference<Uint32>() {},
+                        new TypeReference<DynamicArray<Address>>() {}));
+    }
+
+    private static Function getField(byte[] tKey, byte[] fKey) {
+        return new Function("getField", //
+                Arrays.<Type>asList(new Bytes32(tKey), new Bytes32(fKey)), //
+                Arrays.<TypeReference<?>>asList(new TypeReference<Utf8String>() {}, new TypeReference<Utf8String>() {},
+                        new TypeReference<DynamicBytes>() {}));
+    }
+
+    private static Function getIndex(byte[] tKey, byte[] iKey) {
+        return new Function("getIndex", //
+                Arrays.<Type>asList(new Bytes32(tKey), new Bytes32(iKey)), //
+                Arrays.<TypeReference<?>>asList(new TypeReference<Utf8String>() {}, new TypeReference<Uint8>() {},
+                        new TypeReference<DynamicArray<Bytes32>>() {}));
+    }
+
+    private static Function getNodeTableRanges(String node, byte[] tKey) {
+        return new Function("getNodeTableRanges", //
+                Arrays.<Type>asList(new Address(node), new Bytes32(tKey)), //
+                Arrays.<TypeReference<?>>asList(new TypeReference<DynamicArray<Uint64>>() {}));
+    }
+
+    private static String string(Type value) {
+        return ((Utf8String) value).getValue();
+    }
+
+    private static BigInteger number(Type value) {
+        return (BigInteger) value.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Type> list(Type value) {
+        return ((DynamicArray<Type>) value).getValue();
+    }
+
+    private static List<byte[]> ids(Type value) {
+        List<Type> values = list(value);
+        List<byte[]> ids = new ArrayList<>(values.size());
+        for (Type id : values) {
+            ids.add(((Bytes32) id).getValue());
+        }
+        return ids;
+    }
+
+    private static List<String> addresses(Type value) {
+        List<Type> values = list(value);
+        List<String> addresses = new ArrayList<>(values.size());
+        for (Type address : values) {
+            addresses.add(address.toString());
+        }
+        return addresses;
+    }
+
+    private static void writeIds(DataOutputStream out, List<byte[]> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (byte[] id : ids) {
+            out.write(id);
+        }
+    }
+
+}
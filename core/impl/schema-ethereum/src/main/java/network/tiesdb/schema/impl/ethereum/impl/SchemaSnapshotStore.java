@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.schema.impl.ethereum.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.utils.Numeric;
+
+/**
+ * Keeps the schema snapshot of a contract in a file named after the contract
+ * address.
+ * 
+ * <P>
+ * Failures are logged and never propagated, so a missing or broken snapshot
+ * only costs a full schema load.
+ */
+final class SchemaSnapshotStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaSnapshotStore.class);
+
+    private static final String SNAPSHOT_SUFFIX = ".schema";
+
+    private final Path file;
+    private final String contractAddress;
+
+    SchemaSnapshotStore(Path directory, String contractAddress) {
+        this.contractAddress = TableImpl.normalizeAddress(contractAddress);
+        this.file = directory.toAbsolutePath().resolve(Numeric.cleanHexPrefix(this.contractAddress) + SNAPSHOT_SUFFIX);
+    }
+
+    SchemaSnapshot load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            SchemaSnapshot snapshot = SchemaSnapshot.read(in);
+            if (!contractAddress.equals(snapshot.getContractAddress())) {
+                LOG.warn("Schema snapshot {} belongs to another contract {}", file, snapshot.getContractAddress());
+                return null;
+            }
+            LOG.debug("Schema snapshot loaded: {}", snapshot);
+            return snapshot;
+        } catch (NoSuchFileException e) {
+            LOG.debug("No schema snapshot found at {}", file);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Schema snapshot {} could not be loaded", file, e);
+        }
+        return null;
+    }
+
+    void store(SchemaSnapshot snapshot) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                snapshot.write(out);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOG.debug("Schema snapshot stored: {}", snapshot);
+        } catch (IOException e) {
+            LOG.warn("Schema snapshot {} could not be stored", file, e);
+            if (null != tmp) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ex) {
+                    LOG.trace("Temporary schema snapshot {} was not deleted", tmp, ex);
+                }
+            }
+        }
+    }
+
+}
@@ -18,11 +18,13 @@
  */
 package network.tiesdb.schema.impl.ethereum.impl;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
 
-import com.tiesdb.schema.api.Table;
 import com.tiesdb.schema.impl.AddressImpl;
 
 import network.tiesdb.schema.api.TiesSchema;
@@ -32,66 +34,147 @@ import network.tiesdb.schema.api.TiesSchema.Range;
 
 public class TableImpl implements TiesSchema.Table {
 
-    private final Table t;
+    static final class RangeImpl implements Range {
+
+        private final int base;
+        private final int index;
+
+        RangeImpl(int base, int index) {
+            this.base = base;
+            this.index = index;
+        }
+
+        @Override
+        public int getBase() {
+            return base;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * base + index;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof RangeImpl))
+                return false;
+            RangeImpl other = (RangeImpl) obj;
+            return base == other.base && index == other.index;
+        }
+
+        @Override
+        public String toString() {
+            return "RangeImpl [base=" + base + ", index=" + index + "]";
+        }
 
-    TableImpl(Table table) {
-        this.t = table;
     }
 
-    public static TiesSchema.Table newInstance(Table tablespace) {
-        return null == tablespace ? null : new TableImpl(tablespace);
+    private final byte[] id;
+    private final byte[] state;
+    private final String name;
+    private final Map<String, FieldImpl> fields;
+    private final List<IndexImpl> indexes;
+    private final Map<String, Set<RangeImpl>> nodeRanges;
+    private final int replicationFactor;
+    private final int rangesCount;
+
+    /**
+     * @param state
+     *            digest of the table contract record, changes whenever any of
+     *            table fields, indexes or nodes is changed
+     */
+    TableImpl(byte[] id, byte[] state, String name, Map<String, FieldImpl> fields, List<IndexImpl> indexes,
+            Map<String, Set<RangeImpl>> nodeRanges, int replicationFactor, int rangesCount) {
+        this.id = id;
+        this.state = state;
+        this.name = name;
+        this.fields = Collections.unmodifiableMap(fields);
+        this.indexes = Collections.unmodifiableList(indexes);
+        this.nodeRanges = Collections.unmodifiableMap(nodeRanges);
+        this.replicationFactor = replicationFactor;
+        this.rangesCount = rangesCount;
+    }
+
+    static String normalizeAddress(String address) {
+        return new AddressImpl(address).toChecksumedString();
+    }
+
+    byte[] getId() {
+        return id;
+    }
+
+    byte[] getState() {
+        return state;
+    }
+
+    Map<String, FieldImpl> getFields() {
+        return fields;
+    }
+
+    List<IndexImpl> getIndexList() {
+        return indexes;
+    }
+
+    Map<String, Set<RangeImpl>> getNodeRangeMap() {
+        return nodeRanges;
+    }
+
+    int getRangesCount() {
+        return rangesCount;
     }
 
     @Override
     public String getName() {
-        return t.getName();
+        return name;
     }
 
     @Override
     public Set<String> getFieldNames() {
-        return t.getFields().values().stream().map(f -> f.getName()).collect(Collectors.toCollection(() -> new TreeSet<>()));
+        return Collections.unmodifiableSet(new TreeSet<>(fields.keySet()));
     }
 
     @Override
     public Field getField(String name) {
-        return FieldImpl.newInstance(t.getField(name));
+        return fields.get(name);
     }
 
     @Override
     public Set<Index> getIndexes() {
-        return t.getIndexes().values().stream().map(IndexImpl::newInstance).collect(Collectors.toSet());
+        return Collections.unmodifiableSet(new LinkedHashSet<>(indexes));
     }
 
     @Override
     public boolean isDistributed() {
-        return t.isDistributed();
+        return replicationFactor != 0 && rangesCount != 0;
     }
 
     @Override
     public Set<String> getNodeAddresses() {
-        return t.getNodes().keySet().stream().map(a -> a.toChecksumedString()).collect(Collectors.toSet());
+        return nodeRanges.keySet();
     }
 
     @Override
     public Set<Range> getNodeRanges(String nodeAddress) {
-        return t.getNode(new AddressImpl(nodeAddress)).getTableRanges(t.getId()).getRanges().stream().map(r -> new Range() {
-
-            @Override
-            public int getBase() {
-                return r.getDivider();
-            }
-
-            @Override
-            public int getIndex() {
-                return r.getRemainder();
-            }
-            
-        }).collect(Collectors.toSet());
+        Set<RangeImpl> ranges = nodeRanges.get(normalizeAddress(nodeAddress));
+        return null == ranges ? Collections.emptySet() : Collections.unmodifiableSet(ranges);
     }
 
     @Override
     public int getReplicationFactor() {
-        return t.getReplicas();
+        return replicationFactor;
+    }
+
+    @Override
+    public String toString() {
+        return "TableImpl [name=" + name + ", fields=" + fields.values() + ", indexes=" + indexes + ", nodeRanges=" + nodeRanges
+                + ", replicationFactor=" + replicationFactor + "]";
     }
 
 }
@@ -18,39 +18,51 @@
  */
 package network.tiesdb.schema.impl.ethereum.impl;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
-
-import com.tiesdb.schema.api.Tablespace;
 
 import network.tiesdb.schema.api.TiesSchema;
 
 public class TablespaceImpl implements TiesSchema.Tablespace {
 
-    private final Tablespace ts;
+    private final byte[] id;
+    private final String name;
+    private final Map<String, TableImpl> tables;
+
+    TablespaceImpl(byte[] id, String name, Map<String, TableImpl> tables) {
+        this.id = id;
+        this.name = name;
+        this.tables = Collections.unmodifiableMap(tables);
+    }
 
-    TablespaceImpl(Tablespace tablespace) {
-        this.ts = tablespace;
+    byte[] getId() {
+        return id;
     }
 
-    public static TiesSchema.Tablespace newInstance(Tablespace tablespace) {
-        return null == tablespace ? null : new TablespaceImpl(tablespace);
+    Map<String, TableImpl> getTables() {
+        return tables;
     }
 
     @Override
     public String getName() {
-        return ts.getName();
+        return name;
     }
 
     @Override
     public Set<String> getTableNames() {
-        return ts.getTables().values().stream().map(t -> t.getName()).collect(Collectors.toCollection(() -> new TreeSet<>()));
+        return Collections.unmodifiableSet(new TreeSet<>(tables.keySet()));
+    }
+
+    @Override
+    public TableImpl getTable(String name) {
+        return tables.get(name);
     }
 
     @Override
-    public TiesSchema.Table getTable(String name) {
-        return TableImpl.newInstance(ts.getTable(name));
+    public String toString() {
+        return "TablespaceImpl [name=" + name + ", tables=" + tables.keySet() + "]";
     }
 
 }
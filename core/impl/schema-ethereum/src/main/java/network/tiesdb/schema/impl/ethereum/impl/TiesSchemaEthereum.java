@@ -18,15 +18,28 @@
  */
 package network.tiesdb.schema.impl.ethereum.impl;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static network.tiesdb.util.Safecheck.nullreplace;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.security.SignatureException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.web3j.crypto.ECDSASignature;
 import org.web3j.crypto.Hash;
@@ -42,26 +55,46 @@ import org.web3j.tx.ReadonlyTransactionManager;
 import org.web3j.tx.TransactionManager;
 import org.web3j.utils.Numeric;
 
-import com.tiesdb.schema.impl.SchemaImpl;
 import com.tiesdb.schema.impl.contracts.TiesDB;
 
+import okhttp3.OkHttpClient;
+
 import network.tiesdb.exception.TiesConfigurationException;
 import network.tiesdb.schema.api.TiesSchema;
 import network.tiesdb.service.scope.api.TiesCheque;
+import network.tiesdb.util.SignerCache;
 
 public class TiesSchemaEthereum implements TiesSchema {
 
+    private static final Logger LOG = LoggerFactory.getLogger(TiesSchemaEthereum.class);
+
     private static final short ETHEREUM_NETWORK_ID = 0x3c; // slip-0044.Ether
 
     private final TiesDB contract;
 
     private final String nodeAddress;
 
+    private final SchemaSnapshotLoader loader;
+    private final SchemaSnapshotStore store;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile SchemaSnapshot snapshot;
+
     public TiesSchemaEthereum(TiesSchemaEthereumConfig ethereumConfig) throws IOException, TiesConfigurationException {
+        this(ethereumConfig, nullreplace(ethereumConfig.getWeb3ProviderEndpointUrl(), HttpService.DEFAULT_URL), new OkHttpClient());
+    }
+
+    private TiesSchemaEthereum(TiesSchemaEthereumConfig ethereumConfig, String url, OkHttpClient httpClient)
+            throws IOException, TiesConfigurationException {
+        this(ethereumConfig, Web3j.build(new HttpService(url, httpClient, false)), new JsonRpcBatchClient(url, httpClient));
+    }
+
+    TiesSchemaEthereum(TiesSchemaEthereumConfig ethereumConfig, Web3j web3j, JsonRpcBatchClient batchClient)
+            throws IOException, TiesConfigurationException {
 
         this.nodeAddress = ethereumConfig.getTiesDBNodeAddress();
 
-        Web3j web3j = Web3j.build(new HttpService(nullreplace(ethereumConfig.getWeb3ProviderEndpointUrl(), HttpService.DEFAULT_URL)));
         EthGasPrice gasPrice = web3j.ethGasPrice().send();
         TransactionManager tm = new ReadonlyTransactionManager(web3j, "0x0000000000000000000000000000000000000000");
         TiesDB contract = TiesDB.load(ethereumConfig.getTiesDBContractAddress(), web3j, tm, gasPrice.getGasPrice(), BigInteger.ZERO);
@@ -79,12 +112,138 @@ public class TiesSchemaEthereum implements TiesSchema {
         }
 
         this.contract = contract;
+        this.loader = new SchemaSnapshotLoader(web3j, contract.getContractAddress(), batchClient);
+
+        String snapshotPath = ethereumConfig.getSnapshotPath();
+        this.store = null == snapshotPath ? null : new SchemaSnapshotStore(Paths.get(snapshotPath), contract.getContractAddress());
+        this.snapshot = null == store ? null : store.load();
 
     }
 
     @Override
     public Tablespace getTablespace(String name) {
-        return TablespaceImpl.newInstance(new SchemaImpl(contract).getTablespace(name));
+        SchemaSnapshot current = getSnapshot();
+        TablespaceImpl tablespace = current.getTablespace(name);
+        if (null != tablespace) {
+            return tablespace;
+        }
+        byte[] id = Hash.sha3(name.getBytes(UTF_8));
+        return current.hasTablespace(id) ? loadTablespace(name, id) : null;
+    }
+
+    /**
+     * Reads tablespaces and tables of the snapshot again if any block was mined
+     * since the snapshot was taken. Only changed tables are read in full, and
+     * the snapshot is stored only if a table or the tablespace set changed.
+     */
+    @Override
+    public synchronized boolean refresh() throws IOException {
+        SchemaSnapshot current = snapshot;
+        long blockNumber = loader.getBlockNumber();
+        if (null != current && current.getBlockNumber() == blockNumber) {
+            LOG.debug("Schema is up to date at block {}", blockNumber);
+            return false;
+        }
+        Set<ByteBuffer> tablespaceIds = loader.loadTablespaceIds();
+        List<byte[]> ids = new ArrayList<>();
+        Map<ByteBuffer, TablespaceImpl> cachedTablespaces = new HashMap<>();
+        if (null != current) {
+            for (TablespaceImpl cached : current.getTablespaces()) {
+                if (tablespaceIds.contains(ByteBuffer.wrap(cached.getId()))) {
+                    ids.add(cached.getId());
+                    cachedTablespaces.put(ByteBuffer.wrap(cached.getId()), cached);
+                }
+            }
+        }
+        Map<String, TablespaceImpl> tablespaces = new HashMap<>();
+        for (TablespaceImpl tablespace : loader.loadTablespaces(ids, cachedTablespaces)) {
+            tablespaces.put(tablespace.getName(), tablespace);
+        }
+        SchemaSnapshot updated = new SchemaSnapshot(contract.getContractAddress(), blockNumber, tablespaceIds, tablespaces);
+        if (null != current && updated.hasSameTables(current)) {
+            // A stored snapshot of an older block is refreshed by table states on load
+            snapshot = updated;
+        } else {
+            update(updated);
+        }
+        LOG.debug("Schema refreshed at block {}", blockNumber);
+        if (null != current) {
+            notifyChanges(current, tablespaces);
+        }
+        return true;
+    }
+
+    /**
+     * Listeners are notified of tables which were changed or removed since the
+     * previous refresh. Unchanged tables are kept as the same instances by the
+     * loader, so a table is changed if its instance is not the same.
+     */
+    @Override
+    public boolean addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+        return true;
+    }
+
+    private void notifyChanges(SchemaSnapshot previous, Map<String, TablespaceImpl> tablespaces) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (TablespaceImpl cached : previous.getTablespaces()) {
+            TablespaceImpl tablespace = tablespaces.get(cached.getName());
+            Map<String, TableImpl> tables = null == tablespace ? Collections.emptyMap() : tablespace.getTables();
+            Set<String> tableNames = new HashSet<>(cached.getTables().keySet());
+            tableNames.addAll(tables.keySet());
+            for (String tableName : tableNames) {
+                if (cached.getTables().get(tableName) != tables.get(tableName)) {
+                    LOG.debug("Schema table changed `{}`.`{}`", cached.getName(), tableName);
+                    for (ChangeListener listener : listeners) {
+                        try {
+                            listener.tableChanged(cached.getName(), tableName);
+                        } catch (RuntimeException e) {
+                            LOG.warn("Schema change listener failed for `{}`.`{}`", cached.getName(), tableName, e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private SchemaSnapshot getSnapshot() {
+        SchemaSnapshot current = snapshot;
+        if (null != current) {
+            return current;
+        }
+        synchronized (this) {
+            if (null == snapshot) {
+                try {
+                    refresh();
+                } catch (IOException e) {
+                    throw new RuntimeException("Can't load TiesDB schema", e);
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    private synchronized TablespaceImpl loadTablespace(String name, byte[] id) {
+        SchemaSnapshot current = snapshot;
+        TablespaceImpl tablespace = current.getTablespace(name);
+        if (null == tablespace) {
+            try {
+                tablespace = loader.loadTablespace(id, null);
+            } catch (IOException e) {
+                throw new RuntimeException("Can't load TiesDB tablespace " + name, e);
+            }
+            update(current.withTablespace(tablespace));
+        }
+        return tablespace;
+    }
+
+    private void update(SchemaSnapshot updated) {
+        snapshot = updated;
+        if (null != store) {
+            store.store(updated);
+        }
     }
 
     @Override
@@ -126,7 +285,6 @@ public class TiesSchemaEthereum implements TiesSchema {
         if (signer.length != 20) {
             throw new SignatureException("Signer address length missmatch, expected 20 bytes and got " + signer.length);
         }
-        SignatureData signatureData = getSignatureData(signature);
         byte[] tKey = getTkey(tablespaceName, tableName);
 
         ByteBuffer packedData = ByteBuffer.allocate(20 + 20 + 16 + 32 + 32 + 32);
@@ -139,6 +297,13 @@ public class TiesSchemaEthereum implements TiesSchema {
         packedData.put(Numeric.toBytesPadded(number, 32)); // 32 bytes
         byte[] hash = Hash.sha3(packedData.array());
 
+        byte[] address = SignerCache.shared().recover(SignerCache.Scheme.ETHEREUM_MESSAGE, hash, signature,
+                () -> recoverSigner(hash, signature));
+        return Arrays.equals(signer, address);
+    }
+
+    private static byte[] recoverSigner(byte[] hash, byte[] signature) throws SignatureException {
+        SignatureData signatureData = getSignatureData(signature);
         int header = signatureData.getV() & 0xFF;
         if (header < 27 || header > 34) {
             throw new SignatureException("Header byte out of range: " + header);
@@ -147,8 +312,10 @@ public class TiesSchemaEthereum implements TiesSchema {
         ECDSASignature sig = new ECDSASignature(new BigInteger(1, signatureData.getR()), new BigInteger(1, signatureData.getS()));
 
         BigInteger publicKey = Sign.recoverFromSignature(recId, sig, hashMessage(hash));
-        byte[] address = Keys.getAddress(Numeric.toBytesPadded(publicKey, 64));
-        return Arrays.equals(signer, address);
+        if (null == publicKey) {
+            throw new SignatureException("Could not recover public key from signature");
+        }
+        return Keys.getAddress(Numeric.toBytesPadded(publicKey, 64));
     }
 
     private static byte[] hashMessage(byte[] data) {
@@ -26,4 +26,10 @@ public interface TiesSchemaEthereumConfig {
 
     String getTiesDBNodeAddress();
 
+    /**
+     * @return directory to keep schema snapshots in, or null to read the
+     *         schema from the contract on every start
+     */
+    String getSnapshotPath();
+
 }
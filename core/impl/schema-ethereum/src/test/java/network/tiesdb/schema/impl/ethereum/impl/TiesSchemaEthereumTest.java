@@ -0,0 +1,519 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.schema.impl.ethereum.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint32;
+import org.web3j.abi.datatypes.generated.Uint64;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import network.tiesdb.schema.api.TiesSchema;
+import network.tiesdb.schema.api.TiesSchema.IndexType;
+
+public class TiesSchemaEthereumTest {
+
+    private static final String CONTRACT_ADDRESS = "0x" + repeat("1", 40);
+    private static final String NODE1 = "0x" + repeat("a", 40);
+    private static final String NODE2 = "0x" + repeat("b", 40);
+    private static final String TABLESPACE = "tiesdb";
+
+    private static final Map<String, byte[]> IDS = new ConcurrentHashMap<>();
+
+    private Path snapshotPath;
+    private StubContract stub;
+
+    @BeforeEach
+    public void init() throws IOException {
+        snapshotPath = Files.createTempDirectory("ties-schema");
+        stub = new StubContract();
+        stub.start();
+        stub.table(TABLESPACE, "accounts", 2, 2) //
+                .field("id", "uuid").field("balance", "decimal").primary("id") //
+                .node(NODE1, 2, 0).node(NODE1, 2, 1).node(NODE2, 2, 1);
+        stub.table(TABLESPACE, "events", 1, 1) //
+                .field("key", "long").primary("key") //
+                .node(NODE2, 1, 0);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        stub.stop();
+        try (Stream<Path> files = Files.walk(snapshotPath)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @DisplayName("SchemaLoadTest")
+    @Test
+    public void schemaLoadTest() throws Exception {
+        TiesSchemaEthereum schema = newSchema();
+
+        TiesSchema.Tablespace tablespace = schema.getTablespace(TABLESPACE);
+        assertNotNull(tablespace);
+        assertEquals(new TreeSet<>(Arrays.asList("accounts", "events")), tablespace.getTableNames());
+
+        TiesSchema.Table table = tablespace.getTable("accounts");
+        assertEquals("accounts", table.getName());
+        assertEquals(new TreeSet<>(Arrays.asList("balance", "id")), table.getFieldNames());
+        assertEquals("uuid", table.getField("id").getType());
+        assertEquals(1, table.getIndexes().size());
+        TiesSchema.Index index = table.getIndexes().iterator().next();
+        assertEquals(IndexType.PRIMARY, index.getType());
+        assertEquals(Arrays.asList("id"), index.getFields().stream().map(TiesSchema.Field::getName).collect(Collectors.toList()));
+        assertEquals(2, table.getReplicationFactor());
+        assertTrue(table.isDistributed());
+        assertEquals(2, table.getNodeAddresses().size());
+        assertEquals(ranges(2, 0, 2, 1), ranges(table.getNodeRanges(NODE1.toUpperCase().replace("0X", "0x"))));
+        assertEquals(ranges(2, 1), ranges(table.getNodeRanges(NODE2)));
+
+        assertNull(schema.getTablespace("missing"));
+        assertEquals(1, stub.calls("getStorage"));
+        assertEquals(1, stub.calls("getTablespace"));
+        assertEquals(2, stub.calls("getTable"));
+        assertEquals(3, stub.calls("getField"));
+        assertEquals(2, stub.calls("getIndex"));
+        assertEquals(3, stub.calls("getNodeTableRanges"));
+    }
+
+    @DisplayName("SchemaSnapshotRestoreTest")
+    @Test
+    public void schemaSnapshotRestoreTest() throws Exception {
+        TiesSchema.Table loaded = newSchema().getTablespace(TABLESPACE).getTable("events");
+        stub.reset();
+
+        TiesSchemaEthereum schema = newSchema();
+        TiesSchema.Table restored = schema.getTablespace(TABLESPACE).getTable("events");
+        assertEquals(0, stub.calls("eth_call"));
+        assertEquals(loaded.getFieldNames(), restored.getFieldNames());
+        assertEquals(loaded.getField("key").getType(), restored.getField("key").getType());
+        assertEquals(ranges(loaded.getNodeRanges(NODE2)), ranges(restored.getNodeRanges(NODE2)));
+        assertEquals(IndexType.PRIMARY, restored.getIndexes().iterator().next().getType());
+
+        assertFalse(schema.refresh());
+        assertEquals(1, stub.calls("eth_blockNumber"));
+        assertEquals(0, stub.calls("eth_call"));
+    }
+
+    @DisplayName("SchemaDeltaRefreshTest")
+    @Test
+    public void schemaDeltaRefreshTest() throws Exception {
+        TiesSchemaEthereum schema = newSchema();
+        TiesSchema.Tablespace tablespace = schema.getTablespace(TABLESPACE);
+        stub.reset();
+
+        stub.tables.get("events").field("time", "time");
+        stub.blockNumber++;
+        assertTrue(schema.refresh());
+
+        assertEquals(1, stub.calls("getStorage"));
+        assertEquals(1, stub.calls("getTablespace"));
+        assertEquals(2, stub.calls("getTable"));
+        assertEquals(2, stub.calls("getField"));
+        assertEquals(1, stub.calls("getIndex"));
+        assertEquals(3, stub.calls("getNodeTableRanges"));
+
+        TiesSchema.Tablespace refreshed = schema.getTablespace(TABLESPACE);
+        assertSame(tablespace.getTable("accounts"), refreshed.getTable("accounts"));
+        assertEquals("time", refreshed.getTable("events").getField("time").getType());
+        assertNull(tablespace.getTable("events").getField("time"));
+
+        stub.reset();
+        assertEquals("time", newSchema().getTablespace(TABLESPACE).getTable("events").getField("time").getType());
+        assertEquals(0, stub.calls("eth_call"));
+    }
+
+    @DisplayName("SchemaChangeListenerTest")
+    @Test
+    public void schemaChangeListenerTest() throws Exception {
+        TiesSchemaEthereum schema = newSchema();
+        schema.getTablespace(TABLESPACE);
+        List<String> changes = new ArrayList<>();
+        assertTrue(schema.addChangeListener((tablespaceName, tableName) -> changes.add(tablespaceName + "." + tableName)));
+
+        stub.blockNumber++;
+        assertTrue(schema.refresh());
+        assertEquals(Arrays.asList(), changes);
+
+        stub.tables.get("accounts").node(NODE2, 2, 0);
+        stub.blockNumber++;
+        assertTrue(schema.refresh());
+        assertEquals(Arrays.asList(TABLESPACE + ".accounts"), changes);
+
+        changes.clear();
+        stub.tables.remove("events");
+        stub.blockNumber++;
+        assertTrue(schema.refresh());
+        assertEquals(Arrays.asList(TABLESPACE + ".events"), changes);
+        assertNull(schema.getTablespace(TABLESPACE).getTable("events"));
+    }
+
+    @DisplayName("SchemaSnapshotStoreTest")
+    @Test
+    public void schemaSnapshotStoreTest() throws Exception {
+        TiesSchemaEthereum schema = newSchema();
+        schema.getTablespace(TABLESPACE);
+        SchemaSnapshotStore store = new SchemaSnapshotStore(snapshotPath, CONTRACT_ADDRESS);
+        long storedBlockNumber = store.load().getBlockNumber();
+
+        stub.blockNumber++;
+        assertTrue(schema.refresh());
+        assertEquals(storedBlockNumber, store.load().getBlockNumber());
+
+        stub.tables.get("events").field("time", "time");
+        stub.blockNumber++;
+        assertTrue(schema.refresh());
+        assertEquals(stub.blockNumber, store.load().getBlockNumber());
+    }
+
+    @DisplayName("SchemaBatchLoadTest")
+    @Test
+    public void schemaBatchLoadTest() throws Exception {
+        StubTable wide = stub.table("wide", "columns", 1, 1).node(NODE1, 1, 0);
+        for (int i = 0; i < 500; i++) {
+            wide.field("field" + i, "string");
+        }
+        wide.primary("field0");
+        TiesSchemaEthereum schema = newSchema();
+        stub.reset();
+
+        TiesSchema.Table table = schema.getTablespace("wide").getTable("columns");
+        assertEquals(500, table.getFieldNames().size());
+        assertEquals("string", table.getField("field499").getType());
+        assertEquals("field0", table.getIndexes().iterator().next().getFields().get(0).getName());
+        assertEquals(ranges(1, 0), ranges(table.getNodeRanges(NODE1)));
+
+        assertEquals(500, stub.calls("getField"));
+        // block number, storage, tablespace, table and range rounds, then 501 detail calls in 6 batches
+        assertEquals(11, stub.calls("http"));
+    }
+
+    private TiesSchemaEthereum newSchema() throws Exception {
+        return new TiesSchemaEthereum(new TiesSchemaEthereumConfig() {
+
+            @Override
+            public String getWeb3ProviderEndpointUrl() {
+                return stub.getUrl();
+            }
+
+            @Override
+            public String getTiesDBContractAddress() {
+                return CONTRACT_ADDRESS;
+            }
+
+            @Override
+            public String getTiesDBNodeAddress() {
+                return NODE1;
+            }
+
+            @Override
+            public String getSnapshotPath() {
+                return snapshotPath.toString();
+            }
+
+        });
+    }
+
+    private static List<String> ranges(int... values) {
+        List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < values.length; i += 2) {
+            ranges.add(values[i] + "/" + values[i + 1]);
+        }
+        return ranges;
+    }
+
+    private static List<String> ranges(Set<TiesSchema.Range> ranges) {
+        return ranges.stream().map(r -> r.getBase() + "/" + r.getIndex()).sorted().collect(Collectors.toList());
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+    private static byte[] id(String name) {
+        return IDS.computeIfAbsent(name, n -> Hash.sha3(n.getBytes(UTF_8)));
+    }
+
+    private static String key(byte[] id) {
+        return Numeric.toHexStringNoPrefix(id);
+    }
+
+    private static final class StubTable {
+
+        private final String tablespace;
+        private final String name;
+        private final int replicas;
+        private final int ranges;
+        private final Map<String, String> fields = new LinkedHashMap<>();
+        private final List<String> primary = new ArrayList<>();
+        private final Map<String, List<Long>> nodes = new LinkedHashMap<>();
+
+        private StubTable(String tablespace, String name, int replicas, int ranges) {
+            this.tablespace = tablespace;
+            this.name = name;
+            this.replicas = replicas;
+            this.ranges = ranges;
+        }
+
+        private StubTable field(String name, String type) {
+            fields.put(name, type);
+            return this;
+        }
+
+        private StubTable primary(String name) {
+            primary.add(name);
+            return this;
+        }
+
+        private StubTable node(String address, int base, int index) {
+            nodes.computeIfAbsent(address, a -> new ArrayList<>()).add(((long) base << 32) + index);
+            return this;
+        }
+
+    }
+
+    /**
+     * In-process JSON-RPC endpoint answering schema contract calls from
+     * in-memory tables.
+     */
+    private static final class StubContract {
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final Map<String, String> selectors = new HashMap<>();
+        private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        private final Map<String, StubTable> tables = new LinkedHashMap<>();
+
+        private volatile long blockNumber = 1;
+
+        private HttpServer server;
+
+        private StubContract() {
+            for (String signature : Arrays.asList("getStorage()", "getTablespace(bytes32)", "getTable(bytes32)",
+                    "getField(bytes32,bytes32)", "getIndex(bytes32,bytes32)", "getNodeTableRanges(address,bytes32)")) {
+                selectors.put(Hash.sha3String(signature).substring(0, 10), signature.substring(0, signature.indexOf('(')));
+            }
+        }
+
+        private void start() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+        private String getUrl() {
+            return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+        }
+
+        private StubTable table(String tablespace, String name, int replicas, int ranges) {
+            StubTable table = new StubTable(tablespace, name, replicas, ranges);
+            tables.put(name, table);
+            return table;
+        }
+
+        private int calls(String method) {
+            AtomicInteger count = calls.get(method);
+            return null == count ? 0 : count.get();
+        }
+
+        private void reset() {
+            calls.clear();
+        }
+
+        private StubTable getTable(String argument) {
+            for (StubTable table : tables.values()) {
+                if (key(id(table.tablespace + "#" + table.name)).equals(argument)) {
+                    return table;
+                }
+            }
+            throw new IllegalArgumentException("Table not found: " + argument);
+        }
+
+        private synchronized void handle(HttpExchange exchange) throws IOException {
+            try {
+                calls.computeIfAbsent("http", m -> new AtomicInteger()).incrementAndGet();
+                JsonNode payload = objectMapper.readTree(exchange.getRequestBody());
+                JsonNode response;
+                if (payload.isArray()) {
+                    ArrayNode responses = objectMapper.createArrayNode();
+                    for (JsonNode request : payload) {
+                        responses.add(respond(request));
+                    }
+                    response = responses;
+                } else {
+                    response = respond(payload);
+                }
+                byte[] body = objectMapper.writeValueAsBytes(response);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private ObjectNode respond(JsonNode request) throws IOException {
+            String method = request.get("method").asText();
+            calls.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+            String result;
+            switch (method) {
+            case "eth_gasPrice":
+                result = "0x1";
+                break;
+            case "eth_getCode":
+                result = "0x6060";
+                break;
+            case "eth_blockNumber":
+                result = Numeric.encodeQuantity(BigInteger.valueOf(blockNumber));
+                break;
+            case "eth_call":
+                result = call(Numeric.cleanHexPrefix(request.get("params").get(0).get("data").asText()));
+                break;
+            default:
+                throw new IOException("Unsupported method " + method);
+            }
+            return objectMapper.createObjectNode() //
+                    .put("jsonrpc", "2.0") //
+                    .put("id", request.get("id").asLong()) //
+                    .put("result", result);
+        }
+
+        private String call(String data) {
+            String function = selectors.get("0x" + data.substring(0, 8));
+            calls.computeIfAbsent(function, m -> new AtomicInteger()).incrementAndGet();
+            String arg1 = data.length() >= 72 ? data.substring(8, 72) : null;
+            String arg2 = data.length() >= 136 ? data.substring(72, 136) : null;
+            List<Type> result;
+            switch (function) {
+            case "getStorage":
+                result = Arrays.asList( //
+                        bytes32(tables.values().stream().map(t -> t.tablespace).distinct().map(TiesSchemaEthereumTest::id)), //
+                        addresses(Stream.of(NODE1, NODE2)));
+                break;
+            case "getTablespace": {
+                String tablespace = tables.values().stream().map(t -> t.tablespace).filter(ts -> key(id(ts)).equals(arg1)).findFirst()
+                        .get();
+                result = Arrays.asList( //
+                        new Utf8String(tablespace), //
+                        new Address(CONTRACT_ADDRESS), //
+                        bytes32(tables.values().stream().filter(t -> t.tablespace.equals(tablespace))
+                                .map(t -> id(t.tablespace + "#" + t.name))));
+                break;
+            }
+            case "getTable": {
+                StubTable table = getTable(arg1);
+                result = Arrays.asList( //
+                        new Utf8String(table.name), //
+                        new Utf8String(table.tablespace), //
+                        bytes32(table.fields.keySet().stream().map(TiesSchemaEthereumTest::id)), //
+                        bytes32(Stream.empty()), //
+                        bytes32(Stream.of(id("primary"))), //
+                        new Uint32(table.replicas), //
+                        new Uint32(table.ranges), //
+                        addresses(table.nodes.keySet().stream()));
+                break;
+            }
+            case "getField": {
+                StubTable table = getTable(arg1);
+                String field = table.fields.keySet().stream().filter(f -> key(id(f)).equals(arg2)).findFirst().get();
+                result = Arrays.asList(new Utf8String(field), new Utf8String(table.fields.get(field)), new DynamicBytes(new byte[0]));
+                break;
+            }
+            case "getIndex": {
+                StubTable table = getTable(arg1);
+                result = Arrays.asList(new Utf8String("primary"), new Uint8(1),
+                        bytes32(table.primary.stream().map(TiesSchemaEthereumTest::id)));
+                break;
+            }
+            case "getNodeTableRanges": {
+                StubTable table = getTable(arg2);
+                String node = "0x" + arg1.substring(24);
+                result = Arrays.asList(new DynamicArray<>(
+                        table.nodes.get(node).stream().map(r -> new Uint64(BigInteger.valueOf(r))).collect(Collectors.toList())));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported call " + data);
+            }
+            return "0x" + FunctionEncoder.encodeConstructor(result);
+        }
+
+        private static Type bytes32(Stream<byte[]> ids) {
+            List<Bytes32> values = ids.map(Bytes32::new).collect(Collectors.toList());
+            return values.isEmpty() ? DynamicArray.empty("bytes32[]") : new DynamicArray<>(values);
+        }
+
+        private static Type addresses(Stream<String> addresses) {
+            return new DynamicArray<>(addresses.map(Address::new).collect(Collectors.toList()));
+        }
+
+    }
+
+}
@@ -77,4 +77,9 @@ public class TiesTransportClientImpl implements TiesTransportClient {
         return this;
     }
 
+    @Override
+    public boolean isConnected() {
+        return client.isConnected();
+    }
+
 }
@@ -59,6 +59,10 @@ public class TiesTransportConfigImpl implements TiesTransportConfig {
     private Integer typeOfService = null;
     private Integer acceptorThreadsCount = 1;
     private Integer workerThreadsCount = Runtime.getRuntime().availableProcessors();
+    private Integer handlerThreadsCount = Runtime.getRuntime().availableProcessors() * 2;
+    private Integer handlerQueueSize = 1024;
+    private boolean clientPipelining = true;
+    private int fragmentSize = 256 * 1024;
     private long idleReaderTime = 0;
     private long idleWriterTime = 0;
     private long idleTime = 180;
@@ -128,6 +132,38 @@ public class TiesTransportConfigImpl implements TiesTransportConfig {
         this.workerThreadsCount = workerThreadsCount;
     }
 
+    public Integer getHandlerThreadsCount() {
+        return handlerThreadsCount;
+    }
+
+    public void setHandlerThreadsCount(Integer handlerThreadsCount) {
+        this.handlerThreadsCount = handlerThreadsCount;
+    }
+
+    public Integer getHandlerQueueSize() {
+        return handlerQueueSize;
+    }
+
+    public void setHandlerQueueSize(Integer handlerQueueSize) {
+        this.handlerQueueSize = handlerQueueSize;
+    }
+
+    public boolean isClientPipelining() {
+        return clientPipelining;
+    }
+
+    public void setClientPipelining(boolean clientPipelining) {
+        this.clientPipelining = clientPipelining;
+    }
+
+    public int getFragmentSize() {
+        return fragmentSize;
+    }
+
+    public void setFragmentSize(int fragmentSize) {
+        this.fragmentSize = fragmentSize;
+    }
+
     public Integer getAcceptorThreadsCount() {
         return acceptorThreadsCount;
     }
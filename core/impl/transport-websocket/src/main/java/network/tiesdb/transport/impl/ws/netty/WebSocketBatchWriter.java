@@ -0,0 +1,265 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.transport.impl.ws.netty;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Batching frame writer for pipelined channels.
+ * 
+ * <P>
+ * Frames written from any thread are queued and written to the channel by a
+ * single event loop task followed by one flush, so concurrent requests share
+ * the channel without flushing each frame separately. Fragments of a message
+ * are queued per message and messages are written one after another in the
+ * order of their first fragments, so fragments of concurrent messages are never
+ * interleaved. When the current message completes, messages completed while
+ * waiting for their turn are written before the ones still in progress.
+ * 
+ * <P>
+ * Fragments of messages waiting for their turn are kept in memory until the
+ * current message completes. Writers of such messages wait while the channel
+ * has more than the pending bytes limit queued.
+ */
+public class WebSocketBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketBatchWriter.class);
+
+    public static final int DEFAULT_PENDING_BYTES_LIMIT = 1024 * 1024;
+
+    private static final AttributeKey<WebSocketBatchWriter> WRITER = AttributeKey.valueOf(WebSocketBatchWriter.class, "WRITER");
+
+    private static final class PendingFrame {
+
+        private final WebSocketFrame frame;
+        private final ChannelPromise promise;
+
+        private PendingFrame(WebSocketFrame frame, ChannelPromise promise) {
+            this.frame = frame;
+            this.promise = promise;
+        }
+
+    }
+
+    /**
+     * Message of one or more fragment frames.
+     */
+    public final class Message {
+
+        private final Queue<PendingFrame> frames = new ArrayDeque<>();
+        private boolean queued = false;
+        private boolean complete = false;
+
+        private Message() {
+        }
+
+        /**
+         * @param last
+         *            true for the last fragment of the message
+         * @return future of the frame write
+         */
+        public ChannelFuture write(WebSocketFrame frame, boolean last) {
+            ChannelPromise promise = ch.newPromise();
+            synchronized (messages) {
+                if (complete) {
+                    ReferenceCountUtil.release(frame);
+                    throw new IllegalStateException("Message was completed already");
+                }
+                if (!queued) {
+                    messages.add(this);
+                    queued = true;
+                }
+                frames.add(new PendingFrame(frame, promise));
+                pendingBytes += frame.content().readableBytes();
+                complete = last;
+            }
+            scheduleDrain();
+            return promise;
+        }
+
+        /**
+         * @return true if fragments of the message are written to the channel as
+         *         they come
+         */
+        public boolean isCurrent() {
+            synchronized (messages) {
+                return messages.peek() == this;
+            }
+        }
+
+        /**
+         * Waits while the message waits for its turn and the channel has more than
+         * the pending bytes limit queued. Should not be called on the channel event
+         * loop.
+         */
+        public void awaitCapacity() {
+            boolean interrupted = false;
+            synchronized (messages) {
+                while (pendingBytes > pendingBytesLimit && messages.peek() != this && messages.contains(this) && ch.isOpen()) {
+                    try {
+                        messages.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+    private final Channel ch;
+    private final int pendingBytesLimit;
+    private final ArrayDeque<Message> messages = new ArrayDeque<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Runnable drainTask = this::drain;
+    private final ChannelFutureListener failureListener;
+    private long pendingBytes = 0;
+
+    /**
+     * @return writer shared by all the messages of the channel
+     */
+    public static WebSocketBatchWriter get(Channel ch) {
+        WebSocketBatchWriter writer = ch.attr(WRITER).get();
+        if (null == writer) {
+            WebSocketBatchWriter newWriter = new WebSocketBatchWriter(ch);
+            writer = ch.attr(WRITER).setIfAbsent(newWriter);
+            writer = null == writer ? newWriter : writer;
+        }
+        return writer;
+    }
+
+    private WebSocketBatchWriter(Channel ch) {
+        this(ch, DEFAULT_PENDING_BYTES_LIMIT);
+    }
+
+    WebSocketBatchWriter(Channel ch, int pendingBytesLimit) {
+        if (null == ch) {
+            throw new NullPointerException("The channel should not be null");
+        }
+        this.ch = ch;
+        this.pendingBytesLimit = pendingBytesLimit;
+        this.failureListener = f -> {
+            if (!f.isSuccess()) {
+                logger.error("{} failed to send frame", ch, f.cause());
+            }
+        };
+        ch.closeFuture().addListener(f -> {
+            synchronized (messages) {
+                messages.notifyAll();
+            }
+        });
+    }
+
+    public Channel getChannel() {
+        return ch;
+    }
+
+    /**
+     * @return bytes of the queued frames which are not written to the channel yet
+     */
+    public long getPendingBytes() {
+        synchronized (messages) {
+            return pendingBytes;
+        }
+    }
+
+    public Message newMessage() {
+        return new Message();
+    }
+
+    public void write(WebSocketFrame frame) {
+        newMessage().write(frame, true);
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            ch.eventLoop().execute(drainTask);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        List<PendingFrame> ready = new ArrayList<>();
+        synchronized (messages) {
+            Message message;
+            while (null != (message = messages.peek())) {
+                for (PendingFrame pending : message.frames) {
+                    pendingBytes -= pending.frame.content().readableBytes();
+                    ready.add(pending);
+                }
+                message.frames.clear();
+                if (!message.complete) {
+                    break;
+                }
+                messages.poll();
+                promoteCompleted();
+            }
+            messages.notifyAll();
+        }
+        boolean written = false;
+        for (PendingFrame pending : ready) {
+            if (ch.isActive()) {
+                ch.write(pending.frame, pending.promise).addListener(failureListener);
+                written = true;
+            } else {
+                logger.error("{} is not active, frame dropped", ch);
+                ReferenceCountUtil.release(pending.frame);
+                pending.promise.tryFailure(new IllegalStateException("Channel is not active"));
+            }
+        }
+        if (written) {
+            ch.flush();
+        }
+    }
+
+    private void promoteCompleted() {
+        if (messages.isEmpty() || messages.peek().complete) {
+            return;
+        }
+        Iterator<Message> it = messages.iterator();
+        while (it.hasNext()) {
+            Message message = it.next();
+            if (message.complete) {
+                it.remove();
+                messages.addFirst(message);
+                return;
+            }
+        }
+    }
+
+}
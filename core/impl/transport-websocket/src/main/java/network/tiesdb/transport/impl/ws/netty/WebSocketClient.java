@@ -32,6 +32,7 @@ import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
 import io.netty.handler.codec.http.websocketx.WebSocketVersion;
 import network.tiesdb.exception.TiesException;
 import network.tiesdb.service.scope.api.TiesServiceScopeConsumer;
@@ -49,12 +50,15 @@ public class WebSocketClient {
 
     private final URI destination;
     private final WebSocketFrameHandler frameHandler;
+    private final boolean pipelining;
 
-    private Channel ch;
+    private volatile Channel ch;
+    private volatile WebSocketBatchWriter writer;
 
     public WebSocketClient(TiesTransportImpl transport, URI destination) {
         this.frameHandler = new WebSocketFrameHandler(transport);
         this.destination = destination;
+        this.pipelining = transport.getTiesTransportConfig().isClientPipelining();
     }
 
     public void open() throws InterruptedException {
@@ -76,20 +80,27 @@ public class WebSocketClient {
                 ChannelPipeline pipeline = ch.pipeline();
                 pipeline.addLast("http-codec", new HttpClientCodec());
                 pipeline.addLast("aggregator", new HttpObjectAggregator(65536));
+                pipeline.addLast("ws-aggregator", new WebSocketFrameAggregator(Integer.MAX_VALUE));
                 pipeline.addLast("ws-handler", handler);
             }
         });
 
         // System.out.println("WebSocket Client connecting");
-        ch = b.connect(destination.getHost(), destination.getPort()).sync().channel();
+        Channel ch = b.connect(destination.getHost(), destination.getPort()).sync().channel();
         handler.handshakeFuture().sync();
+        this.writer = pipelining ? WebSocketBatchWriter.get(ch) : null;
+        this.ch = ch;
     }
 
     public void close() throws InterruptedException {
         // System.out.println("WebSocket Client sending close");
-        ch.writeAndFlush(new CloseWebSocketFrame());
-        ch.closeFuture().sync();
-        ch = null;
+        Channel ch = this.ch;
+        if (null != ch) {
+            ch.writeAndFlush(new CloseWebSocketFrame());
+            ch.closeFuture().sync();
+        }
+        this.ch = null;
+        writer = null;
         // group.shutdownGracefully();
     }
 
@@ -102,7 +113,14 @@ public class WebSocketClient {
     }
 
     public void request(TiesServiceScopeConsumer consumer) throws Exception {
-        frameHandler.channelWrite0(ch, consumer);
+        Channel ch = this.ch;
+        WebSocketBatchWriter writer = this.writer;
+        frameHandler.channelWrite0(ch, null != writer && writer.getChannel() == ch ? writer : null, consumer);
+    }
+
+    public boolean isConnected() {
+        Channel ch = this.ch;
+        return null != ch && ch.isActive();
     }
 
     public void check() throws TiesException {
@@ -33,6 +33,9 @@ import network.tiesdb.service.scope.api.TiesServiceScopeConsumer;
 import network.tiesdb.transport.impl.ws.TiesTransportImpl;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -44,11 +47,27 @@ public class WebSocketFrameHandler extends SimpleChannelInboundHandler<WebSocket
 
     protected final TiesTransportImpl transport;
 
+    protected final Executor handlerExecutor;
+
     public WebSocketFrameHandler(TiesTransportImpl transport) {
+        this(transport, null);
+    }
+
+    /**
+     * @param handlerExecutor
+     *            executor for request processing off the event loop or null to
+     *            handle requests in the event loop thread
+     */
+    public WebSocketFrameHandler(TiesTransportImpl transport, Executor handlerExecutor) {
         if (null == transport) {
             throw new NullPointerException("The transport should not be null");
         }
         this.transport = transport;
+        this.handlerExecutor = handlerExecutor;
+    }
+
+    private int getFragmentSize() {
+        return transport.getTiesTransportConfig().getFragmentSize();
     }
 
     @Override
@@ -79,15 +98,19 @@ public class WebSocketFrameHandler extends SimpleChannelInboundHandler<WebSocket
         } else if (inboundFrame instanceof BinaryWebSocketFrame) {
             logger.trace("{} received {} bytes", ctx.channel(), content.readableBytes());
             BinaryWebSocketFrame frame = (BinaryWebSocketFrame) inboundFrame;
-            try {
-                try (WebSocketInputHandler request = new WebSocketInputHandler(frame)) {
-                    try (WebSocketOutputHandler response = new WebSocketOutputHandler(ctx.channel())) {
-                        transport.getHandler().handle(request, response);
+            if (null == handlerExecutor) {
+                try {
+                    try (WebSocketInputHandler request = new WebSocketInputHandler(frame)) {
+                        try (WebSocketOutputHandler response = new WebSocketOutputHandler(ctx.channel(), null, getFragmentSize())) {
+                            transport.getHandler().handle(request, response);
+                        }
                     }
+                } catch (TiesException e) {
+                    logger.error("Channel error: {}", e.getMessage(), e);
+                    ctx.channel().writeAndFlush(new CloseWebSocketFrame(1008, e.getMessage()));
                 }
-            } catch (TiesException e) {
-                logger.error("Channel error: {}", e.getMessage(), e);
-                ctx.channel().writeAndFlush(new CloseWebSocketFrame(1008, e.getMessage()));
+            } else {
+                channelReadOffloaded(ctx.channel(), frame.retain());
             }
         } else if (inboundFrame instanceof CloseWebSocketFrame) {
             logger.trace("{} close requested by client", ctx.channel());
@@ -102,9 +125,43 @@ public class WebSocketFrameHandler extends SimpleChannelInboundHandler<WebSocket
         }
     }
 
+    private void channelReadOffloaded(Channel ch, BinaryWebSocketFrame frame) throws Exception {
+        WebSocketInputHandler request = new WebSocketInputHandler(frame);
+        WebSocketOutputHandler response = new WebSocketOutputHandler(ch, null, getFragmentSize());
+        try {
+            transport.getHandler().handle(request, response, handlerExecutor).whenComplete((v, e) -> {
+                // Might run on the event loop, closing the response only queues its frames
+                try {
+                    try {
+                        response.close();
+                    } finally {
+                        request.close();
+                        frame.release();
+                    }
+                } catch (Exception ex) {
+                    logger.error("Channel error: {}", ex.getMessage(), ex);
+                }
+                if (null != e) {
+                    Throwable cause = e instanceof CompletionException && null != e.getCause() ? e.getCause() : e;
+                    logger.error("Channel error: {}", cause.getMessage(), cause);
+                    ch.writeAndFlush(new CloseWebSocketFrame(1008, cause.getMessage()));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            request.close();
+            frame.release();
+            logger.warn("{} request rejected: {}", ch, e.getMessage());
+            ch.writeAndFlush(new CloseWebSocketFrame(1013, "Server is overloaded"));
+        }
+    }
+
     protected void channelWrite0(Channel ch, TiesServiceScopeConsumer consumer) {
+        channelWrite0(ch, null, consumer);
+    }
+
+    protected void channelWrite0(Channel ch, WebSocketBatchWriter writer, TiesServiceScopeConsumer consumer) {
         try {
-            try (WebSocketOutputHandler response = new WebSocketOutputHandler(ch)) {
+            try (WebSocketOutputHandler response = new WebSocketOutputHandler(ch, writer, getFragmentSize())) {
                 transport.getHandler().handle(consumer, response);
             }
         } catch (Exception e) {
@@ -19,7 +19,9 @@
 package network.tiesdb.transport.impl.ws.netty;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import network.tiesdb.transport.api.TiesInput;
@@ -31,13 +33,15 @@ import network.tiesdb.transport.api.TiesInput;
  */
 public class WebSocketInputHandler implements TiesInput, AutoCloseable {
 
+    private final ByteBuf content;
     private final InputStream is;
 
     public WebSocketInputHandler(WebSocketFrame frame) {
         if (null == frame) {
             throw new NullPointerException("The frame should not be null");
         }
-        this.is = new ByteBufInputStream(frame.content());
+        this.content = frame.content();
+        this.is = new ByteBufInputStream(content);
     }
 
     @Override
@@ -45,6 +49,11 @@ public class WebSocketInputHandler implements TiesInput, AutoCloseable {
         return is;
     }
 
+    @Override
+    public ByteBuffer getByteBuffer() {
+        return content.nioBuffer();
+    }
+
     @Override
     public void close() throws Exception {
         is.close();
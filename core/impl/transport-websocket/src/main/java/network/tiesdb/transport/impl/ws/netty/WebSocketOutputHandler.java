@@ -18,32 +18,52 @@
  */
 package network.tiesdb.transport.impl.ws.netty;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import network.tiesdb.transport.api.TiesOutput;
 
 /**
  * TiesDB response handler for WebSock.
  * 
+ * <P>
+ * Output is written into pooled direct buffers of the channel. Messages
+ * growing beyond the fragment size are sent as a sequence of continuation
+ * frames. Fragments are queued as a message of the channel writer, which
+ * writes them on the channel event loop without interleaving concurrent
+ * messages. Writing blocks while the current message has a fragment in flight
+ * or while a message waiting for its turn exceeds the pending bytes limit of
+ * the channel writer.
+ * 
  * @author Anton Filatov (filatov@ties.network)
  */
 public class WebSocketOutputHandler implements TiesOutput, AutoCloseable {
 
-    private static class WrappedOutputStream extends ByteArrayOutputStream {
+    public static final int DEFAULT_FRAGMENT_SIZE = 256 * 1024;
+
+    private static class WrappedOutputStream extends OutputStream {
 
         volatile boolean sentAndClosed = false;
         private final Channel ch;
+        private final WebSocketBatchWriter.Message message;
+        private final int fragmentSize;
+        private ByteBuf buf;
+        private boolean fragmented = false;
 
-        private WrappedOutputStream(Channel ch) {
+        private WrappedOutputStream(Channel ch, WebSocketBatchWriter writer, int fragmentSize) {
             if (null == ch) {
                 throw new NullPointerException("The channel should not be null");
             }
             this.ch = ch;
+            this.message = (null != writer ? writer : WebSocketBatchWriter.get(ch)).newMessage();
+            this.fragmentSize = fragmentSize > 0 ? fragmentSize : Integer.MAX_VALUE;
         }
 
         private void check() {
@@ -52,29 +72,69 @@ public class WebSocketOutputHandler implements TiesOutput, AutoCloseable {
             }
         }
 
+        private ByteBuf buffer() {
+            if (null == buf) {
+                buf = ch.alloc().directBuffer();
+            }
+            return buf;
+        }
+
         @Override
         public synchronized void write(int b) {
             check();
-            super.write(b);
+            buffer().writeByte(b);
+            if (buf.readableBytes() >= fragmentSize) {
+                sendFragment(false);
+            }
         }
 
         @Override
         public synchronized void write(byte[] b, int off, int len) {
             check();
-            super.write(b, off, len);
+            while (len > 0) {
+                int count = Math.min(len, fragmentSize - buffer().readableBytes());
+                buf.writeBytes(b, off, count);
+                off += count;
+                len -= count;
+                if (buf.readableBytes() >= fragmentSize) {
+                    sendFragment(false);
+                }
+            }
+        }
+
+        private void sendFragment(boolean last) {
+            ByteBuf content = null == buf ? Unpooled.EMPTY_BUFFER : buf;
+            buf = null;
+            WebSocketFrame frame = fragmented //
+                    ? new ContinuationWebSocketFrame(last, 0, content)
+                    : new BinaryWebSocketFrame(last, 0, content);
+            fragmented = !last;
+            ChannelFuture f = message.write(frame, last);
+            if (ch.eventLoop().inEventLoop()) {
+                return;
+            }
+            if (message.isCurrent()) {
+                if (!last) {
+                    // Keep at most one fragment in flight while the message is being written
+                    f.awaitUninterruptibly();
+                }
+            } else {
+                // A message waiting for its turn is queued up to the pending bytes limit of the channel
+                message.awaitCapacity();
+            }
         }
 
         @Override
-        public void close() throws IOException {
-            if (!sentAndClosed && size() > 0) {
-                try {
-                    ch.writeAndFlush(new BinaryWebSocketFrame(Unpooled.wrappedBuffer(toByteArray()))).sync();
-                    sentAndClosed = true;
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        public synchronized void close() throws IOException {
+            if (!sentAndClosed) {
+                sentAndClosed = true;
+                if (fragmented || (null != buf && buf.readableBytes() > 0)) {
+                    sendFragment(true);
+                } else if (null != buf) {
+                    buf.release();
+                    buf = null;
                 }
             }
-            super.close();
         }
 
     }
@@ -82,7 +142,28 @@ public class WebSocketOutputHandler implements TiesOutput, AutoCloseable {
     private final WrappedOutputStream os;
 
     public WebSocketOutputHandler(Channel ch) {
-        this.os = new WrappedOutputStream(ch);
+        this(ch, null);
+    }
+
+    /**
+     * @param writer
+     *            batching writer of the channel or null to use the shared writer
+     *            of the channel
+     */
+    public WebSocketOutputHandler(Channel ch, WebSocketBatchWriter writer) {
+        this(ch, writer, DEFAULT_FRAGMENT_SIZE);
+    }
+
+    /**
+     * @param writer
+     *            batching writer of the channel or null to use the shared writer
+     *            of the channel
+     * @param fragmentSize
+     *            message size to start sending continuation frames or 0 to send
+     *            every message in a single frame
+     */
+    public WebSocketOutputHandler(Channel ch, WebSocketBatchWriter writer, int fragmentSize) {
+        this.os = new WrappedOutputStream(ch, writer, fragmentSize);
     }
 
     @Override
@@ -23,6 +23,10 @@ import static network.tiesdb.util.Safecheck.nullsafe;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.security.cert.CertificateException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ssl.SSLException;
@@ -39,6 +43,7 @@ import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.SelfSignedCertificate;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import network.tiesdb.context.api.TiesTransportConfig;
 import network.tiesdb.exception.util.MessageHelper;
 import network.tiesdb.transport.impl.ws.TiesTransportConfigImpl;
@@ -80,6 +85,8 @@ public class WebSocketServer {
         private final boolean secured;
         private final Integer workerThreadsCount;
         private final Integer acceptorThreadsCount;
+        private final Integer handlerThreadsCount;
+        private final Integer handlerQueueSize;
 
         private SafeConfig(TiesTransportConfig config) {
             if (null == config) {
@@ -92,12 +99,16 @@ public class WebSocketServer {
                 this.secured = nullsafe(extConfig.getSecurity()).isSecuredSocket();
                 this.workerThreadsCount = nullsafe(extConfig.getWorkerThreadsCount());
                 this.acceptorThreadsCount = nullsafe(extConfig.getAcceptorThreadsCount());
+                this.handlerThreadsCount = nullsafe(extConfig.getHandlerThreadsCount());
+                this.handlerQueueSize = nullsafe(extConfig.getHandlerQueueSize());
             } else {
                 logger.warn(MessageHelper.notFullyCompatible(config.getClass(), TiesTransportConfigImpl.class),
                         "Using default settings for missing elements");
                 this.secured = false;
                 this.workerThreadsCount = 5;
                 this.acceptorThreadsCount = 1;
+                this.handlerThreadsCount = 10;
+                this.handlerQueueSize = 1024;
             }
         }
     }
@@ -107,8 +118,12 @@ public class WebSocketServer {
         private final AtomicReference<Channel> chRef = new AtomicReference<>();
         private final NioEventLoopGroup bossGroup;
         private final NioEventLoopGroup workerGroup;
+        private final ExecutorService handlerExecutor;
 
-        private ChannelGroupManager(NioEventLoopGroup bossGroup, NioEventLoopGroup workerGroup) {
+        private ChannelGroupManager(NioEventLoopGroup bossGroup, NioEventLoopGroup workerGroup, ExecutorService handlerExecutor) {
+            if (null == handlerExecutor) {
+                throw new NullPointerException("The handlerExecutor should not be null");
+            }
             if (null == workerGroup) {
                 throw new NullPointerException("The workerGroup should not be null");
             }
@@ -117,6 +132,7 @@ public class WebSocketServer {
             }
             this.bossGroup = bossGroup;
             this.workerGroup = workerGroup;
+            this.handlerExecutor = handlerExecutor;
         }
 
         private void stop() {
@@ -149,6 +165,15 @@ public class WebSocketServer {
                 } else {
                     logger.trace("No channel worker group");
                 }
+                handlerExecutor.shutdown();
+                try {
+                    if (!handlerExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+                        handlerExecutor.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    logger.error("Can't stop channel handler executor", e);
+                    handlerExecutor.shutdownNow();
+                }
             }
         }
     }
@@ -181,7 +206,9 @@ public class WebSocketServer {
         }
 
         ChannelGroupManager manager = new ChannelGroupManager(new NioEventLoopGroup(config.acceptorThreadsCount),
-                new NioEventLoopGroup(config.workerThreadsCount));
+                new NioEventLoopGroup(config.workerThreadsCount), //
+                new ThreadPoolExecutor(config.handlerThreadsCount, config.handlerThreadsCount, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(config.handlerQueueSize), new DefaultThreadFactory("ws-handler")));
 
         try {
             if (!managerRef.compareAndSet(null, manager)) {
@@ -200,7 +227,7 @@ public class WebSocketServer {
             b.group(manager.bossGroup, manager.workerGroup);
             b.channel(NioServerSocketChannel.class);
             b.handler(new LoggingHandler(getLoggerLogLevel()));
-            b.childHandler(new WebSocketServerInitializer(transport, sslCtx));
+            b.childHandler(new WebSocketServerInitializer(transport, sslCtx, manager.handlerExecutor));
 
             Channel ch = b.bind(config.host, config.port).sync().channel();
             if (!manager.chRef.compareAndSet(null, ch)) {
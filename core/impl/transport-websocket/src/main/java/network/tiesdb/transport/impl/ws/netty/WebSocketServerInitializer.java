@@ -22,6 +22,7 @@ import static network.tiesdb.util.Safecheck.nullsafe;
 
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -36,6 +37,7 @@ import io.netty.channel.socket.SocketChannelConfig;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
 import io.netty.handler.ssl.SslContext;
@@ -102,9 +104,12 @@ public class WebSocketServerInitializer extends ChannelInitializer<SocketChannel
 
     private final TiesTransportImpl transport;
 
-    public WebSocketServerInitializer(TiesTransportImpl transport, SslContext sslCtx) {
+    private final Executor handlerExecutor;
+
+    public WebSocketServerInitializer(TiesTransportImpl transport, SslContext sslCtx, Executor handlerExecutor) {
         this.transport = transport;
         this.sslCtx = sslCtx;
+        this.handlerExecutor = handlerExecutor;
     }
 
     @Override
@@ -118,8 +123,9 @@ public class WebSocketServerInitializer extends ChannelInitializer<SocketChannel
         pipeline.addLast(new HttpServerCodec());
         pipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
         pipeline.addLast(new ConfigurableWebSocketServerProtocolHandler(WEBSOCKET_PATH, null, true, Integer.MAX_VALUE));
+        pipeline.addLast(new WebSocketFrameAggregator(Integer.MAX_VALUE));
         pipeline.addLast(new WebSocketIndexPageHandler(WEBSOCKET_PATH));
-        pipeline.addLast(new WebSocketFrameHandler(transport));
+        pipeline.addLast(new WebSocketFrameHandler(transport, handlerExecutor));
         config2ndStage(ch);
     }
 
@@ -0,0 +1,192 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.transport.impl.ws.netty;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+
+public class WebSocketBatchWriterTest {
+
+    private static final int FRAGMENT_SIZE = 16;
+
+    private static final class ReceivedFrame {
+
+        private final boolean continuation;
+        private final boolean last;
+        private final byte[] content;
+
+        private ReceivedFrame(WebSocketFrame frame) {
+            this.continuation = frame instanceof ContinuationWebSocketFrame;
+            this.last = frame.isFinalFragment();
+            this.content = ByteBufUtil.getBytes(frame.content());
+        }
+
+    }
+
+    private final BlockingQueue<ReceivedFrame> received = new LinkedBlockingQueue<>();
+    private EventLoopGroup group;
+    private Channel server;
+    private Channel ch;
+
+    @BeforeEach
+    public void connect() throws InterruptedException {
+        group = new DefaultEventLoopGroup(2);
+        LocalAddress address = new LocalAddress(WebSocketBatchWriterTest.class.getSimpleName());
+        server = new ServerBootstrap().group(group).channel(LocalServerChannel.class).childHandler(new ChannelInitializer<LocalChannel>() {
+            @Override
+            protected void initChannel(LocalChannel ch) {
+                ch.pipeline().addLast(new SimpleChannelInboundHandler<WebSocketFrame>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, WebSocketFrame frame) {
+                        received.add(new ReceivedFrame(frame));
+                    }
+                });
+            }
+        }).bind(address).sync().channel();
+        ch = new Bootstrap().group(group).channel(LocalChannel.class).handler(new ChannelInboundHandlerAdapter()).connect(address).sync()
+                .channel();
+    }
+
+    @AfterEach
+    public void disconnect() throws InterruptedException {
+        ch.close().sync();
+        server.close().sync();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    @DisplayName("Concurrent fragmented messages are not interleaved")
+    public void concurrentMessagesTest() throws Exception {
+        WebSocketBatchWriter writer = new WebSocketBatchWriter(ch, FRAGMENT_SIZE * 2);
+        byte[] first = payload((byte) 'a', FRAGMENT_SIZE * 20);
+        byte[] second = payload((byte) 'b', FRAGMENT_SIZE * 20 + 1);
+        Thread firstWriter = send(writer, first);
+        Thread secondWriter = send(writer, second);
+        firstWriter.join(5000);
+        secondWriter.join(5000);
+        assertFalse(firstWriter.isAlive());
+        assertFalse(secondWriter.isAlive());
+
+        List<byte[]> messages = receiveMessages(2);
+        messages.sort((a, b) -> Byte.compare(a[0], b[0]));
+        assertArrayEquals(first, messages.get(0));
+        assertArrayEquals(second, messages.get(1));
+        assertEquals(0, writer.getPendingBytes());
+    }
+
+    @Test
+    @DisplayName("Message waiting for its turn is bounded by the pending bytes limit")
+    public void pendingBytesLimitTest() throws Exception {
+        int limit = FRAGMENT_SIZE * 4;
+        WebSocketBatchWriter writer = new WebSocketBatchWriter(ch, limit);
+        WebSocketOutputHandler head = new WebSocketOutputHandler(ch, writer, FRAGMENT_SIZE);
+        byte[] first = payload((byte) 'a', FRAGMENT_SIZE);
+        head.getOutputStream().write(first);
+
+        byte[] second = payload((byte) 'b', FRAGMENT_SIZE * 20);
+        Thread secondWriter = send(writer, second);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (secondWriter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, secondWriter.getState());
+        assertTrue(writer.getPendingBytes() > limit);
+        assertTrue(writer.getPendingBytes() <= limit + FRAGMENT_SIZE);
+
+        head.close();
+        secondWriter.join(5000);
+        assertFalse(secondWriter.isAlive());
+
+        List<byte[]> messages = receiveMessages(2);
+        assertArrayEquals(first, messages.get(0));
+        assertArrayEquals(second, messages.get(1));
+        assertEquals(0, writer.getPendingBytes());
+    }
+
+    private Thread send(WebSocketBatchWriter writer, byte[] payload) {
+        Thread thread = new Thread(() -> {
+            try (WebSocketOutputHandler output = new WebSocketOutputHandler(ch, writer, FRAGMENT_SIZE)) {
+                OutputStream os = output.getOutputStream();
+                for (int i = 0; i < payload.length; i += FRAGMENT_SIZE / 2) {
+                    os.write(payload, i, Math.min(FRAGMENT_SIZE / 2, payload.length - i));
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private List<byte[]> receiveMessages(int count) throws InterruptedException, IOException {
+        List<byte[]> messages = new ArrayList<>();
+        ByteArrayOutputStream message = null;
+        while (messages.size() < count) {
+            ReceivedFrame frame = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(frame, "Message was not received");
+            assertEquals(null != message, frame.continuation, "Fragments of messages are interleaved");
+            if (null == message) {
+                message = new ByteArrayOutputStream();
+            }
+            message.write(frame.content);
+            if (frame.last) {
+                messages.add(message.toByteArray());
+                message = null;
+            }
+        }
+        return messages;
+    }
+
+    private static byte[] payload(byte value, int length) {
+        byte[] payload = new byte[length];
+        Arrays.fill(payload, value);
+        return payload;
+    }
+
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.util;
+
+import java.lang.management.ManagementFactory;
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TiesDB signer recovery cache.
+ * 
+ * <P>
+ * Maps (scheme, message hash, signature) triples to recovered signer
+ * addresses, so repeated checks of the same signature skip public key
+ * recovery. The scheme keeps apart recoveries which hash the message
+ * differently before recovering the key. Entries
+ * are kept in striped segmented LRU: new entries go to the probation
+ * segment and move to the protected one on a repeated hit. Eviction takes
+ * the least recently used probation entries first.
+ */
+public final class SignerCache implements SignerCacheMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SignerCache.class);
+
+    private static final int DEFAULT_CAPACITY = 65536;
+    private static final int STRIPES = 16;
+
+    public static enum Scheme {
+
+        /**
+         * Key is recovered from the signature of the message hash itself.
+         */
+        RAW,
+
+        /**
+         * Key is recovered from the signature of the Ethereum signed message
+         * prefixed hash.
+         */
+        ETHEREUM_MESSAGE
+
+    }
+
+    @FunctionalInterface
+    public static interface Recovery {
+
+        byte[] recover() throws SignatureException;
+
+    }
+
+    private static final class Holder {
+
+        private static final SignerCache SHARED = new SignerCache(DEFAULT_CAPACITY);
+
+        static {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(SHARED, new ObjectName("network.tiesdb:type=SignerCache"));
+            } catch (JMException e) {
+                LOG.warn("Signer cache gauges were not registered", e);
+            }
+        }
+
+    }
+
+    private static final class Key {
+
+        private final Scheme scheme;
+        private final byte[] data;
+        private final int hash;
+
+        private Key(Scheme scheme, byte[] messageHash, byte[] signature) {
+            byte[] data = Arrays.copyOf(messageHash, messageHash.length + signature.length);
+            System.arraycopy(signature, 0, data, messageHash.length, signature.length);
+            this.scheme = scheme;
+            this.data = data;
+            int h = (31 * scheme.ordinal() + Arrays.hashCode(data)) * 0x9E3779B9;
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && scheme == other.scheme && Arrays.equals(data, other.data);
+        }
+
+    }
+
+    private static final class Segment {
+
+        private final int capacity;
+        private final int protectedCapacity;
+        private final LinkedHashMap<Key, byte[]> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Key, byte[]> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = capacity - Math.max(1, capacity / 5);
+        }
+
+        synchronized byte[] get(Key key) {
+            byte[] value = protectedEntries.get(key);
+            if (null != value) {
+                return value;
+            }
+            value = probation.remove(key);
+            if (null != value) {
+                protectedEntries.put(key, value);
+                if (protectedEntries.size() > protectedCapacity) {
+                    Iterator<Map.Entry<Key, byte[]>> it = protectedEntries.entrySet().iterator();
+                    Map.Entry<Key, byte[]> eldest = it.next();
+                    it.remove();
+                    probation.put(eldest.getKey(), eldest.getValue());
+                }
+            }
+            return value;
+        }
+
+        synchronized void put(Key key, byte[] value) {
+            if (protectedEntries.containsKey(key) || probation.containsKey(key)) {
+                return;
+            }
+            probation.put(key, value);
+            evict();
+        }
+
+        synchronized int size() {
+            return probation.size() + protectedEntries.size();
+        }
+
+        synchronized void clear() {
+            probation.clear();
+            protectedEntries.clear();
+        }
+
+        private void evict() {
+            while (probation.size() + protectedEntries.size() > capacity) {
+                Iterator<Key> it = (probation.isEmpty() ? protectedEntries : probation).keySet().iterator();
+                it.next();
+                it.remove();
+            }
+        }
+
+    }
+
+    private final Segment[] segments;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public SignerCache(int capacity) {
+        if (capacity < STRIPES) {
+            throw new IllegalArgumentException("Cache capacity should be at least " + STRIPES);
+        }
+        this.segments = new Segment[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment(capacity / STRIPES);
+        }
+    }
+
+    public static SignerCache shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Returns signer address for the signature of messageHash, recovering and
+     * caching it on a miss. The recovery should follow the given scheme.
+     */
+    public byte[] recover(Scheme scheme, byte[] messageHash, byte[] signature, Recovery recovery) throws SignatureException {
+        if (null == scheme) {
+            throw new NullPointerException("The scheme should not be null");
+        }
+        if (null == messageHash || null == signature) {
+            throw new SignatureException("Message hash and signature should not be null");
+        }
+        Key key = new Key(scheme, messageHash, signature);
+        Segment segment = segments[key.hash & (STRIPES - 1)];
+        byte[] signer = segment.get(key);
+        if (null != signer) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+            signer = recovery.recover();
+            if (null == signer) {
+                return null;
+            }
+            signer = Arrays.copyOf(signer, signer.length);
+            segment.put(key, signer);
+        }
+        return Arrays.copyOf(signer, signer.length);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.tiesdb.protocol.exception.TiesDBException;
+import com.tiesdb.protocol.v0r0.bench.ProtocolFixtures.CountingOutput;
+import com.tiesdb.protocol.v0r0.bench.ProtocolFixtures.Message;
+import com.tiesdb.protocol.v0r0.reader.MessageReader;
+import com.tiesdb.protocol.v0r0.reader.Reader;
+
+import network.tiesdb.util.SignerCache;
+
+/**
+ * Measures how fast a packet is parsed into reader models, including
+ * verification of entry signatures and fields hashes.
+ * 
+ * With coldSigners the shared signer cache is dropped before every
+ * invocation, so public key recovery is part of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeBenchmark {
+
+    @Param
+    private Message message;
+
+    @Param({ "1", "32", "512" })
+    private int entryCount;
+
+    @Param({ "32", "1024", "32768" })
+    private int fieldSize;
+
+    @Param({ "false", "true" })
+    private boolean coldSigners;
+
+    private final MessageReader messageReader = new MessageReader();
+    private final CountingOutput output = new CountingOutput();
+
+    private byte[] packet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws TiesDBException {
+        packet = message.packet(entryCount, fieldSize);
+        List<Reader.Message> messages = ProtocolFixtures.decode(packet);
+        if (messages.size() != 1) {
+            throw new IllegalStateException("Fixture " + message + " decoded into " + messages.size() + " messages");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetSigners() {
+        if (coldSigners) {
+            SignerCache.shared().clear();
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) throws TiesDBException {
+        ProtocolFixtures.accept(packet, output, session -> ProtocolFixtures.read(session, messageReader, bh::consume));
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tiesdb.protocol.exception.TiesDBException;
+import com.tiesdb.protocol.v0r0.bench.ProtocolFixtures.CountingOutput;
+import com.tiesdb.protocol.v0r0.bench.ProtocolFixtures.Message;
+import com.tiesdb.protocol.v0r0.reader.Reader;
+import com.tiesdb.protocol.v0r0.writer.RequestWriter;
+import com.tiesdb.protocol.v0r0.writer.ResponseWriter;
+import com.tiesdb.protocol.v0r0.writer.Writer;
+
+/**
+ * Measures how fast the protocol writers serialize a message into a
+ * channel. Writer models are built once from the decoded fixture, so the
+ * encoded packet matches the one measured by {@link DecodeBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+
+    @Param
+    private Message message;
+
+    @Param({ "1", "32", "512" })
+    private int entryCount;
+
+    @Param({ "32", "1024", "32768" })
+    private int fieldSize;
+
+    private final RequestWriter requestWriter = new RequestWriter();
+    private final ResponseWriter responseWriter = new ResponseWriter();
+    private final CountingOutput output = new CountingOutput();
+
+    private Writer.Message model;
+
+    @Setup(Level.Trial)
+    public void setUp() throws TiesDBException {
+        List<Reader.Message> messages = ProtocolFixtures.decode(message.packet(entryCount, fieldSize));
+        if (messages.size() != 1) {
+            throw new IllegalStateException("Fixture " + message + " decoded into " + messages.size() + " messages");
+        }
+        model = WriterModels.of(messages.get(0));
+    }
+
+    @Benchmark
+    public long encode() throws TiesDBException {
+        output.reset();
+        if (model instanceof Writer.Request) {
+            ProtocolFixtures.create(output, session -> requestWriter.accept(session, (Writer.Request) model));
+        } else {
+            ProtocolFixtures.create(output, session -> responseWriter.accept(session, (Writer.Response) model));
+        }
+        return output.getCount();
+    }
+
+}
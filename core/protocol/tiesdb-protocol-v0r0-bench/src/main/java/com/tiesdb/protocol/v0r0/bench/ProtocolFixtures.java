@@ -0,0 +1,350 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.bench;
+
+import static com.tiesdb.protocol.v0r0.ebml.TiesDBType.*;
+import static com.tiesdb.protocol.v0r0.test.TiesDBProtocolV0R0Generate.tiesPartChequeV1;
+import static com.tiesdb.protocol.v0r0.test.util.TestUtil.*;
+import static network.tiesdb.util.Hex.UPPERCASE_HEX;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.tiesdb.lib.crypto.digest.DigestManager;
+import com.tiesdb.lib.crypto.digest.api.Digest;
+import com.tiesdb.lib.crypto.ecc.signature.ECKey;
+import com.tiesdb.protocol.api.TiesDBChannelBufferInput;
+import com.tiesdb.protocol.api.TiesDBProtocol.TiesDBChannelOutput;
+import com.tiesdb.protocol.api.TiesDBProtocolHandler;
+import com.tiesdb.protocol.api.TiesDBProtocolHandlerProvider;
+import com.tiesdb.protocol.api.Version;
+import com.tiesdb.protocol.exception.TiesDBException;
+import com.tiesdb.protocol.exception.TiesDBProtocolException;
+import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0;
+import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
+import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.Event;
+import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.EventState;
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLWriter;
+import com.tiesdb.protocol.v0r0.ebml.format.UUIDFormat;
+import com.tiesdb.protocol.v0r0.reader.MessageReader;
+import com.tiesdb.protocol.v0r0.reader.Reader;
+import com.tiesdb.protocol.v0r0.util.CheckedConsumer;
+
+import one.utopic.sparse.ebml.format.ASCIIStringFormat;
+import one.utopic.sparse.ebml.format.BytesFormat;
+import one.utopic.sparse.ebml.format.DateFormat;
+import one.utopic.sparse.ebml.format.IntegerFormat;
+import one.utopic.sparse.ebml.format.LongFormat;
+import one.utopic.sparse.ebml.format.UTF8StringFormat;
+
+/**
+ * Signed protocol messages for the codec benchmarks.
+ * 
+ * Messages are produced with the helpers and the key of the protocol
+ * generator, so every entry header and cheque carries a valid signature.
+ */
+public final class ProtocolFixtures {
+
+    static final String TABLESPACE = "client-dev.test";
+    static final String TABLE = "all_types";
+
+    static final String ID_FIELD_NAME = "Id";
+    static final String DATA_FIELD_NAME = "fBinary";
+
+    static final ECKey KEY = ECKey.fromPrivate(
+            UPPERCASE_HEX.parseHexBinary("B84F0B9766FB4B7E88F11F124F98170CB437CD09515CAF970DA886E4EF4C5FA3"));
+
+    private static final byte[] CONTRACT_ADDRESS = new BigInteger("01234567890abcdef01234567890abcdef012345", 16).toByteArray();
+    private static final UUID CHEQUE_SESSION = UUID.fromString("01234567-890a-bcde-f012-34567890abcd");
+    private static final Date TIMESTAMP = new Date(1522661357000L);
+    private static final int NETWORK = 60;
+    private static final int CONSISTENCY_ALL = 0x64;
+
+    private static final TiesDBProtocolV0R0 PROTOCOL = new TiesDBProtocolV0R0();
+
+    public enum Message {
+        MODIFICATION_REQUEST {
+            @Override
+            byte[] encode(int entryCount, int fieldSize) {
+                return modificationRequest(entryCount, fieldSize);
+            }
+        },
+        RECOLLECTION_REQUEST {
+            @Override
+            byte[] encode(int entryCount, int fieldSize) {
+                return recollectionRequest(entryCount, fieldSize);
+            }
+        },
+        RECOLLECTION_RESPONSE {
+            @Override
+            byte[] encode(int entryCount, int fieldSize) {
+                return recollectionResponse(entryCount, fieldSize);
+            }
+        },
+
+        ;
+
+        abstract byte[] encode(int entryCount, int fieldSize);
+
+        byte[] packet(int entryCount, int fieldSize) {
+            try {
+                byte[] header = getPacketHeader(TiesDBProtocolV0R0.VERSION);
+                byte[] message = encode(entryCount, fieldSize);
+                return ByteBuffer.allocate(header.length + message.length).put(header).put(message).array();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't create packet for " + this, e);
+            }
+        }
+
+    }
+
+    static byte[] modificationRequest(int entryCount, int fieldSize) {
+        Random random = new Random(entryCount * 31 + fieldSize);
+        List<Consumer<? super TiesEBMLWriter>> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            entries.add(entry(random, fieldSize, true));
+        }
+        return encodeTies( //
+                part(MODIFICATION_REQUEST, //
+                        part(CONSISTENCY, IntegerFormat.INSTANCE, CONSISTENCY_ALL), //
+                        part(MESSAGE_ID, LongFormat.INSTANCE, 1L), //
+                        all(entries) //
+                ) //
+        );
+    }
+
+    static byte[] recollectionRequest(int entryCount, int fieldSize) {
+        Random random = new Random(entryCount * 31 + fieldSize);
+        List<Consumer<? super TiesEBMLWriter>> arguments = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            arguments.add(part(FUN_ARGUMENT_STATIC, //
+                    part(ARG_STATIC_TYPE, ASCIIStringFormat.INSTANCE, "binary"), //
+                    part(ARG_STATIC_VALUE, BytesFormat.INSTANCE, randomBytes(random, fieldSize)) //
+            ));
+        }
+        return encodeTies( //
+                part(RECOLLECTION_REQUEST, //
+                        part(CONSISTENCY, IntegerFormat.INSTANCE, CONSISTENCY_ALL), //
+                        part(MESSAGE_ID, LongFormat.INSTANCE, 2L), //
+                        part(TABLESPACE_NAME, UTF8StringFormat.INSTANCE, TABLESPACE), //
+                        part(TABLE_NAME, UTF8StringFormat.INSTANCE, TABLE), //
+                        part(RETRIEVE_LIST, //
+                                part(RET_FIELD, UTF8StringFormat.INSTANCE, ID_FIELD_NAME), //
+                                part(RET_FIELD, UTF8StringFormat.INSTANCE, DATA_FIELD_NAME) //
+                        ), //
+                        part(FILTER_LIST, //
+                                part(FILTER, //
+                                        part(FILTER_FIELD, UTF8StringFormat.INSTANCE, DATA_FIELD_NAME), //
+                                        part(FUNCTION_NAME, ASCIIStringFormat.INSTANCE, "IN"), //
+                                        all(arguments) //
+                                ) //
+                        ) //
+                ) //
+        );
+    }
+
+    static byte[] recollectionResponse(int entryCount, int fieldSize) {
+        Random random = new Random(entryCount * 31 + fieldSize);
+        List<Consumer<? super TiesEBMLWriter>> results = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            results.add(part(RECOLLECTION_RESULT, entry(random, fieldSize, false)));
+        }
+        return encodeTies( //
+                part(RECOLLECTION_RESPONSE, //
+                        part(MESSAGE_ID, LongFormat.INSTANCE, 2L), //
+                        all(results) //
+                ) //
+        );
+    }
+
+    /**
+     * Decodes every message of the packet with the protocol readers.
+     */
+    static List<Reader.Message> decode(byte[] packet) throws TiesDBException {
+        List<Reader.Message> messages = new LinkedList<>();
+        MessageReader messageReader = new MessageReader();
+        accept(packet, new CountingOutput(), session -> read(session, messageReader, messages::add));
+        return messages;
+    }
+
+    static void read(Conversation session, MessageReader messageReader,
+            CheckedConsumer<Reader.Message, TiesDBProtocolException> messageHandler) throws TiesDBProtocolException {
+        Event event;
+        while (null != (event = session.get())) {
+            if (EventState.BEGIN.equals(event.getState()) && messageReader.accept(session, event, messageHandler)) {
+                continue;
+            }
+            throw new TiesDBProtocolException("Illegal root event: " + event);
+        }
+    }
+
+    static void accept(byte[] packet, TiesDBChannelOutput output, CheckedConsumer<Conversation, TiesDBException> handler)
+            throws TiesDBException {
+        PROTOCOL.acceptChannel(new TiesDBChannelBufferInput(ByteBuffer.wrap(packet)), output, handlerProvider(handler));
+    }
+
+    static void create(TiesDBChannelOutput output, CheckedConsumer<Conversation, TiesDBException> handler) throws TiesDBException {
+        PROTOCOL.createChannel(output, handlerProvider(handler));
+    }
+
+    private static TiesDBProtocolHandlerProvider handlerProvider(CheckedConsumer<Conversation, TiesDBException> handler) {
+        return new TiesDBProtocolHandlerProvider() {
+            @Override
+            public <S> TiesDBProtocolHandler<S> getHandler(Version localVersion, Version remoteVersion, S session) {
+                return s -> handler.accept((Conversation) s);
+            }
+        };
+    }
+
+    /**
+     * Discards written bytes keeping only their count. Never gets closed so a
+     * single instance serves every benchmark invocation.
+     */
+    static final class CountingOutput implements TiesDBChannelOutput {
+
+        private long count;
+
+        long getCount() {
+            return count;
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public void writeByte(byte b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+            // NOP
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // NOP
+        }
+
+    }
+
+    private static Consumer<TiesEBMLWriter> entry(Random random, int fieldSize, boolean withCheque) {
+        LinkedList<Supplier<byte[]>> fieldHashes = new LinkedList<>();
+        // Fields are listed in the order of their names as required by the fields hash
+        byte[] fieldsData = encodeTies( //
+                part(FIELD, //
+                        part(FIELD_TYPE, ASCIIStringFormat.INSTANCE, "uuid"), //
+                        ties(newDigestConsumer(fieldHashes), //
+                                part(FIELD_NAME, UTF8StringFormat.INSTANCE, ID_FIELD_NAME), //
+                                part(FIELD_VALUE, UUIDFormat.INSTANCE, new UUID(random.nextLong(), random.nextLong())) //
+                        ) //
+                ), //
+                part(FIELD, //
+                        part(FIELD_TYPE, ASCIIStringFormat.INSTANCE, "binary"), //
+                        ties(newDigestConsumer(fieldHashes), //
+                                part(FIELD_NAME, UTF8StringFormat.INSTANCE, DATA_FIELD_NAME), //
+                                part(FIELD_VALUE, BytesFormat.INSTANCE, randomBytes(random, fieldSize)) //
+                        ) //
+                ) //
+        );
+        Digest digest = DigestManager.getDigest(DEFAULT_DIGEST_NAME);
+        for (Supplier<byte[]> fieldHash : fieldHashes) {
+            digest.update(fieldHash.get());
+        }
+        byte[] fldHash = new byte[digest.getDigestSize()];
+        digest.doFinal(fldHash, 0);
+
+        return part(ENTRY, //
+                part(ENTRY_HEADER, //
+                        tiesPartSign(KEY, SIGNATURE, //
+                                part(TABLESPACE_NAME, UTF8StringFormat.INSTANCE, TABLESPACE), //
+                                part(TABLE_NAME, UTF8StringFormat.INSTANCE, TABLE), //
+                                part(ENTRY_TIMESTAMP, DateFormat.INSTANCE, TIMESTAMP), //
+                                part(ENTRY_VERSION, IntegerFormat.INSTANCE, 0x01), //
+                                part(ENTRY_FLD_HASH, BytesFormat.INSTANCE, fldHash), //
+                                part(ENTRY_NETWORK, IntegerFormat.INSTANCE, NETWORK), //
+                                part(SIGNER, BytesFormat.INSTANCE, KEY.getAddress()) //
+                        ) //
+                ), //
+                part(FIELD_LIST, BytesFormat.INSTANCE, fieldsData), //
+                partIf(withCheque, part(CHEQUE_LIST, //
+                        tiesPartChequeV1(KEY, //
+                                CONTRACT_ADDRESS, //
+                                CHEQUE_SESSION, //
+                                BigInteger.valueOf(random.nextInt(Integer.MAX_VALUE)), //
+                                BigInteger.valueOf(110), //
+                                TABLESPACE, //
+                                TABLE) //
+                )) //
+        );
+    }
+
+    private static Consumer<TiesEBMLWriter> all(List<Consumer<? super TiesEBMLWriter>> consumers) {
+        return w -> {
+            for (Consumer<? super TiesEBMLWriter> consumer : consumers) {
+                consumer.accept(w);
+            }
+        };
+    }
+
+    private static Consumer<Byte> newDigestConsumer(LinkedList<Supplier<byte[]>> fieldHashes) {
+        Digest digest = DigestManager.getDigest(DEFAULT_DIGEST_NAME);
+        fieldHashes.addLast(() -> {
+            byte[] buf = new byte[digest.getDigestSize()];
+            digest.doFinal(buf, 0);
+            return buf;
+        });
+        return digest::update;
+    }
+
+    private static byte[] randomBytes(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private ProtocolFixtures() {
+    }
+
+}
@@ -0,0 +1,550 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.bench;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.tiesdb.protocol.exception.TiesDBProtocolException;
+import com.tiesdb.protocol.v0r0.ebml.TiesDBRequestConsistency;
+import com.tiesdb.protocol.v0r0.reader.ChequeReader;
+import com.tiesdb.protocol.v0r0.reader.ComputeRetrieveReader.ComputeRetrieve;
+import com.tiesdb.protocol.v0r0.reader.EntryHeaderReader;
+import com.tiesdb.protocol.v0r0.reader.EntryReader;
+import com.tiesdb.protocol.v0r0.reader.FieldReader;
+import com.tiesdb.protocol.v0r0.reader.FieldRetrieveReader.FieldRetrieve;
+import com.tiesdb.protocol.v0r0.reader.FilterReader;
+import com.tiesdb.protocol.v0r0.reader.FunctionReader;
+import com.tiesdb.protocol.v0r0.reader.FunctionReader.FunctionArgument;
+import com.tiesdb.protocol.v0r0.reader.ModificationRequestReader;
+import com.tiesdb.protocol.v0r0.reader.Reader;
+import com.tiesdb.protocol.v0r0.reader.RecollectionRequestReader;
+import com.tiesdb.protocol.v0r0.reader.RecollectionResponseReader;
+import com.tiesdb.protocol.v0r0.reader.RecollectionResultReader;
+import com.tiesdb.protocol.v0r0.writer.AbstractFunctionWriter.Function;
+import com.tiesdb.protocol.v0r0.writer.AbstractFunctionWriter.Function.Argument;
+import com.tiesdb.protocol.v0r0.writer.ChequeWriter.Cheque;
+import com.tiesdb.protocol.v0r0.writer.EntryHeaderWriter.EntryHeader;
+import com.tiesdb.protocol.v0r0.writer.EntryWriter.Entry;
+import com.tiesdb.protocol.v0r0.writer.FieldWriter.Field;
+import com.tiesdb.protocol.v0r0.writer.ModificationRequestWriter.ModificationRequest;
+import com.tiesdb.protocol.v0r0.writer.Multiple;
+import com.tiesdb.protocol.v0r0.writer.RecollectionRequestWriter.RecollectionRequest;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResponseWriter.RecollectionResponse;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResponseWriter.RecollectionResult;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResultWriter.RecollectionEntry;
+import com.tiesdb.protocol.v0r0.writer.Writer;
+
+import one.utopic.sparse.ebml.EBMLFormat;
+import one.utopic.sparse.ebml.format.BytesFormat;
+
+/**
+ * Converts decoded fixtures into the models consumed by the protocol
+ * writers, so encoding benchmarks write exactly what decoding ones read.
+ */
+final class WriterModels {
+
+    static Writer.Message of(Reader.Message message) throws TiesDBProtocolException {
+        Writer.Message[] result = new Writer.Message[1];
+        message.accept(new Reader.Message.Visitor() {
+
+            @Override
+            public void on(Reader.Request request) throws TiesDBProtocolException {
+                if (request instanceof ModificationRequestReader.ModificationRequest) {
+                    result[0] = of((ModificationRequestReader.ModificationRequest) request);
+                } else if (request instanceof RecollectionRequestReader.RecollectionRequest) {
+                    result[0] = of((RecollectionRequestReader.RecollectionRequest) request);
+                } else {
+                    throw new TiesDBProtocolException("Unsupported request " + request);
+                }
+            }
+
+            @Override
+            public void on(Reader.Response response) throws TiesDBProtocolException {
+                if (response instanceof RecollectionResponseReader.RecollectionResponse) {
+                    result[0] = of((RecollectionResponseReader.RecollectionResponse) response);
+                } else {
+                    throw new TiesDBProtocolException("Unsupported response " + response);
+                }
+            }
+
+        });
+        return result[0];
+    }
+
+    static ModificationRequest of(ModificationRequestReader.ModificationRequest request) {
+        TiesDBRequestConsistency consistency = request.getConsistency();
+        BigInteger messageId = request.getMessageId();
+        List<Entry> entries = request.getEntries().stream().map(WriterModels::of).collect(Collectors.toList());
+        return new ModificationRequest() {
+
+            @Override
+            public BigInteger getMessageId() {
+                return messageId;
+            }
+
+            @Override
+            public TiesDBRequestConsistency getConsistency() {
+                return consistency;
+            }
+
+            @Override
+            public Iterable<Entry> getEntries() {
+                return entries;
+            }
+
+        };
+    }
+
+    static RecollectionRequest of(RecollectionRequestReader.RecollectionRequest request) {
+        TiesDBRequestConsistency consistency = request.getConsistency();
+        BigInteger messageId = request.getMessageId();
+        String tablespaceName = request.getTablespaceName();
+        String tableName = request.getTableName();
+        List<RecollectionRequest.Retrieve> retrieves = request.getRetrieves().stream().map(WriterModels::of)
+                .collect(Collectors.toList());
+        List<RecollectionRequest.Filter> filters = request.getFilters().stream().map(WriterModels::of).collect(Collectors.toList());
+        List<Cheque> cheques = request.getCheques().stream().map(WriterModels::of).collect(Collectors.toList());
+        return new RecollectionRequest() {
+
+            @Override
+            public BigInteger getMessageId() {
+                return messageId;
+            }
+
+            @Override
+            public TiesDBRequestConsistency getConsistency() {
+                return consistency;
+            }
+
+            @Override
+            public String getTablespaceName() {
+                return tablespaceName;
+            }
+
+            @Override
+            public String getTableName() {
+                return tableName;
+            }
+
+            @Override
+            public List<Retrieve> getRetrieves() {
+                return retrieves;
+            }
+
+            @Override
+            public List<Filter> getFilters() {
+                return filters;
+            }
+
+            @Override
+            public List<Cheque> getCheques() {
+                return cheques;
+            }
+
+        };
+    }
+
+    static RecollectionResponse of(RecollectionResponseReader.RecollectionResponse response) throws TiesDBProtocolException {
+        BigInteger messageId = response.getMessageId();
+        List<RecollectionResult> results = new ArrayList<>(response.getRecollectionResults().size());
+        for (RecollectionResponseReader.RecollectionResult result : response.getRecollectionResults()) {
+            if (!(result instanceof RecollectionResultReader.RecollectionEntry)) {
+                throw new TiesDBProtocolException("Unsupported recollection result " + result);
+            }
+            results.add(of((RecollectionResultReader.RecollectionEntry) result));
+        }
+        return new RecollectionResponse() {
+
+            @Override
+            public BigInteger getMessageId() {
+                return messageId;
+            }
+
+            @Override
+            public Iterable<RecollectionResult> getResults() {
+                return results;
+            }
+
+        };
+    }
+
+    static RecollectionEntry of(RecollectionResultReader.RecollectionEntry entry) {
+        EntryHeader header = of(entry.getHeader());
+        Multiple<Field> entryFields = multiple(entry.getFields().values());
+        Multiple<Field> computedFields = multiple(entry.getComputeFields());
+        return new RecollectionEntry() {
+
+            @Override
+            public EntryHeader getEntryHeader() {
+                return header;
+            }
+
+            @Override
+            public Multiple<Field> getEntryFields() {
+                return entryFields;
+            }
+
+            @Override
+            public Multiple<Field> getComputedFields() {
+                return computedFields;
+            }
+
+        };
+    }
+
+    static Entry of(EntryReader.Entry entry) {
+        EntryHeader header = of(entry.getHeader());
+        List<Field> fields = entry.getFields().values().stream().map(WriterModels::of).collect(Collectors.toList());
+        List<Cheque> cheques = entry.getCheques().stream().map(WriterModels::of).collect(Collectors.toList());
+        return new Entry() {
+
+            @Override
+            public EntryHeader getHeader() {
+                return header;
+            }
+
+            @Override
+            public Iterable<Field> getFields() {
+                return fields;
+            }
+
+            @Override
+            public Iterable<Cheque> getCheques() {
+                return cheques;
+            }
+
+        };
+    }
+
+    static EntryHeader of(EntryHeaderReader.EntryHeader header) {
+        String tablespaceName = header.getTablespaceName();
+        String tableName = header.getTableName();
+        Date entryTimestamp = header.getEntryTimestamp();
+        BigInteger entryVersion = header.getEntryVersion();
+        Integer entryNetwork = header.getEntryNetwork();
+        byte[] entryOldHash = header.getEntryOldHash();
+        byte[] entryFldHash = header.getEntryFldHash();
+        byte[] signature = header.getSignature();
+        byte[] signer = header.getSigner();
+        return new EntryHeader() {
+
+            @Override
+            public String getTablespaceName() {
+                return tablespaceName;
+            }
+
+            @Override
+            public String getTableName() {
+                return tableName;
+            }
+
+            @Override
+            public Date getEntryTimestamp() {
+                return entryTimestamp;
+            }
+
+            @Override
+            public BigInteger getEntryVersion() {
+                return entryVersion;
+            }
+
+            @Override
+            public Integer getEntryNetwork() {
+                return entryNetwork;
+            }
+
+            @Override
+            public byte[] getEntryOldHash() {
+                return entryOldHash;
+            }
+
+            @Override
+            public byte[] getEntryFldHash() {
+                return entryFldHash;
+            }
+
+            @Override
+            public byte[] getSignature() {
+                return signature;
+            }
+
+            @Override
+            public byte[] getSigner() {
+                return signer;
+            }
+
+        };
+    }
+
+    static Field of(FieldReader.Field field) {
+        String name = field.getName();
+        String type = field.getType();
+        byte[] rawValue = field.getRawValue();
+        if (null == rawValue) {
+            byte[] hash = field.getHash();
+            return new Field.HashField() {
+
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public String getType() {
+                    return type;
+                }
+
+                @Override
+                public byte[] getHash() {
+                    return hash;
+                }
+
+            };
+        }
+        return new Field.ValueField<byte[]>() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public EBMLFormat<byte[]> getFormat() {
+                return BytesFormat.INSTANCE;
+            }
+
+            @Override
+            public byte[] getValue() {
+                return rawValue;
+            }
+
+        };
+    }
+
+    static Cheque of(ChequeReader.Cheque cheque) {
+        BigInteger chequeVersion = cheque.getChequeVersion();
+        BigInteger chequeNetwork = cheque.getChequeNetwork();
+        String tablespaceName = cheque.getTablespaceName();
+        String tableName = cheque.getTableName();
+        UUID chequeSession = cheque.getChequeSession();
+        BigInteger chequeNumber = cheque.getChequeNumber();
+        BigInteger chequeCropAmount = cheque.getChequeCropAmount();
+        byte[] signature = cheque.getSignature();
+        byte[] signer = cheque.getSigner();
+        return new Cheque() {
+
+            @Override
+            public BigInteger getChequeVersion() {
+                return chequeVersion;
+            }
+
+            @Override
+            public BigInteger getChequeNetwork() {
+                return chequeNetwork;
+            }
+
+            @Override
+            public String getTablespaceName() {
+                return tablespaceName;
+            }
+
+            @Override
+            public String getTableName() {
+                return tableName;
+            }
+
+            @Override
+            public UUID getChequeSession() {
+                return chequeSession;
+            }
+
+            @Override
+            public BigInteger getChequeNumber() {
+                return chequeNumber;
+            }
+
+            @Override
+            public BigInteger getChequeCropAmount() {
+                return chequeCropAmount;
+            }
+
+            @Override
+            public byte[] getSignature() {
+                return signature;
+            }
+
+            @Override
+            public byte[] getSigner() {
+                return signer;
+            }
+
+        };
+    }
+
+    static RecollectionRequest.Retrieve of(RecollectionRequestReader.Retrieve retrieve) {
+        return retrieve.accept(new RecollectionRequestReader.Retrieve.Visitor<RecollectionRequest.Retrieve>() {
+
+            @Override
+            public RecollectionRequest.Retrieve on(FieldRetrieve retrieve) {
+                String fieldName = retrieve.getFieldName();
+                return (RecollectionRequest.Retrieve.Field) () -> fieldName;
+            }
+
+            @Override
+            public RecollectionRequest.Retrieve on(ComputeRetrieve retrieve) {
+                String alias = retrieve.getAlias();
+                String type = retrieve.getType();
+                String name = retrieve.getName();
+                List<Argument> arguments = of(retrieve.getArguments());
+                return new RecollectionRequest.Retrieve.Compute() {
+
+                    @Override
+                    public String getName() {
+                        return name;
+                    }
+
+                    @Override
+                    public List<Argument> getArguments() {
+                        return arguments;
+                    }
+
+                    @Override
+                    public String getAlias() {
+                        return alias;
+                    }
+
+                    @Override
+                    public String getType() {
+                        return type;
+                    }
+
+                };
+            }
+
+        });
+    }
+
+    static RecollectionRequest.Filter of(FilterReader.Filter filter) {
+        String fieldName = filter.getFieldName();
+        String name = filter.getName();
+        List<Argument> arguments = of(filter.getArguments());
+        return new RecollectionRequest.Filter() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public List<Argument> getArguments() {
+                return arguments;
+            }
+
+            @Override
+            public String getFieldName() {
+                return fieldName;
+            }
+
+        };
+    }
+
+    private static List<Argument> of(List<FunctionArgument> arguments) {
+        return arguments.stream().map(a -> a.accept(new FunctionArgument.Visitor<Argument>() {
+
+            @Override
+            public Argument on(FunctionReader.ArgumentFunction arg) {
+                FunctionReader.Function function = arg.getFunction();
+                String name = function.getName();
+                List<Argument> arguments = of(function.getArguments());
+                return new Argument.ArgumentFunction() {
+
+                    @Override
+                    public String getName() {
+                        return name;
+                    }
+
+                    @Override
+                    public List<Argument> getArguments() {
+                        return arguments;
+                    }
+
+                };
+            }
+
+            @Override
+            public Argument on(FunctionReader.ArgumentReference arg) {
+                String name = arg.getFieldName();
+                return (Argument.ArgumentReference) () -> name;
+            }
+
+            @Override
+            public Argument on(FunctionReader.ArgumentStatic arg) {
+                String type = arg.getType();
+                byte[] rawValue = arg.getRawValue();
+                return new Argument.ArgumentStatic() {
+
+                    @Override
+                    public String getType() {
+                        return type;
+                    }
+
+                    @Override
+                    public byte[] getRawValue() {
+                        return rawValue;
+                    }
+
+                };
+            }
+
+        })).collect(Collectors.toList());
+    }
+
+    private static Multiple<Field> multiple(Collection<FieldReader.Field> fields) {
+        List<Field> list = fields.stream().map(WriterModels::of).collect(Collectors.toList());
+        return new Multiple<Field>() {
+
+            @Override
+            public Iterator<Field> iterator() {
+                return list.iterator();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return list.isEmpty();
+            }
+
+        };
+    }
+
+    private WriterModels() {
+    }
+
+}
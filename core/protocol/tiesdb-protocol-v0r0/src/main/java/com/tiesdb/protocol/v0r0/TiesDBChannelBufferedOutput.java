@@ -18,24 +18,43 @@
  */
 package com.tiesdb.protocol.v0r0;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
 import java.util.Objects;
 
 import com.tiesdb.protocol.api.TiesDBProtocol.TiesDBChannelOutput;
 import com.tiesdb.protocol.v0r0.util.CheckedConsumer;
 
+/**
+ * Output deferring the packet header until there is some content to send.
+ * 
+ * <P>
+ * Content is kept in memory up to the streaming threshold. After the threshold
+ * is passed the header and the content are passed to the upstream as they are
+ * written, so the response is not held in memory as a whole.
+ */
 public class TiesDBChannelBufferedOutput implements TiesDBChannelOutput {
 
+    public static final int STREAMING_THRESHOLD = 256 * 1024;
+
     private final TiesDBChannelOutput upstream;
     private final CheckedConsumer<TiesDBChannelOutput, IOException> headerWriter;
-    private volatile ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    private final int threshold;
+    private byte[] buf = new byte[256];
+    private int count = 0;
     private volatile boolean headerIsWritten = false;
+    private volatile boolean closed = false;
 
     public TiesDBChannelBufferedOutput(TiesDBChannelOutput upstream, CheckedConsumer<TiesDBChannelOutput, IOException> headerWriter) {
+        this(upstream, headerWriter, STREAMING_THRESHOLD);
+    }
+
+    public TiesDBChannelBufferedOutput(TiesDBChannelOutput upstream, CheckedConsumer<TiesDBChannelOutput, IOException> headerWriter,
+            int threshold) {
         this.headerWriter = headerWriter;
         this.upstream = Objects.requireNonNull(upstream);
+        this.threshold = threshold;
     }
 
     @Override
@@ -44,39 +63,79 @@ public class TiesDBChannelBufferedOutput implements TiesDBChannelOutput {
     }
 
     @Override
-    public void writeByte(byte b) throws IOException {
+    public synchronized void writeByte(byte b) throws IOException {
         checkNotClosed();
-        baos.write(b);
+        ensureCapacity(count + 1);
+        buf[count++] = b;
+        if (count >= threshold) {
+            drain();
+        }
     }
 
     @Override
-    public void flush() throws IOException {
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
         checkNotClosed();
-        byte[] ba;
-        synchronized (baos) {
-            ba = this.baos.toByteArray();
-            baos.reset();
+        if (count + len >= threshold) {
+            drain();
+            writeUpstream(b, off, len);
+        } else {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
         }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        checkNotClosed();
+        drain();
         synchronized (upstream) {
-            if (!headerIsWritten && ba.length > 0) {
-                headerWriter.accept(upstream);
-                headerIsWritten = true;
-            }
-            for (int i = 0; i < ba.length; i++) {
-                upstream.writeByte(ba[i]);
-            }
             upstream.flush();
         }
     }
 
+    /**
+     * @return true if some content was already passed to the upstream
+     */
+    public boolean isStreaming() {
+        return headerIsWritten;
+    }
+
     @Override
     public boolean isClosed() {
-        return null == this.baos;
+        return closed;
     }
 
     @Override
-    public void close() throws IOException {
-        this.baos = null;
+    public synchronized void close() throws IOException {
+        this.closed = true;
+        this.buf = null;
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            writeUpstream(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    private void writeUpstream(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        synchronized (upstream) {
+            if (!headerIsWritten) {
+                headerWriter.accept(upstream);
+                headerIsWritten = true;
+            }
+            upstream.write(b, off, len);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(capacity, buf.length << 1));
+        }
     }
 
     private void checkNotClosed() throws IOException {
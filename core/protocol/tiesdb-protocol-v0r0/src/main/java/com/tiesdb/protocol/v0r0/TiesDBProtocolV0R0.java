@@ -30,7 +30,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
 
@@ -47,6 +46,7 @@ import com.tiesdb.protocol.exception.TiesDBException;
 import com.tiesdb.protocol.exception.TiesDBProtocolException;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.EventState;
 import com.tiesdb.protocol.v0r0.ebml.TiesDBType;
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLListener;
 import com.tiesdb.protocol.v0r0.ebml.TiesEBMLReader;
 import com.tiesdb.protocol.v0r0.ebml.TiesEBMLReader.UnknownTiesEBMLType;
 import com.tiesdb.protocol.v0r0.ebml.TiesEBMLWriter;
@@ -165,16 +165,18 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
     protected void openChannel(TiesDBChannelOutput output, CheckedConsumer<Conversation, TiesDBException> sessionConsumer)
             throws TiesDBException, IOException {
         requireNonNull(output);
+        TiesDBChannelBufferedOutput bufferedOutput = new TiesDBChannelBufferedOutput(output, out -> {
+            writePacketHeader(VERSION, out);
+            LOG.debug("Header is written for {}", sessionConsumer);
+        });
         try {
-            TiesDBChannelOutput bufferedOutput = new TiesDBChannelBufferedOutput(output, out -> {
-                writePacketHeader(VERSION, out);
-                LOG.debug("Header is written for {}", sessionConsumer);
-            });
             Conversation session = openConversation(CLOSED_INPUT, bufferedOutput);
             sessionConsumer.accept(session);
             bufferedOutput.flush();
         } catch (Exception e) {
-            writePacketHeader(VERSION, output);
+            if (!bufferedOutput.isStreaming()) {
+                writePacketHeader(VERSION, output);
+            }
             throw new TiesDBException("Channel open failed", e);
         }
     }
@@ -183,28 +185,44 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
             CheckedConsumer<Conversation, TiesDBException> sessionConsumer) throws TiesDBException, IOException {
         requireNonNull(input);
         requireNonNull(output);
+        TiesDBChannelBufferedOutput bufferedOutput = new TiesDBChannelBufferedOutput(output, out -> {
+            writePacketHeader(VERSION, out);
+            LOG.debug("Header is written for {}", sessionConsumer);
+        });
         try {
-            TiesDBChannelOutput bufferedOutput = new TiesDBChannelBufferedOutput(output, out -> {
-                writePacketHeader(VERSION, out);
-                LOG.debug("Header is written for {}", sessionConsumer);
-            });
             Conversation session = openConversation(input, bufferedOutput);
             sessionConsumer.accept(session);
             bufferedOutput.flush();
         } catch (Exception e) {
             LOG.debug("Handle exception", e);
+            if (bufferedOutput.isStreaming()) {
+                // Partial response was already sent, error can't be appended
+                throw new TiesDBException("Channel processing failed after response streaming started", e);
+            }
             writePacketHeader(VERSION, output);
             EBMLHelper.writeError(openConversation(input, output), e);
         }
     }
 
+    private static final EBMLEvent[][] WRITER_EVENTS = new EBMLEvent[TiesDBType.values().length][EventState.values().length];
+
+    static {
+        for (TiesDBType type : TiesDBType.values()) {
+            WRITER_EVENTS[type.ordinal()][EventState.BEGIN.ordinal()] = new EBMLEvent(type, CommonEventType.BEGIN);
+            WRITER_EVENTS[type.ordinal()][EventState.END.ordinal()] = new EBMLEvent(type, CommonEventType.END);
+        }
+    }
+
     protected Conversation openConversation(TiesDBChannelInput input, TiesDBChannelOutput output) {
         TiesEBMLReader reader = new TiesEBMLReader(input, TiesDBType.Context.ROOT);
         TiesEBMLWriter writer = new TiesEBMLWriter(output);
         return new Conversation() {
 
+            private int depth;
+
             public void accept(Event e) throws TiesDBProtocolException {
-                writer.accept(new EBMLEvent(e.getType(), convertEventState(e.getState())));
+                writer.accept(WRITER_EVENTS[e.getType().ordinal()][e.getState().ordinal()]);
+                depth += EventState.BEGIN.equals(e.getState()) ? 1 : -1;
             }
 
             public Event get() throws TiesDBProtocolException {
@@ -222,7 +240,7 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
                         };
                     // $CASES-OMITTED$
                     default:
-                        return new Event(eventType, convertEventState(e.getType()));
+                        return Event.of(eventType, convertEventState(e.getType()));
                     }
                 }
                 return null;
@@ -236,15 +254,26 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
                 format.write(writer, data);
             }
 
+            public void writeRaw(byte[] buf, int off, int len) throws TiesDBProtocolException {
+                if (0 != depth) {
+                    throw new TiesDBProtocolException("Raw data can be written only between root elements");
+                }
+                try {
+                    writer.writeRaw(buf, off, len);
+                } catch (IOException e) {
+                    throw new TiesDBProtocolException("Raw data write failed", e);
+                }
+            }
+
             public void skip() {
                 TiesEBMLReader.SKIP.read(reader);
             }
 
-            public void addReaderListener(Consumer<Byte> listener) {
+            public void addReaderListener(TiesEBMLListener listener) {
                 reader.addListener(listener);
             }
 
-            public void addWriterListener(Consumer<Byte> listener) {
+            public void addWriterListener(TiesEBMLListener listener) {
                 writer.addListener(listener);
             }
 
@@ -281,21 +310,6 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
         throw new TiesDBProtocolException("Unknown Event type " + type);
     }
 
-    private CommonEventType convertEventState(EventState state) throws TiesDBProtocolException {
-        requireNonNull(state);
-
-        switch (state) {
-        case BEGIN:
-            return CommonEventType.BEGIN;
-        case END:
-            return CommonEventType.END;
-        default:
-            break;
-        }
-
-        throw new TiesDBProtocolException("Unknown Event state " + state);
-    }
-
     private TiesDBType convertEventType(EBMLType type) throws TiesDBProtocolException {
         requireNonNull(type);
         if (type instanceof TiesDBType) {
@@ -315,6 +329,16 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
 
         public static class Event {
 
+            private static final Event[][] EVENTS = new Event[TiesDBType.values().length][EventState.values().length];
+
+            static {
+                for (TiesDBType type : TiesDBType.values()) {
+                    for (EventState state : EventState.values()) {
+                        EVENTS[type.ordinal()][state.ordinal()] = new Event(type, state);
+                    }
+                }
+            }
+
             private final TiesDBType type;
             private final EventState state;
 
@@ -323,6 +347,13 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
                 this.state = requireNonNull(state);
             }
 
+            /**
+             * @return shared immutable event of the type and state
+             */
+            public static Event of(TiesDBType type, EventState state) {
+                return EVENTS[type.ordinal()][state.ordinal()];
+            }
+
             public TiesDBType getType() {
                 return type;
             }
@@ -346,15 +377,21 @@ public class TiesDBProtocolV0R0 implements TiesDBProtocol {
 
         <O> void write(EBMLWriter.EBMLWriteFormat<O> format, O data) throws TiesDBProtocolException;
 
+        /**
+         * Writes complete root elements encoded elsewhere, e.g. by
+         * {@link com.tiesdb.protocol.v0r0.ebml.TiesEBMLDirectWriter}.
+         */
+        void writeRaw(byte[] buf, int off, int len) throws TiesDBProtocolException;
+
         Event get() throws TiesDBProtocolException;
 
         void accept(Event e) throws TiesDBProtocolException;
 
         void skip();
 
-        void addReaderListener(Consumer<Byte> listener);
+        void addReaderListener(TiesEBMLListener listener);
 
-        void addWriterListener(Consumer<Byte> listener);
+        void addWriterListener(TiesEBMLListener listener);
 
         void removeReaderListener(Object listener);
 
@@ -19,9 +19,11 @@
 package com.tiesdb.protocol.v0r0.ebml;
 
 import java.math.BigInteger;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import one.utopic.sparse.ebml.EBMLCode;
 import one.utopic.sparse.ebml.EBMLType;
@@ -195,43 +197,140 @@ public enum TiesDBType implements TiesEBMLType {
         ;
 
         static {
-            if (null != TiesDBType.class) { // Initialize TiesDB types for all contexts
-                // OK
+            try { // Initialize TiesDB types for all contexts
+                Class.forName(TiesDBType.class.getName(), true, TiesDBType.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new ExceptionInInitializerError(e);
             }
         }
 
-        private final Map<EBMLCode, EBMLType> typeMap = new HashMap<>();
+        private static final int MAX_TABLE_SIZE = 1 << 12;
+
+        private final Map<EBMLCode, TiesDBType> typeMap = new HashMap<>();
         private final Context[] parentContexts;
 
+        private volatile boolean sealed = false;
+        private EBMLCode[] tableCodes;
+        private TiesDBType[] tableTypes;
+        private int tableMask;
+        private Set<TiesDBType> containedTypes;
+        private Set<Context> ancestorContexts;
+
         private Context(Context... parentContexts) {
             this.parentContexts = parentContexts;
         }
 
         @Override
         public EBMLType getType(EBMLCode code) {
-            return typeMap.computeIfAbsent(code, c -> {
-                EBMLType result = null;
-                for (int i = 0; result == null && i < parentContexts.length; i++) {
-                    result = parentContexts[i].getType(code);
+            if (!sealed) {
+                return lookup(code);
+            }
+            int i = index(code.hashCode(), tableMask);
+            EBMLCode c;
+            while (null != (c = tableCodes[i])) {
+                if (c.equals(code)) {
+                    return tableTypes[i];
                 }
-                return result;
-            });
+                i = (i + 1) & tableMask;
+            }
+            return null;
         }
 
         protected void register(TiesDBType type) {
-            if (null != getType(type.code) || typeMap.putIfAbsent(type.code, type) != null) {
+            if (sealed) {
+                throw new IllegalStateException("Context " + this + " is sealed");
+            }
+            if (null != lookup(type.code) || typeMap.putIfAbsent(type.code, type) != null) {
                 throw new IllegalArgumentException("EventType is already registered for " + type.code);
             }
         }
 
         @Override
         public boolean contains(EBMLType type) {
-            return typeMap.containsValue(type) || parentContains(type);
+            if (!sealed) {
+                return typeMap.containsValue(type) || parentContains(type);
+            }
+            return containedTypes.contains(type);
         }
 
         @Override
         public boolean is(EBMLType.Context context) {
-            return equals(context) || parentIs(context);
+            if (!sealed) {
+                return equals(context) || parentIs(context);
+            }
+            return ancestorContexts.contains(context);
+        }
+
+        private TiesDBType lookup(EBMLCode code) {
+            TiesDBType result = typeMap.get(code);
+            for (int i = 0; result == null && i < parentContexts.length; i++) {
+                result = parentContexts[i].lookup(code);
+            }
+            return result;
+        }
+
+        private void collect(Map<EBMLCode, TiesDBType> types, Set<TiesDBType> contained, Set<Context> ancestors) {
+            ancestors.add(this);
+            contained.addAll(typeMap.values());
+            typeMap.forEach((code, type) -> {
+                if (null != code) { // Unknown types have no code
+                    types.putIfAbsent(code, type);
+                }
+            });
+            for (int i = 0; i < parentContexts.length; i++) {
+                parentContexts[i].collect(types, contained, ancestors);
+            }
+        }
+
+        /**
+         * Builds the code dispatch table of this context including inherited
+         * types. The table size is chosen to place every code in its own slot
+         * where possible, so lookups need a single comparison.
+         */
+        private void seal() {
+            Map<EBMLCode, TiesDBType> types = new HashMap<>();
+            Set<TiesDBType> contained = EnumSet.noneOf(TiesDBType.class);
+            Set<Context> ancestors = EnumSet.noneOf(Context.class);
+            collect(types, contained, ancestors);
+
+            int size = Integer.highestOneBit(Math.max(1, types.size() * 2 - 1)) << 1;
+            while (size < MAX_TABLE_SIZE && !isCollisionFree(types.keySet(), size - 1)) {
+                size <<= 1;
+            }
+            EBMLCode[] codes = new EBMLCode[size];
+            TiesDBType[] values = new TiesDBType[size];
+            for (Map.Entry<EBMLCode, TiesDBType> e : types.entrySet()) {
+                int i = index(e.getKey().hashCode(), size - 1);
+                while (null != codes[i]) {
+                    i = (i + 1) & (size - 1);
+                }
+                codes[i] = e.getKey();
+                values[i] = e.getValue();
+            }
+
+            this.tableCodes = codes;
+            this.tableTypes = values;
+            this.tableMask = size - 1;
+            this.containedTypes = contained;
+            this.ancestorContexts = ancestors;
+            this.sealed = true;
+        }
+
+        private static boolean isCollisionFree(Set<EBMLCode> codes, int mask) {
+            boolean[] used = new boolean[mask + 1];
+            for (EBMLCode code : codes) {
+                int i = index(code.hashCode(), mask);
+                if (used[i]) {
+                    return false;
+                }
+                used[i] = true;
+            }
+            return true;
+        }
+
+        private static int index(int hash, int mask) {
+            int h = hash * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
         }
 
         private boolean parentIs(EBMLType.Context context) {
@@ -252,8 +351,15 @@ public enum TiesDBType implements TiesEBMLType {
 
     }
 
+    static {
+        for (Context context : Context.values()) {
+            context.seal();
+        }
+    }
+
     private final Context context;
     private final EBMLCode code;
+    private final byte[] codeBytes;
 
     private TiesDBType(Context context, Context... regContexts) {
         this(0, context, regContexts);
@@ -267,8 +373,10 @@ public enum TiesDBType implements TiesEBMLType {
                     throw new IllegalArgumentException("Wrong code for type " + this + ". Unknown types code should not be set.");
                 }
                 this.code = null;
+                this.codeBytes = null;
             } else {
-                EBMLCode ebmlCode = new EBMLCode(code > 0xFF ? longToBytes(code) : new byte[] { (byte) (0xFF & code) });
+                this.codeBytes = code > 0xFF ? longToBytes(code) : new byte[] { (byte) (0xFF & code) };
+                EBMLCode ebmlCode = new EBMLCode(codeBytes);
                 if (Context.VALUE.equals(context) && (code & 1) > 0) {
                     throw new IllegalArgumentException("Wrong " + ebmlCode + " for " + this + ". Code should be even for data frames.");
                 } else if (!Context.VALUE.equals(context) && (code & 1) == 0) {
@@ -290,6 +398,13 @@ public enum TiesDBType implements TiesEBMLType {
         return code;
     }
 
+    /**
+     * Shared bytes of the EBML code. Should not be modified.
+     */
+    byte[] getEBMLCodeBytes() {
+        return codeBytes;
+    }
+
     @Override
     public EBMLType.Context getContext() {
         return context;
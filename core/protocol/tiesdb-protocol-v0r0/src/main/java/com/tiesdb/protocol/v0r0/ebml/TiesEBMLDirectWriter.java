@@ -0,0 +1,255 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.ebml;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import one.utopic.abio.api.output.Output;
+import one.utopic.sparse.ebml.EBMLWriter.EBMLWriteFormat;
+import one.utopic.sparse.ebml.EBMLWriter.EBMLWriteFormat.Writable;
+
+/**
+ * Encodes EBML elements without intermediate frames.
+ * <P>
+ * Elements are recorded in the first pass, which also computes the size of
+ * every structural element. The second pass {@link #encode()} writes all the
+ * recorded elements in a row into a reusable buffer. Instances are not
+ * thread safe and are intended to be reused by a single thread.
+ */
+public final class TiesEBMLDirectWriter {
+
+    private static final int INITIAL_ELEMENTS = 64;
+    private static final int INITIAL_DEPTH = 16;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    /**
+     * Buffers grown above this size are shrunk to the initial size on
+     * {@link #reset()}, so a writer kept per thread retains at most this much
+     * after a large response.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_RETAINED_ELEMENTS = 1 << 12;
+
+    private static final int MAX_SIZE_LENGTH = 8;
+
+    private static final byte[][] CODES = new byte[TiesDBType.values().length][];
+
+    static {
+        for (TiesDBType type : TiesDBType.values()) {
+            CODES[type.ordinal()] = type.getEBMLCodeBytes();
+        }
+    }
+
+    private TiesDBType[] types = new TiesDBType[INITIAL_ELEMENTS];
+    private Object[] values = new Object[INITIAL_ELEMENTS];
+    private int[] sizes = new int[INITIAL_ELEMENTS];
+    private int count;
+
+    private int[] stack = new int[INITIAL_DEPTH];
+    private int depth;
+    private int total;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int length;
+
+    private final Output bufferOutput = new Output() {
+
+        @Override
+        public void writeByte(byte b) throws IOException {
+            if (length == buffer.length) {
+                throw new IOException("Value exceeds its declared size");
+            }
+            buffer[length++] = b;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return length == buffer.length;
+        }
+
+    };
+
+    /**
+     * Opens a structural element.
+     */
+    public void begin(TiesDBType type) {
+        int index = add(checkType(type, true), null, 0);
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth << 1);
+        }
+        stack[depth++] = index;
+    }
+
+    /**
+     * Closes the last opened structural element.
+     */
+    public void end(TiesDBType type) {
+        if (0 == depth) {
+            throw new IllegalStateException("No open element to end with " + type);
+        }
+        int index = stack[--depth];
+        if (types[index] != type) {
+            throw new IllegalStateException("Illegal end of " + types[index] + " with " + type);
+        }
+        addToParent(elementSize(type, sizes[index]));
+    }
+
+    /**
+     * Adds a value element holding the data as is.
+     */
+    public void value(TiesDBType type, byte[] data) {
+        if (null == data) {
+            throw new NullPointerException("The data should not be null");
+        }
+        add(checkType(type, false), data, data.length);
+        addToParent(elementSize(type, data.length));
+    }
+
+    /**
+     * Adds a value element holding the data in the format.
+     */
+    public <O> void value(TiesDBType type, EBMLWriteFormat<O> format, O data) {
+        Writable writable = format.getWritable(data);
+        int size = writable.getSize();
+        add(checkType(type, false), writable, size);
+        addToParent(elementSize(type, size));
+    }
+
+    /**
+     * Writes all recorded elements to the buffer.
+     */
+    public void encode() throws IOException {
+        if (0 != depth) {
+            throw new IllegalStateException("Element " + types[stack[depth - 1]] + " was not ended");
+        }
+        if (buffer.length < total) {
+            buffer = new byte[total];
+        }
+        length = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] code = CODES[types[i].ordinal()];
+            System.arraycopy(code, 0, buffer, length, code.length);
+            length += code.length;
+            int size = sizes[i];
+            length = writeSize(buffer, length, size);
+            Object value = values[i];
+            if (value instanceof byte[]) {
+                System.arraycopy(value, 0, buffer, length, size);
+                length += size;
+            } else if (null != value) {
+                int end = length + size;
+                ((Writable) value).writeFormat(bufferOutput);
+                if (length != end) {
+                    throw new IOException("Value of " + types[i] + " has " + (length - end + size) + " bytes of " + size + " declared");
+                }
+            }
+        }
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+        total = 0;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Discards recorded elements and encoded data.
+     */
+    public void reset() {
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+        depth = 0;
+        total = 0;
+        length = 0;
+        if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        }
+        if (types.length > MAX_RETAINED_ELEMENTS) {
+            types = new TiesDBType[INITIAL_ELEMENTS];
+            values = new Object[INITIAL_ELEMENTS];
+            sizes = new int[INITIAL_ELEMENTS];
+        }
+    }
+
+    private int add(TiesDBType type, Object value, int size) {
+        if (count == types.length) {
+            int capacity = count << 1;
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        types[count] = type;
+        values[count] = value;
+        sizes[count] = size;
+        return count++;
+    }
+
+    private void addToParent(int elementSize) {
+        if (0 == depth) {
+            total = Math.addExact(total, elementSize);
+        } else {
+            int parent = stack[depth - 1];
+            sizes[parent] = Math.addExact(sizes[parent], elementSize);
+        }
+    }
+
+    private static TiesDBType checkType(TiesDBType type, boolean structural) {
+        if (null == CODES[type.ordinal()]) {
+            throw new IllegalArgumentException("Type " + type + " has no code to be written");
+        }
+        if (type.isStructural() != structural) {
+            throw new IllegalArgumentException("Type " + type + (structural ? " is not" : " is") + " structural");
+        }
+        return type;
+    }
+
+    private static int elementSize(TiesDBType type, int size) {
+        return Math.addExact(CODES[type.ordinal()].length + sizeLength(size), size);
+    }
+
+    /**
+     * Length of the shortest EBML variable size integer holding the size.
+     * Values with all the size bits set are reserved for unknown sizes.
+     */
+    static int sizeLength(long size) {
+        for (int len = 1; len <= MAX_SIZE_LENGTH; len++) {
+            if (size < (1L << (7 * len)) - 1) {
+                return len;
+            }
+        }
+        throw new IllegalArgumentException("Size " + size + " is too big");
+    }
+
+    private static int writeSize(byte[] buf, int off, int size) {
+        int len = sizeLength(size);
+        long value = size | (1L << (7 * len));
+        for (int i = len - 1; i >= 0; i--) {
+            buf[off + i] = (byte) value;
+            value >>>= 8;
+        }
+        return off + len;
+    }
+
+}
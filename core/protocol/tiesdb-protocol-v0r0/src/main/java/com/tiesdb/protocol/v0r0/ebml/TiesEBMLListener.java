@@ -0,0 +1,44 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.ebml;
+
+import java.util.function.Consumer;
+
+/**
+ * Listener of EBML payload bytes passing through {@link TiesEBMLReader} or
+ * {@link TiesEBMLWriter}.
+ * 
+ * <P>
+ * Bytes are delivered in contiguous ranges. The array is reused after the
+ * call returns, so listeners should not keep references to it.
+ */
+@FunctionalInterface
+public interface TiesEBMLListener {
+
+    void update(byte[] data, int offset, int length);
+
+    static TiesEBMLListener of(Consumer<Byte> consumer) {
+        return (data, offset, length) -> {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                consumer.accept(data[i]);
+            }
+        };
+    }
+
+}
@@ -21,10 +21,8 @@ package com.tiesdb.protocol.v0r0.ebml;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import one.utopic.abio.api.input.Input;
@@ -47,6 +45,7 @@ public class TiesEBMLReader extends EBMLReader {
     };
 
     private final WrappedInput win;
+    private final LastByteOutput lastByte = new LastByteOutput();
     private boolean skipUnknownTag = false;
 
     public TiesEBMLReader(Input in, EBMLType.Context context) {
@@ -58,16 +57,25 @@ public class TiesEBMLReader extends EBMLReader {
         this.win = win;
     }
 
+    public boolean addListener(TiesEBMLListener listener) {
+        return null == this.win.listeners.putIfAbsent(listener, listener);
+    }
+
+    /**
+     * @deprecated use {@link #addListener(TiesEBMLListener)} to receive byte
+     *             ranges instead of single bytes
+     */
+    @Deprecated
     public boolean addListener(Consumer<Byte> listener) {
-        return this.win.listeners.add(listener);
+        return null == this.win.listeners.putIfAbsent(listener, TiesEBMLListener.of(listener));
     }
 
     public boolean hasListener(Object listener) {
-        return this.win.listeners.contains(listener);
+        return this.win.listeners.containsKey(listener);
     }
 
     public boolean removeListener(Object listener) {
-        return this.win.listeners.remove(listener);
+        return null != this.win.listeners.remove(listener);
     }
 
     public boolean isSkipUnknownTag() {
@@ -101,42 +109,34 @@ public class TiesEBMLReader extends EBMLReader {
             return super.resolveTypeCode(type, code);
         }
 
-        AtomicReference<Byte> lastByteRef = new AtomicReference<Byte>();
         try {
-            code.write(new Output() {
-
-                @Override
-                public void writeByte(byte b) throws IOException {
-                    lastByteRef.set(b);
-                }
-
-                @Override
-                public boolean isFinished() {
-                    return false;
-                }
-
-            });
+            lastByte.reset();
+            code.write(lastByte);
         } catch (IOException e) {
             throw new SparseReaderException(e);
         }
-
-        return Optional.ofNullable(lastByteRef.get()) //
-                .map(b -> {
-                    return new UnknownTiesEBMLType(code, b % 2 > 0);
-                }) //
-                .orElseThrow(() -> new SparseReaderException("Empty EBML code"));
+        if (lastByte.isEmpty()) {
+            throw new SparseReaderException("Empty EBML code");
+        }
+        return new UnknownTiesEBMLType(code, (lastByte.value & 1) > 0);
     }
 
     @Override
     protected <O> O read(EBMLReadFormat<O> ebmlReadFormat) {
         this.win.capture = true;
-        O o = super.read(ebmlReadFormat);
-        this.win.capture = false;
-        return o;
+        try {
+            return super.read(ebmlReadFormat);
+        } finally {
+            this.win.flush();
+            this.win.capture = false;
+        }
     }
 
     public static class UnknownTiesEBMLType implements TiesEBMLType {
 
+        private static final Context STRUCTURAL_CONTEXT = new UnknownContext(true);
+        private static final Context VALUE_CONTEXT = new UnknownContext(false);
+
         private final EBMLCode code;
         private final boolean structural;
 
@@ -153,43 +153,85 @@ public class TiesEBMLReader extends EBMLReader {
 
         @Override
         public Context getContext() {
-            return new Context() {
+            return structural ? STRUCTURAL_CONTEXT : VALUE_CONTEXT;
+        }
 
-                @Override
-                public EBMLType getType(EBMLCode code) {
-                    return null;
-                }
+        @Override
+        public boolean isStructural() {
+            return structural;
+        }
 
-                @Override
-                public boolean contains(EBMLType type) {
-                    return structural;
-                }
+        @Override
+        public String toString() {
+            return "UnknownTiesEBMLType [code=" + code + ", structural=" + structural + "]";
+        }
 
-                @Override
-                public boolean is(Context context) {
-                    return equals(context);
-                }
+    }
+
+    private static class UnknownContext implements EBMLType.Context {
+
+        private final boolean structural;
 
-            };
+        private UnknownContext(boolean structural) {
+            this.structural = structural;
         }
 
         @Override
-        public boolean isStructural() {
+        public EBMLType getType(EBMLCode code) {
+            return null;
+        }
+
+        @Override
+        public boolean contains(EBMLType type) {
             return structural;
         }
 
         @Override
-        public String toString() {
-            return "UnknownTiesEBMLType [code=" + code + ", structural=" + structural + "]";
+        public boolean is(EBMLType.Context context) {
+            return equals(context);
+        }
+
+    }
+
+    /**
+     * Keeps the last byte of an EBML code to check the structural bit of unknown
+     * tags without allocations.
+     */
+    private static class LastByteOutput implements Output {
+
+        private byte value;
+        private boolean empty = true;
+
+        void reset() {
+            empty = true;
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        @Override
+        public void writeByte(byte b) throws IOException {
+            value = b;
+            empty = false;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
         }
 
     }
 
     protected static class WrappedInput implements Input {
 
+        private static final int BLOCK_SIZE = 4096;
+
         public boolean capture;
         private final Input in;
-        private final Set<Consumer<Byte>> listeners = new HashSet<>();
+        private final Map<Object, TiesEBMLListener> listeners = new HashMap<>();
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private int blockLength = 0;
 
         public WrappedInput(Input in) {
             this.in = requireNonNull(in);
@@ -201,14 +243,24 @@ public class TiesEBMLReader extends EBMLReader {
 
         public byte readByte() throws IOException {
             byte b = in.readByte();
-            if (capture) {
-                for (Consumer<Byte> listener : listeners) {
-                    listener.accept(b);
+            if (capture && !listeners.isEmpty()) {
+                block[blockLength++] = b;
+                if (blockLength == block.length) {
+                    flush();
                 }
             }
             return b;
         }
 
+        protected void flush() {
+            if (blockLength > 0) {
+                for (TiesEBMLListener listener : listeners.values()) {
+                    listener.update(block, 0, blockLength);
+                }
+                blockLength = 0;
+            }
+        }
+
     }
 
 }
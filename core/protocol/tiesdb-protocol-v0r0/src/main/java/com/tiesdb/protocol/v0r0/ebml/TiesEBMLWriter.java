@@ -19,31 +19,94 @@
 package com.tiesdb.protocol.v0r0.ebml;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
+import com.tiesdb.protocol.api.TiesDBProtocol.TiesDBChannelOutput;
+
 import one.utopic.abio.api.output.Output;
 import one.utopic.sparse.ebml.EBMLWriter;
 import one.utopic.sparse.ebml.EBMLWriter.EBMLWriteFormat.Writable;
 
 public class TiesEBMLWriter extends EBMLWriter {
 
-    private final HashSet<Consumer<Byte>> formatListeners = new HashSet<>();
+    private static final int BLOCK_SIZE = 4096;
+
+    private static final TiesEBMLListener[] NO_LISTENERS = new TiesEBMLListener[0];
+
+    private final Map<Object, TiesEBMLListener> formatListeners = new HashMap<>();
+
+    private final Output out;
+
+    /**
+     * Listeners snapshot shared by format frames until listeners change.
+     */
+    private TiesEBMLListener[] listenersSnapshot = NO_LISTENERS;
+
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+    private TiesEBMLListener[] blockListeners = NO_LISTENERS;
+
+    private final Output blockOutput = new Output() {
+
+        @Override
+        public void writeByte(byte b) throws IOException {
+            block[blockLength++] = b;
+            if (blockLength == block.length) {
+                flushBlock();
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+    };
 
+    public boolean addListener(TiesEBMLListener listener) {
+        return updated(null == formatListeners.putIfAbsent(listener, listener));
+    }
+
+    /**
+     * @deprecated use {@link #addListener(TiesEBMLListener)} to receive byte
+     *             ranges instead of single bytes
+     */
+    @Deprecated
     public boolean addListener(Consumer<Byte> listener) {
-        return formatListeners.add(listener);
+        return updated(null == formatListeners.putIfAbsent(listener, TiesEBMLListener.of(listener)));
     }
 
     public boolean hasListener(Object listener) {
-        return formatListeners.contains(listener);
+        return formatListeners.containsKey(listener);
     }
 
     public boolean removeListener(Object listener) {
-        return formatListeners.remove(listener);
+        return updated(null != formatListeners.remove(listener));
     }
 
     public TiesEBMLWriter(Output out) {
         super(out);
+        this.out = out;
+    }
+
+    /**
+     * Writes already encoded EBML elements directly to the output. Should
+     * only be called between root elements. Bytes written this way are not
+     * passed to format listeners.
+     */
+    public void writeRaw(byte[] buf, int off, int len) throws IOException {
+        if (!formatListeners.isEmpty()) {
+            throw new IllegalStateException("Raw data can't be written while format listeners are registered");
+        }
+        if (out instanceof TiesDBChannelOutput) {
+            ((TiesDBChannelOutput) out).write(buf, off, len);
+        } else {
+            for (int i = 0; i < len; i++) {
+                out.writeByte(buf[off + i]);
+            }
+        }
     }
 
     @Override
@@ -51,42 +114,47 @@ public class TiesEBMLWriter extends EBMLWriter {
         if (formatListeners.isEmpty()) {
             return super.newFormatFrame(w);
         } else {
-            return new Format(w, getFormatListenersSnapshot());
+            return new Format(w, listenersSnapshot);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Consumer<Byte>[] getFormatListenersSnapshot() {
-        return formatListeners.toArray(new Consumer[formatListeners.size()]);
+    private boolean updated(boolean isUpdated) {
+        if (isUpdated) {
+            listenersSnapshot = formatListeners.isEmpty() //
+                    ? NO_LISTENERS
+                    : formatListeners.values().toArray(new TiesEBMLListener[formatListeners.size()]);
+        }
+        return isUpdated;
+    }
+
+    private void flushBlock() {
+        if (blockLength > 0) {
+            for (TiesEBMLListener listener : blockListeners) {
+                listener.update(block, 0, blockLength);
+            }
+            blockLength = 0;
+        }
     }
 
     protected class Format extends Frame.Format {
 
-        private final Consumer<Byte>[] listeners;
+        private final TiesEBMLListener[] listeners;
 
-        @SafeVarargs
-        public Format(Writable writable, Consumer<Byte>... listeners) {
+        public Format(Writable writable, TiesEBMLListener... listeners) {
             super(writable);
             this.listeners = listeners;
         }
 
         @Override
         public void write(Output out) throws IOException {
-            super.write(new Output() {
-
-                @Override
-                public void writeByte(byte b) throws IOException {
-                    for (Consumer<Byte> listener : listeners) {
-                        listener.accept(b);
-                    }
-                }
-
-                @Override
-                public boolean isFinished() {
-                    return false;
-                }
-
-            });
+            blockListeners = listeners;
+            blockLength = 0;
+            try {
+                super.write(blockOutput);
+                flushBlock();
+            } finally {
+                blockListeners = NO_LISTENERS;
+            }
             super.write(out);
         }
 
@@ -0,0 +1,81 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.ebml.format;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.tiesdb.protocol.api.TiesDBProtocol.TiesDBChannelOutput;
+
+import one.utopic.abio.api.output.Output;
+import one.utopic.sparse.ebml.EBMLFormat;
+
+/**
+ * Reads binary data as read-only buffer views over the decoded payload and
+ * writes buffers in blocks to channel outputs.
+ */
+public class ByteBufferFormat implements EBMLFormat<ByteBuffer> {
+
+    public static final ByteBufferFormat INSTANCE = new ByteBufferFormat();
+
+    private static final int BLOCK_SIZE = 4096;
+
+    @Override
+    public ByteBuffer readFormat(byte[] data) {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    @Override
+    public Writable getWritable(ByteBuffer data) {
+        ByteBuffer buf = data.duplicate();
+        return new Writable() {
+
+            @Override
+            public void writeFormat(Output out) throws IOException {
+                ByteBuffer b = buf.duplicate();
+                if (!(out instanceof TiesDBChannelOutput)) {
+                    while (b.hasRemaining()) {
+                        out.writeByte(b.get());
+                    }
+                } else if (b.hasArray()) {
+                    ((TiesDBChannelOutput) out).write(b.array(), b.arrayOffset() + b.position(), b.remaining());
+                } else {
+                    // Read-only views hide their array, copy them by blocks
+                    byte[] block = new byte[Math.min(BLOCK_SIZE, b.remaining())];
+                    while (b.hasRemaining()) {
+                        int length = Math.min(block.length, b.remaining());
+                        b.get(block, 0, length);
+                        ((TiesDBChannelOutput) out).write(block, 0, length);
+                    }
+                }
+            }
+
+            @Override
+            public int getSize() {
+                return buf.remaining();
+            }
+
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+}
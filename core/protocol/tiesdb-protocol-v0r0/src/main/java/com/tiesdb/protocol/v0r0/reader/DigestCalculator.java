@@ -18,14 +18,13 @@
  */
 package com.tiesdb.protocol.v0r0.reader;
 
-import java.util.function.Consumer;
-
 import com.tiesdb.lib.crypto.digest.api.Digest;
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLListener;
 
 class DigestCalculator {
 
     private final Digest digest;
-    private final Consumer<Byte> hashListener;
+    private final TiesEBMLListener hashListener;
 
     DigestCalculator(Digest digest) {
         this.digest = digest;
@@ -36,7 +35,7 @@ class DigestCalculator {
         return digest;
     }
 
-    public Consumer<Byte> getHashListener() {
+    public TiesEBMLListener getHashListener() {
         return hashListener;
     }
 
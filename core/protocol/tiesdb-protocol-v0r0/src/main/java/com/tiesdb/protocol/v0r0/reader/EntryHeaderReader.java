@@ -20,13 +20,15 @@ package com.tiesdb.protocol.v0r0.reader;
 
 import static com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.DEFAULT_DIGEST_ALG;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.acceptEach;
-import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.checkSignature;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.end;
+import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.view;
 import static network.tiesdb.util.Hex.UPPERCASE_HEX;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
@@ -37,6 +39,7 @@ import com.tiesdb.lib.crypto.digest.api.Digest;
 import com.tiesdb.protocol.exception.TiesDBProtocolException;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.Event;
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLListener;
 import com.tiesdb.protocol.v0r0.reader.SignatureReader.Signature;
 import com.tiesdb.protocol.v0r0.util.FormatUtil;
 
@@ -60,6 +63,7 @@ public class EntryHeaderReader implements Reader<EntryHeaderReader.EntryHeader>
         private byte[] entryOldHash;
         private byte[] entryFldHash;
         private byte[] hash;
+        private CompletableFuture<Boolean> signatureCheck;
 
         @Override
         public String toString() {
@@ -102,6 +106,32 @@ public class EntryHeaderReader implements Reader<EntryHeaderReader.EntryHeader>
             return null == hash ? null : Arrays.copyOf(hash, hash.length);
         }
 
+        /**
+         * Waits for the asynchronous header signature check.
+         * 
+         * @return true if the header is signed by its signer
+         */
+        public boolean isSignatureValid() {
+            CompletableFuture<Boolean> check = signatureCheck;
+            return null != check && check.handle((valid, error) -> null == error && valid).join();
+        }
+
+        CompletableFuture<Boolean> getSignatureCheck() {
+            return signatureCheck;
+        }
+
+        public ByteBuffer getEntryOldHashBuffer() {
+            return view(entryOldHash);
+        }
+
+        public ByteBuffer getEntryFldHashBuffer() {
+            return view(entryFldHash);
+        }
+
+        public ByteBuffer getHashBuffer() {
+            return view(hash);
+        }
+
     }
 
     private final ThreadLocal<DigestCalculator> digestCalculator = new ThreadLocal<>();
@@ -165,7 +195,7 @@ public class EntryHeaderReader implements Reader<EntryHeaderReader.EntryHeader>
     public boolean accept(Conversation session, Event e, EntryHeader header) throws TiesDBProtocolException {
         DigestCalculator dc = getDC(true);
         Digest headerDigest = dc.getDigest();
-        Consumer<Byte> headerHashListener = dc.getHashListener();
+        TiesEBMLListener headerHashListener = dc.getHashListener();
         try {
             headerDigest.reset();
             session.addReaderListener(headerHashListener);
@@ -179,9 +209,7 @@ public class EntryHeaderReader implements Reader<EntryHeaderReader.EntryHeader>
                     }
                 });
                 header.hash = headerHash;
-                if (!checkSignature(headerHash, header)) {
-                    throw new TiesDBProtocolException("Header signature check failed.");
-                }
+                header.signatureCheck = SignatureVerifier.verify(headerHash, header);
             } else {
                 throw new TiesDBProtocolException("Header digest failed to compute headerHash");
             }
@@ -21,10 +21,11 @@ package com.tiesdb.protocol.v0r0.reader;
 import static com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.DEFAULT_DIGEST_ALG;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.acceptEach;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.end;
+import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.view;
 import static network.tiesdb.util.Hex.UPPERCASE_HEX;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,7 @@ import com.tiesdb.lib.crypto.digest.api.Digest;
 import com.tiesdb.protocol.exception.TiesDBProtocolException;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.Event;
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLListener;
 import com.tiesdb.protocol.v0r0.util.FormatUtil;
 
 import one.utopic.sparse.ebml.format.ASCIIStringFormat;
@@ -73,13 +75,21 @@ public class FieldReader implements Reader<FieldReader.Field> {
             return null == rawValue ? null : Arrays.copyOf(rawValue, rawValue.length);
         }
 
+        public ByteBuffer getHashBuffer() {
+            return view(hash);
+        }
+
+        public ByteBuffer getRawValueBuffer() {
+            return view(rawValue);
+        }
+
     }
 
     private final ThreadLocal<DigestCalculator> digestCalculator = new ThreadLocal<>();
 
     public boolean acceptField(Conversation session, Event e, Field field) throws TiesDBProtocolException {
         DigestCalculator dc = getDC();
-        Consumer<Byte> fieldHashListener = dc.getHashListener();
+        TiesEBMLListener fieldHashListener = dc.getHashListener();
         switch (e.getType()) {
         case FIELD_NAME:
             field.name = session.read(UTF8StringFormat.INSTANCE);
@@ -131,7 +141,7 @@ public class FieldReader implements Reader<FieldReader.Field> {
     public boolean accept(Conversation session, Event e, Field field) throws TiesDBProtocolException {
         DigestCalculator dc = getDC(true);
         Digest fieldDigest = dc.getDigest();
-        Consumer<Byte> fieldHashListener = dc.getHashListener();
+        TiesEBMLListener fieldHashListener = dc.getHashListener();
         try {
             fieldDigest.reset();
             session.addReaderListener(fieldHashListener);
@@ -19,6 +19,7 @@
 package com.tiesdb.protocol.v0r0.reader;
 
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.acceptEach;
+import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.awaitSignatures;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.end;
 
 import java.math.BigInteger;
@@ -94,6 +95,7 @@ public class HealingRequestReader implements Reader<HealingRequestReader.Healing
     public boolean accept(Conversation session, Event e, HealingRequest r) throws TiesDBProtocolException {
         acceptEach(session, e, this::acceptHealingRequest, r);
         r.healingEntries = Collections.unmodifiableList(r.healingEntries);
+        awaitSignatures(r.healingEntries);
         return true;
     }
 
@@ -19,6 +19,7 @@
 package com.tiesdb.protocol.v0r0.reader;
 
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.acceptEach;
+import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.awaitSignatures;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.end;
 
 import java.math.BigInteger;
@@ -106,6 +107,7 @@ public class ModificationRequestReader implements Reader<ModificationRequestRead
     public boolean accept(Conversation session, Event e, ModificationRequest r) throws TiesDBProtocolException {
         acceptEach(session, e, this::acceptModificationRequest, r);
         r.modificationEntries = Collections.unmodifiableList(r.modificationEntries);
+        awaitSignatures(r.modificationEntries);
         return true;
     }
 
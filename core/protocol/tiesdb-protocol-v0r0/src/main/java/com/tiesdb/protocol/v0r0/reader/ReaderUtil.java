@@ -22,24 +22,25 @@ import static com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.DEFAULT_DIGEST_ALG;
 import static java.util.Objects.requireNonNull;
 import static network.tiesdb.util.Hex.UPPERCASE_HEX;
 
-import java.security.SignatureException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.tiesdb.lib.crypto.digest.DigestManager;
 import com.tiesdb.lib.crypto.digest.api.Digest;
-import com.tiesdb.lib.crypto.ecc.signature.ECKey;
 import com.tiesdb.protocol.exception.TiesDBProtocolException;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.Event;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.EventState;
+import com.tiesdb.protocol.v0r0.reader.EntryHeaderReader.EntryHeader;
 import com.tiesdb.protocol.v0r0.reader.EntryReader.Entry;
 import com.tiesdb.protocol.v0r0.reader.FieldReader.Field;
-import com.tiesdb.protocol.v0r0.reader.SignatureReader.Signature;
 
 final class ReaderUtil {
 
@@ -48,6 +49,10 @@ final class ReaderUtil {
     private ReaderUtil() {
     }
 
+    static ByteBuffer view(byte[] data) {
+        return null == data ? null : ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
     static <T> void acceptEach(Conversation session, Event rootEvent, Reader<T> controller, T t) throws TiesDBProtocolException {
         requireNonNull(session);
         requireNonNull(rootEvent);
@@ -85,12 +90,23 @@ final class ReaderUtil {
         }
     }
 
-    static boolean checkSignature(byte[] messageHash, Signature signature) throws TiesDBProtocolException {
-        try {
-            byte[] signer = ECKey.signatureToAddressBytes(messageHash, signature.getSignature());
-            return Arrays.equals(signer, signature.getSigner());
-        } catch (SignatureException e) {
-            throw new TiesDBProtocolException(e);
+    static void awaitSignatures(Collection<?> entries) {
+        CompletableFuture<?>[] checks = entries.stream() //
+                .filter(Entry.class::isInstance) //
+                .map(entry -> ((Entry) entry).getHeader()) //
+                .filter(header -> null != header && null != header.getSignatureCheck()) //
+                .map(header -> header.getSignatureCheck()) //
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(checks).handle((v, e) -> null).join();
+    }
+
+    static void checkSignatures(Collection<?> entries) throws TiesDBProtocolException {
+        awaitSignatures(entries);
+        for (Object entry : entries) {
+            EntryHeader header = entry instanceof Entry ? ((Entry) entry).getHeader() : null;
+            if (null != header && !header.isSignatureValid()) {
+                throw new TiesDBProtocolException("Header signature check failed.");
+            }
         }
     }
 
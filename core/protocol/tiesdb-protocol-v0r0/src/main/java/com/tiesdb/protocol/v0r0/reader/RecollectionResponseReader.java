@@ -19,6 +19,7 @@
 package com.tiesdb.protocol.v0r0.reader;
 
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.acceptEach;
+import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.checkSignatures;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.end;
 
 import java.math.BigInteger;
@@ -120,6 +121,7 @@ public class RecollectionResponseReader implements Reader<RecollectionResponseRe
     public boolean accept(Conversation session, Event e, RecollectionResponse r) throws TiesDBProtocolException {
         acceptEach(session, e, this::acceptRecollectionResponse, r);
         r.recollectionResults = Collections.unmodifiableList(r.recollectionResults);
+        checkSignatures(r.recollectionResults);
         return true;
     }
 
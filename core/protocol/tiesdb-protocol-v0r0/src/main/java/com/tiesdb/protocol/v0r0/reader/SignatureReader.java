@@ -20,10 +20,11 @@ package com.tiesdb.protocol.v0r0.reader;
 
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.acceptEach;
 import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.end;
+import static com.tiesdb.protocol.v0r0.reader.ReaderUtil.view;
 import static network.tiesdb.util.Hex.UPPERCASE_HEX;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
@@ -33,6 +34,7 @@ import com.tiesdb.protocol.exception.TiesDBProtocolException;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
 import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation.Event;
 
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLListener;
 import com.tiesdb.protocol.v0r0.util.FormatUtil;
 import one.utopic.sparse.ebml.format.BytesFormat;
 
@@ -61,6 +63,14 @@ public class SignatureReader implements Reader<SignatureReader.Signature> {
             return null == signer ? null : Arrays.copyOf(signer, signer.length);
         }
 
+        public ByteBuffer getSignatureBuffer() {
+            return view(signature);
+        }
+
+        public ByteBuffer getSignerBuffer() {
+            return view(signer);
+        }
+
         @Override
         public String toString() {
             return "Signature [signer=" + FormatUtil.printPartialHex(signer) + ", signature=" + FormatUtil.printPartialHex(signature) + "]";
@@ -75,12 +85,12 @@ public class SignatureReader implements Reader<SignatureReader.Signature> {
         this(null);
     }
 
-    public SignatureReader(Supplier<Consumer<Byte>> hashListenerSupplier) {
+    public SignatureReader(Supplier<TiesEBMLListener> hashListenerSupplier) {
         if (null == hashListenerSupplier) {
             this.hashListenerWrapper = (session, fun) -> fun.process();
         } else {
             this.hashListenerWrapper = (session, fun) -> {
-                Consumer<Byte> hashListener = hashListenerSupplier.get();
+                TiesEBMLListener hashListener = hashListenerSupplier.get();
                 session.removeReaderListener(hashListener);
                 fun.process();
                 session.addReaderListener(hashListener);
@@ -0,0 +1,69 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.reader;
+
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.tiesdb.lib.crypto.ecc.signature.ECKey;
+import com.tiesdb.protocol.v0r0.reader.SignatureReader.Signature;
+
+import network.tiesdb.util.SignerCache;
+
+/**
+ * Recovers signers of parsed signatures on a dedicated CPU pool, so
+ * decoding of a request does not wait for each public key recovery.
+ */
+final class SignatureVerifier {
+
+    private static final ExecutorService POOL;
+    static {
+        AtomicInteger threadCounter = new AtomicInteger();
+        POOL = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "TiesSignatureVerifier-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private SignatureVerifier() {
+    }
+
+    static CompletableFuture<Boolean> verify(byte[] messageHash, Signature signature) {
+        byte[] signatureBytes = signature.getSignature();
+        byte[] signer = signature.getSigner();
+        if (null == messageHash || null == signatureBytes || null == signer) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return Arrays.equals(signer, SignerCache.shared().recover(SignerCache.Scheme.RAW, messageHash, signatureBytes,
+                        () -> ECKey.signatureToAddressBytes(messageHash, signatureBytes)));
+            } catch (SignatureException e) {
+                throw new CompletionException(e);
+            }
+        }, POOL);
+    }
+
+}
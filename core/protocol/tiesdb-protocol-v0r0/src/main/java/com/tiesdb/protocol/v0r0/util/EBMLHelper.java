@@ -35,12 +35,12 @@ import one.utopic.sparse.ebml.format.UTF8StringFormat;
 
 public final class EBMLHelper {
 
-    private static final Event MESSAGE_ID_BEGIN = new Event(MESSAGE_ID, EventState.BEGIN);
-    private static final Event MESSAGE_ID_END = new Event(MESSAGE_ID, EventState.END);
-    private static final Event ERROR_BEGIN = new Event(ERROR, EventState.BEGIN);
-    private static final Event ERROR_END = new Event(ERROR, EventState.END);
-    private static final Event ERROR_MESSAGE_BEGIN = new Event(ERROR_MESSAGE, EventState.BEGIN);
-    private static final Event ERROR_MESSAGE_END = new Event(ERROR_MESSAGE, EventState.END);
+    private static final Event MESSAGE_ID_BEGIN = Event.of(MESSAGE_ID, EventState.BEGIN);
+    private static final Event MESSAGE_ID_END = Event.of(MESSAGE_ID, EventState.END);
+    private static final Event ERROR_BEGIN = Event.of(ERROR, EventState.BEGIN);
+    private static final Event ERROR_END = Event.of(ERROR, EventState.END);
+    private static final Event ERROR_MESSAGE_BEGIN = Event.of(ERROR_MESSAGE, EventState.BEGIN);
+    private static final Event ERROR_MESSAGE_END = Event.of(ERROR_MESSAGE, EventState.END);
 
     private EBMLHelper() {
     }
@@ -0,0 +1,165 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.writer;
+
+import static com.tiesdb.protocol.v0r0.ebml.TiesDBType.*;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tiesdb.protocol.exception.TiesDBProtocolException;
+import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
+import com.tiesdb.protocol.v0r0.ebml.TiesDBType;
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLDirectWriter;
+import com.tiesdb.protocol.v0r0.writer.EntryHeaderWriter.EntryHeader;
+import com.tiesdb.protocol.v0r0.writer.FieldWriter.Field;
+import com.tiesdb.protocol.v0r0.writer.FieldWriter.Field.HashField;
+import com.tiesdb.protocol.v0r0.writer.FieldWriter.Field.ValueField;
+import com.tiesdb.protocol.v0r0.writer.RecollectionErrorWriter.RecollectionError;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResponseWriter.RecollectionResponse;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResponseWriter.RecollectionResult;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResultWriter.RecollectionEntry;
+
+import one.utopic.sparse.ebml.format.ASCIIStringFormat;
+import one.utopic.sparse.ebml.format.BigIntegerFormat;
+import one.utopic.sparse.ebml.format.BytesFormat;
+import one.utopic.sparse.ebml.format.DateFormat;
+import one.utopic.sparse.ebml.format.IntegerFormat;
+import one.utopic.sparse.ebml.format.UTF8StringFormat;
+
+/**
+ * Writes the same bytes as {@link RecollectionResponseWriter} walking the
+ * response model once into a thread local {@link TiesEBMLDirectWriter}.
+ * Other responses are still written through format frames.
+ */
+public class DirectRecollectionResponseWriter implements Writer<RecollectionResponse> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectRecollectionResponseWriter.class);
+
+    // Reset after every response, which shrinks buffers grown by large responses
+    private static final ThreadLocal<Encoder> ENCODER = ThreadLocal.withInitial(Encoder::new);
+
+    @Override
+    public void accept(Conversation session, RecollectionResponse response) throws TiesDBProtocolException {
+        LOG.debug("RecollectionResponse {}", response);
+        Encoder encoder = ENCODER.get();
+        TiesEBMLDirectWriter w = encoder.writer;
+        w.reset();
+        try {
+            w.begin(RECOLLECTION_RESPONSE);
+            w.value(MESSAGE_ID, BigIntegerFormat.INSTANCE, response.getMessageId());
+            for (RecollectionResult result : response.getResults()) {
+                result.accept(encoder);
+            }
+            w.end(RECOLLECTION_RESPONSE);
+            w.encode();
+            session.writeRaw(w.getBuffer(), 0, w.getLength());
+        } catch (IOException e) {
+            throw new TiesDBProtocolException("RecollectionResponse encoding failed", e);
+        } finally {
+            w.reset();
+        }
+    }
+
+    private static class Encoder implements RecollectionResult.Visitor<Void>, Field.Visitor<Void> {
+
+        private final TiesEBMLDirectWriter writer = new TiesEBMLDirectWriter();
+
+        @Override
+        public Void on(RecollectionEntry entry) {
+            TiesEBMLDirectWriter w = writer;
+            w.begin(RECOLLECTION_RESULT);
+            w.begin(ENTRY);
+            writeHeader(entry.getEntryHeader());
+            w.begin(FIELD_LIST);
+            writeFields(FIELD, entry.getEntryFields());
+            w.end(FIELD_LIST);
+            w.end(ENTRY);
+            Multiple<Field> computedFields = entry.getComputedFields();
+            if (null != computedFields && !computedFields.isEmpty()) {
+                w.begin(RECOLLECTION_COMPUTE);
+                writeFields(COMPUTE_FIELD, computedFields);
+                w.end(RECOLLECTION_COMPUTE);
+            }
+            w.end(RECOLLECTION_RESULT);
+            return null;
+        }
+
+        @Override
+        public Void on(RecollectionError error) {
+            TiesEBMLDirectWriter w = writer;
+            w.begin(RECOLLECTION_ERROR);
+            if (null != error.getError()) {
+                w.value(ERROR_MESSAGE, UTF8StringFormat.INSTANCE, String.valueOf(error.getError().getMessage()));
+            }
+            w.end(RECOLLECTION_ERROR);
+            return null;
+        }
+
+        @Override
+        public <O> Void on(ValueField<O> field) {
+            O value = field.getValue();
+            if (BytesFormat.INSTANCE == field.getFormat() && value instanceof byte[]) {
+                writer.value(FIELD_VALUE, (byte[]) value);
+            } else {
+                writer.value(FIELD_VALUE, field.getFormat(), value);
+            }
+            return null;
+        }
+
+        @Override
+        public Void on(HashField field) {
+            writer.value(FIELD_HASH, field.getHash());
+            return null;
+        }
+
+        private void writeHeader(EntryHeader header) {
+            TiesEBMLDirectWriter w = writer;
+            w.begin(ENTRY_HEADER);
+            w.value(TABLESPACE_NAME, UTF8StringFormat.INSTANCE, header.getTablespaceName());
+            w.value(TABLE_NAME, UTF8StringFormat.INSTANCE, header.getTableName());
+            w.value(ENTRY_TIMESTAMP, DateFormat.INSTANCE, header.getEntryTimestamp());
+            w.value(ENTRY_VERSION, BigIntegerFormat.INSTANCE, header.getEntryVersion());
+            w.value(ENTRY_FLD_HASH, header.getEntryFldHash());
+            byte[] entryOldHash = header.getEntryOldHash();
+            if (null != entryOldHash && 0 != entryOldHash.length) {
+                w.value(ENTRY_OLD_HASH, entryOldHash);
+            }
+            w.value(ENTRY_NETWORK, IntegerFormat.INSTANCE, header.getEntryNetwork());
+            w.value(SIGNER, header.getSigner());
+            w.value(SIGNATURE, header.getSignature());
+            w.end(ENTRY_HEADER);
+        }
+
+        private void writeFields(TiesDBType fieldType, Iterable<Field> fields) {
+            TiesEBMLDirectWriter w = writer;
+            for (Field field : fields) {
+                w.begin(fieldType);
+                w.value(FIELD_NAME, UTF8StringFormat.INSTANCE, field.getName());
+                w.value(FIELD_TYPE, ASCIIStringFormat.INSTANCE, field.getType());
+                field.accept(this);
+                w.end(fieldType);
+            }
+        }
+
+    }
+
+}
@@ -56,9 +56,8 @@ public class ModificationResultErrorWriter implements Writer<ModificationResultE
 
         write(MODIFICATION_ERROR, //
                 write(ENTRY_HASH, BytesFormat.INSTANCE, error.getEntryHeaderHash()), //
-                writeIf(null != error.getError(), //
-                        write(ERROR_MESSAGE, UTF8StringFormat.INSTANCE, String.valueOf(error.getError().getMessage())) //
-                ) //
+                writeNotNull(ERROR_MESSAGE, UTF8StringFormat.INSTANCE, //
+                        null == error.getError() ? null : String.valueOf(error.getError().getMessage())) //
         ).accept(session);
 
     }
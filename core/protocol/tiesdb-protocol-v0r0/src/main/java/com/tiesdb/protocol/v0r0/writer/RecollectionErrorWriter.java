@@ -51,9 +51,8 @@ public class RecollectionErrorWriter implements Writer<RecollectionErrorWriter.R
         LOG.debug("RecollectionError {}", error);
 
         write(RECOLLECTION_ERROR, //
-                writeIf(null != error.getError(), //
-                        write(ERROR_MESSAGE, UTF8StringFormat.INSTANCE, String.valueOf(error.getError().getMessage())) //
-                ) //
+                writeNotNull(ERROR_MESSAGE, UTF8StringFormat.INSTANCE, //
+                        null == error.getError() ? null : String.valueOf(error.getError().getMessage())) //
         ).accept(session);
 
     }
@@ -47,40 +47,57 @@ public class ResponseWriter implements Writer<Writer.Response> {
         }
     }
 
-    private final SpecificResponseWriter specificResponseWriter = new SpecificResponseWriter() {
+    private final SpecificResponseWriter specificResponseWriter;
 
-        private final ModificationResponseWriter modificationResponseWriter = new ModificationResponseWriter();
-        private final RecollectionResponseWriter recollectionResponseWriter = new RecollectionResponseWriter();
-        private final SchemaResponseWriter schemaResponseWriter = new SchemaResponseWriter();
-        private final HealingResponseWriter healingResponseWriter = new HealingResponseWriter();
-        private final BillingResponseWriter billingResponseWriter = new BillingResponseWriter();
+    public ResponseWriter() {
+        this(false);
+    }
 
-        @Override
-        public ConversationConsumer on(RecollectionResponse response) throws TiesDBProtocolException {
-            return write(recollectionResponseWriter, response);
-        }
+    /**
+     * @param direct
+     *            write recollection responses with
+     *            {@link DirectRecollectionResponseWriter}
+     */
+    public ResponseWriter(boolean direct) {
+        this.specificResponseWriter = newSpecificResponseWriter(
+                direct ? new DirectRecollectionResponseWriter() : new RecollectionResponseWriter());
+    }
 
-        @Override
-        public ConversationConsumer on(ModificationResponse response) throws TiesDBProtocolException {
-            return write(modificationResponseWriter, response);
-        }
+    private static SpecificResponseWriter newSpecificResponseWriter(Writer<RecollectionResponse> recollectionResponseWriter) {
+        return new SpecificResponseWriter() {
 
-        @Override
-        public ConversationConsumer on(SchemaResponse response) throws TiesDBProtocolException {
-            return write(schemaResponseWriter, response);
-        }
+            private final ModificationResponseWriter modificationResponseWriter = new ModificationResponseWriter();
+            private final SchemaResponseWriter schemaResponseWriter = new SchemaResponseWriter();
+            private final HealingResponseWriter healingResponseWriter = new HealingResponseWriter();
+            private final BillingResponseWriter billingResponseWriter = new BillingResponseWriter();
 
-        @Override
-        public ConversationConsumer on(HealingResponse response) throws TiesDBProtocolException {
-            return write(healingResponseWriter, response);
-        }
+            @Override
+            public ConversationConsumer on(RecollectionResponse response) throws TiesDBProtocolException {
+                return write(recollectionResponseWriter, response);
+            }
 
-        @Override
-        public ConversationConsumer on(BillingResponse response) throws TiesDBProtocolException {
-            return write(billingResponseWriter, response);
-        }
+            @Override
+            public ConversationConsumer on(ModificationResponse response) throws TiesDBProtocolException {
+                return write(modificationResponseWriter, response);
+            }
 
-    };
+            @Override
+            public ConversationConsumer on(SchemaResponse response) throws TiesDBProtocolException {
+                return write(schemaResponseWriter, response);
+            }
+
+            @Override
+            public ConversationConsumer on(HealingResponse response) throws TiesDBProtocolException {
+                return write(healingResponseWriter, response);
+            }
+
+            @Override
+            public ConversationConsumer on(BillingResponse response) throws TiesDBProtocolException {
+                return write(billingResponseWriter, response);
+            }
+
+        };
+    }
 
     @Override
     public void accept(Conversation session, Response response) throws TiesDBProtocolException {
@@ -104,9 +104,9 @@ final class WriterUtil {
     }
 
     private static void writeTag(Conversation s, TiesDBType t, ConversationConsumer c) throws TiesDBProtocolException {
-        s.accept(new Event(t, EventState.BEGIN));
+        s.accept(Event.of(t, EventState.BEGIN));
         c.accept(s);
-        s.accept(new Event(t, EventState.END));
+        s.accept(Event.of(t, EventState.END));
     }
 
     private static <O> void writeData(Conversation s, EBMLWriteFormat<O> f, O d) throws TiesDBProtocolException {
@@ -0,0 +1,344 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.v0r0.test;
+
+import static com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.VERSION;
+import static com.tiesdb.protocol.v0r0.ebml.TiesDBType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.tiesdb.protocol.TiesDBProtocolManager;
+import com.tiesdb.protocol.api.TiesDBProtocol;
+import com.tiesdb.protocol.api.TiesDBProtocolHandler;
+import com.tiesdb.protocol.api.TiesDBProtocolHandlerProvider;
+import com.tiesdb.protocol.api.Version;
+import com.tiesdb.protocol.exception.TiesDBException;
+import com.tiesdb.protocol.v0r0.TiesDBProtocolV0R0.Conversation;
+import com.tiesdb.protocol.v0r0.ebml.TiesEBMLDirectWriter;
+import com.tiesdb.protocol.v0r0.test.util.StreamOutput;
+import com.tiesdb.protocol.v0r0.writer.EntryHeaderWriter.EntryHeader;
+import com.tiesdb.protocol.v0r0.writer.FieldWriter.Field;
+import com.tiesdb.protocol.v0r0.writer.Multiple;
+import com.tiesdb.protocol.v0r0.writer.RecollectionErrorWriter.RecollectionError;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResponseWriter.RecollectionResponse;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResponseWriter.RecollectionResult;
+import com.tiesdb.protocol.v0r0.writer.RecollectionResultWriter.RecollectionEntry;
+import com.tiesdb.protocol.v0r0.writer.ResponseWriter;
+
+import one.utopic.sparse.ebml.EBMLFormat;
+import one.utopic.sparse.ebml.format.BytesFormat;
+import one.utopic.sparse.ebml.format.IntegerFormat;
+import one.utopic.sparse.ebml.format.UTF8StringFormat;
+
+public class TiesEBMLDirectWriterTest {
+
+    private static final int[] SIZE_BOUNDARIES = { 0, 1, 125, 126, 127, 128, 16381, 16382, 16383, 16384, 70000 };
+
+    protected static List<Arguments> getResponseCorpus() {
+        Random random = new Random(0x7135DB);
+        List<Arguments> corpus = new LinkedList<>();
+        corpus.add(Arguments.of("empty", response(BigInteger.ZERO)));
+        corpus.add(Arguments.of("single value", response(BigInteger.ONE, //
+                entry(random, 16, false, false, valueField("id", "int32", IntegerFormat.INSTANCE, 42)))));
+        corpus.add(Arguments.of("hashed fields", response(BigInteger.valueOf(2), //
+                entry(random, 16, true, false, hashField("id", "int32", bytes(random, 32)),
+                        hashField("data", "binary", bytes(random, 32))))));
+        corpus.add(Arguments.of("empty old hash", response(BigInteger.valueOf(3), //
+                entry(random, 16, false, false, valueField("name", "string", UTF8StringFormat.INSTANCE, "\u0422\u0438\u0435\u0441")))));
+        corpus.add(Arguments.of("computed fields", response(BigInteger.valueOf(4), //
+                entry(random, 16, true, true, valueField("id", "int32", IntegerFormat.INSTANCE, -1)))));
+        corpus.add(Arguments.of("errors", response(BigInteger.valueOf(Long.MAX_VALUE), //
+                error(new Exception("Recollection failed")), //
+                error(null), //
+                entry(random, 16, false, false, valueField("id", "int32", IntegerFormat.INSTANCE, 0)), //
+                error(new Exception((String) null)))));
+        for (int size : SIZE_BOUNDARIES) {
+            corpus.add(Arguments.of("field of " + size + " bytes", response(BigInteger.valueOf(size), //
+                    entry(random, 16, true, false, valueField("data", "binary", BytesFormat.INSTANCE, bytes(random, size))))));
+        }
+        for (int size : SIZE_BOUNDARIES) {
+            corpus.add(Arguments.of("fields hash of " + size + " bytes", response(BigInteger.valueOf(size), //
+                    entry(random, size, false, false, valueField("id", "int32", IntegerFormat.INSTANCE, size)))));
+        }
+        RecollectionResult[] results = new RecollectionResult[512];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = entry(random, 32, 0 == i % 2, 0 == i % 3, //
+                    valueField("id", "int32", IntegerFormat.INSTANCE, i), //
+                    valueField("data", "binary", BytesFormat.INSTANCE, bytes(random, i * 37)), //
+                    hashField("hidden", "binary", bytes(random, 32)));
+        }
+        corpus.add(Arguments.of("many entries", response(BigInteger.TEN.pow(30), results)));
+        return corpus;
+    }
+
+    @DisplayName("DirectWriterCorpusTest")
+    @ParameterizedTest(name = "{index}. {0}")
+    @MethodSource("getResponseCorpus")
+    public void directWriterCorpusTest(String name, RecollectionResponse response) throws TiesDBException {
+        byte[] expected = write(new ResponseWriter(), response, response);
+        byte[] actual = write(new ResponseWriter(true), response, response);
+        assertArrayEquals(expected, actual, name);
+    }
+
+    @DisplayName("DirectWriterReuseTest")
+    @Test
+    public void directWriterReuseTest() throws TiesDBException {
+        List<Arguments> corpus = getResponseCorpus();
+        RecollectionResponse[] responses = new RecollectionResponse[corpus.size()];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = (RecollectionResponse) corpus.get(i).get()[1];
+        }
+        Collections.reverse(Arrays.asList(responses));
+        assertArrayEquals(write(new ResponseWriter(), responses), write(new ResponseWriter(true), responses));
+    }
+
+    @DisplayName("DirectWriterUnbalancedTest")
+    @Test
+    public void directWriterUnbalancedTest() {
+        TiesEBMLDirectWriter writer = new TiesEBMLDirectWriter();
+        assertThrows(IllegalStateException.class, () -> writer.end(ENTRY));
+        writer.begin(RECOLLECTION_RESPONSE);
+        writer.begin(RECOLLECTION_RESULT);
+        assertThrows(IllegalStateException.class, () -> writer.end(RECOLLECTION_RESPONSE));
+        assertThrows(IllegalStateException.class, writer::encode);
+        assertThrows(IllegalArgumentException.class, () -> writer.value(RECOLLECTION_RESULT, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> writer.begin(MESSAGE_ID));
+        writer.reset();
+    }
+
+    private static byte[] write(ResponseWriter writer, RecollectionResponse... responses) throws TiesDBException {
+        TiesDBProtocol p = TiesDBProtocolManager.getProtocol(VERSION);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        p.createChannel(new StreamOutput(baos), new TiesDBProtocolHandlerProvider() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <S> TiesDBProtocolHandler<S> getHandler(Version localVersion, Version remoteVersion, S session) {
+                return (TiesDBProtocolHandler<S>) new TiesDBProtocolHandler<Conversation>() {
+                    @Override
+                    public void handle(Conversation c) throws TiesDBException {
+                        for (RecollectionResponse response : responses) {
+                            writer.accept(c, response);
+                        }
+                    }
+                };
+            }
+        });
+        return baos.toByteArray();
+    }
+
+    private static byte[] bytes(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static RecollectionResponse response(BigInteger messageId, RecollectionResult... results) {
+        List<RecollectionResult> resultList = Arrays.asList(results);
+        return new RecollectionResponse() {
+
+            @Override
+            public BigInteger getMessageId() {
+                return messageId;
+            }
+
+            @Override
+            public Iterable<RecollectionResult> getResults() {
+                return resultList;
+            }
+
+        };
+    }
+
+    private static RecollectionError error(Throwable error) {
+        return new RecollectionError() {
+
+            @Override
+            public Throwable getError() {
+                return error;
+            }
+
+        };
+    }
+
+    private static RecollectionEntry entry(Random random, int hashSize, boolean withOldHash, boolean withComputed,
+            Field... fields) {
+        EntryHeader header = header(random, hashSize, withOldHash);
+        Multiple<Field> entryFields = multiple(Arrays.asList(fields));
+        Multiple<Field> computedFields = multiple(!withComputed ? Collections.emptyList()
+                : Arrays.asList( //
+                        valueField("count", "int32", IntegerFormat.INSTANCE, fields.length), //
+                        valueField("digest", "binary", BytesFormat.INSTANCE, bytes(random, 128))));
+        return new RecollectionEntry() {
+
+            @Override
+            public EntryHeader getEntryHeader() {
+                return header;
+            }
+
+            @Override
+            public Multiple<Field> getEntryFields() {
+                return entryFields;
+            }
+
+            @Override
+            public Multiple<Field> getComputedFields() {
+                return computedFields;
+            }
+
+        };
+    }
+
+    private static EntryHeader header(Random random, int hashSize, boolean withOldHash) {
+        byte[] fldHash = bytes(random, hashSize);
+        byte[] oldHash = withOldHash ? bytes(random, hashSize) : new byte[0];
+        byte[] signer = bytes(random, 20);
+        byte[] signature = bytes(random, 65);
+        Date timestamp = new Date(1_500_000_000_000L + random.nextInt(Integer.MAX_VALUE));
+        BigInteger version = BigInteger.valueOf(random.nextInt(Integer.MAX_VALUE));
+        return new EntryHeader() {
+
+            @Override
+            public byte[] getSignature() {
+                return signature;
+            }
+
+            @Override
+            public byte[] getSigner() {
+                return signer;
+            }
+
+            @Override
+            public String getTablespaceName() {
+                return "tablespace";
+            }
+
+            @Override
+            public String getTableName() {
+                return "table";
+            }
+
+            @Override
+            public byte[] getEntryFldHash() {
+                return fldHash;
+            }
+
+            @Override
+            public Integer getEntryNetwork() {
+                return 60;
+            }
+
+            @Override
+            public byte[] getEntryOldHash() {
+                return oldHash;
+            }
+
+            @Override
+            public Date getEntryTimestamp() {
+                return timestamp;
+            }
+
+            @Override
+            public BigInteger getEntryVersion() {
+                return version;
+            }
+
+        };
+    }
+
+    private static <O> Field.ValueField<O> valueField(String name, String type, EBMLFormat<O> format, O value) {
+        return new Field.ValueField<O>() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public EBMLFormat<O> getFormat() {
+                return format;
+            }
+
+            @Override
+            public O getValue() {
+                return value;
+            }
+
+        };
+    }
+
+    private static Field.HashField hashField(String name, String type, byte[] hash) {
+        return new Field.HashField() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public byte[] getHash() {
+                return hash;
+            }
+
+        };
+    }
+
+    private static <T> Multiple<T> multiple(List<T> list) {
+        List<T> copy = new ArrayList<>(list);
+        return new Multiple<T>() {
+
+            @Override
+            public Iterator<T> iterator() {
+                return copy.iterator();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return copy.isEmpty();
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package com.tiesdb.protocol.api;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.tiesdb.protocol.api.TiesDBProtocol.TiesDBChannelInput;
+
+/**
+ * TiesDB channel input over a {@link ByteBuffer}.
+ * 
+ * <P>
+ * Reads directly from the buffer without copying it.
+ */
+public class TiesDBChannelBufferInput implements TiesDBChannelInput {
+
+    private final ByteBuffer buf;
+    private volatile boolean isClosed = false;
+
+    public TiesDBChannelBufferInput(ByteBuffer buf) {
+        if (null == buf) {
+            throw new NullPointerException("The buf should not be null");
+        }
+        this.buf = buf.slice();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return isClosed || !buf.hasRemaining();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        if (!buf.hasRemaining()) {
+            throw new EOFException("End of channel input reached");
+        }
+        return buf.get();
+    }
+
+    @Override
+    public int skip(int byteCount) throws IOException {
+        int count = Math.max(0, Math.min(byteCount, buf.remaining()));
+        buf.position(buf.position() + count);
+        return count;
+    }
+
+    public int remaining() {
+        return buf.remaining();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        isClosed = true;
+    }
+
+}
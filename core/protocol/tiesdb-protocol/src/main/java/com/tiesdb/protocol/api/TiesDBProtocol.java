@@ -20,6 +20,7 @@ package com.tiesdb.protocol.api;
 
 import static com.tiesdb.protocol.api.Version.VersionComprator;
 
+import java.io.IOException;
 import java.util.Comparator;
 
 import com.tiesdb.protocol.exception.TiesDBException;
@@ -62,6 +63,16 @@ public interface TiesDBProtocol {
     }
 
     interface TiesDBChannelOutput extends Output, Flushable, Closable {
+
+        /**
+         * Writes len bytes from the buffer.
+         */
+        default void write(byte[] buf, int off, int len) throws IOException {
+            for (int i = 0; i < len; i++) {
+                writeByte(buf[off + i]);
+            }
+        }
+
     }
 
     interface TiesDBProtocolProcessor<T> {